@@ -1,12 +1,72 @@
 package org.app;
 
+// Valores por omissão; os ajustáveis em tempo de execução são lidos via GestorConfiguracao
 public class Config {
     // Caminho para guardar os logs (tem de ser public static final)
     public static final String LOG_FILE = "src/main/java/logs/monitor_security.log";
 
+    // Rotação do log: tamanho máximo (KB) e idade máxima (min) do segmento ativo
+    public static final long LOG_SEGMENTO_MAX_KB = 8 * 1024;
+    public static final long LOG_SEGMENTO_MAX_MIN = 60;
+
+    // Tamanho (descomprimido) de cada bloco gzip independente dos segmentos fechados
+    public static final int LOG_BLOCO_COMPRESSAO_BYTES = 64 * 1024;
+
     // Intervalo de verificação do monitor (ms)
     public static final int MONITOR_INTERVAL_MS = 1000;
 
     // Tempo limite para considerar que uma thread está em Starvation (ms)
     public static final long STARVATION_THRESHOLD_MS = 3000;
-}
\ No newline at end of file
+
+    // Intervalo entre snapshots de telemetria do próprio monitor no log (ms)
+    public static final long TELEMETRIA_INTERVAL_MS = 30000;
+
+    // Período de envio dos deltas do Wait-for Graph para o coordenador distribuído (ms)
+    public static final long PUBLICACAO_GRAFO_INTERVAL_MS = 100;
+
+    // Orçamento de memória para o estado do monitor (eventos e contadores por thread, KB)
+    public static final int ORCAMENTO_MEMORIA_MONITOR_KB = 4096;
+
+    // Tempo de inatividade após o qual os contadores de uma thread são despejados (ms)
+    public static final long CONTADORES_TTL_MS = 10 * 60 * 1000;
+
+    // Modo caos: iterações por cenário, probabilidade de injeção por ponto e atraso máximo (µs)
+    public static final int CAOS_ITERACOES = 2000;
+    public static final double CAOS_PROBABILIDADE = 0.5;
+    public static final long CAOS_ATRASO_MAX_MICROS = 200;
+
+    // Painel ao vivo: taxa de redesenho (frames por segundo)
+    public static final int PAINEL_FPS = 4;
+
+    // Previsão de stock: janela deslizante (s) em baldes, nº máximo de itens seguidos,
+    // nível mínimo (unidades) e horizonte de reposição (rutura prevista em menos de N s)
+    public static final long PREVISAO_JANELA_S = 15 * 60;
+    public static final int PREVISAO_BALDES = 60;
+    public static final int PREVISAO_MAX_ITENS = 10_000;
+    public static final int STOCK_NIVEL_MINIMO = 5;
+    public static final long STOCK_HORIZONTE_REPOSICAO_S = 300;
+
+    // Controlo de admissão (flood/DoS): quota por thread (acessos/s e rajada) e reação
+    // das aquisições de threads acima da quota (desligado / atrasar / rejeitar)
+    public static final String ADMISSAO_MODO = "desligado";
+    public static final double ADMISSAO_TAXA_POR_S = 20;
+    public static final long ADMISSAO_RAJADA = 10;
+
+    // Lock do recurso disputado na solução de Starvation: LockAdaptativo (barging, FIFO só acima do
+    // limite de Starvation) ou, se false, ReentrantLock(true) (handoff FIFO em todas as libertações)
+    public static final boolean STARVATION_LOCK_ADAPTATIVO = true;
+
+    // LockPrioridade: cada passo de espera aumenta a prioridade efetiva de um pedido em 1 (até MAX_PRIORITY)
+    public static final long PRIORIDADE_ENVELHECIMENTO_MS = 50;
+
+    // BaseDados: os bloqueios síncronos (bloqueioLeitura) passam primeiro por um LockPrioridade por tabela
+    public static final boolean BD_LOCK_PRIORIDADE = false;
+
+    // Snapshots periódicos do estado (stock e contadores) e restauro no arranque
+    public static final String SNAPSHOT_FILE = "src/main/java/logs/simulador.snap";
+    public static final long SNAPSHOT_INTERVALO_MS = 10_000;
+
+    // Gravação JFR: definições por evento (limiar, stack trace) e diretório dos ficheiros .jfr
+    public static final String JFR_DEFINICOES = "monitor.jfc";
+    public static final String JFR_DIRETORIO = "src/main/java/logs";
+}
@@ -0,0 +1,229 @@
+package org.app;
+
+import java.util.Map;
+import java.util.Properties;
+import java.util.TreeMap;
+
+/**
+ * Snapshot imutável e validado da configuração em tempo de execução.
+ * Os valores por omissão são as constantes de Config; o GestorConfiguracao
+ * publica novos snapshots (referência volatile) quando o ficheiro muda.
+ */
+public final class Configuracao {
+    // Chaves suportadas (ficheiro / -D<chave> / variável de ambiente SIMULADOR_...)
+    public static final String MONITOR_INTERVALO_MS = "monitor.intervalo.ms";
+    public static final String STARVATION_LIMITE_MS = "monitor.starvation.limite.ms";
+    public static final String TELEMETRIA_INTERVALO_MS = "monitor.telemetria.intervalo.ms";
+    public static final String AMOSTRAGEM_ACESSOS = "monitor.amostragem.acessos";
+    public static final String SINK_CONSOLA = "monitor.sink.consola";
+    public static final String SINK_FICHEIRO = "monitor.sink.ficheiro";
+    public static final String LOG_SEGMENTO_MAX_KB = "monitor.log.segmento.max.kb";
+    public static final String LOG_SEGMENTO_MAX_MIN = "monitor.log.segmento.max.min";
+    public static final String ADMISSAO_MODO = "monitor.admissao.modo";
+    public static final String ADMISSAO_TAXA = "monitor.admissao.taxa";
+    public static final String ADMISSAO_RAJADA = "monitor.admissao.rajada";
+    // Lida só no arranque do monitor (dimensiona o buffer de eventos e os contadores por thread)
+    public static final String MEMORIA_KB = "monitor.memoria.kb";
+
+    // Modos do controlo de admissão (ControloAdmissao.Modo)
+    static final String[] MODOS_ADMISSAO = { "desligado", "atrasar", "rejeitar" };
+
+    static final String[] CHAVES = { MONITOR_INTERVALO_MS, STARVATION_LIMITE_MS, TELEMETRIA_INTERVALO_MS,
+            AMOSTRAGEM_ACESSOS, SINK_CONSOLA, SINK_FICHEIRO, LOG_SEGMENTO_MAX_KB, LOG_SEGMENTO_MAX_MIN,
+            ADMISSAO_MODO, ADMISSAO_TAXA, ADMISSAO_RAJADA, MEMORIA_KB };
+
+    private final long monitorIntervaloMs;
+    private final long starvationLimiteMs;
+    private final long telemetriaIntervaloMs;
+    private final double amostragemAcessos;
+    private final boolean sinkConsola;
+    private final boolean sinkFicheiro;
+    private final long logSegmentoMaxKb;
+    private final long logSegmentoMaxMin;
+    private final String admissaoModo;
+    private final double admissaoTaxa;
+    private final long admissaoRajada;
+    private final long memoriaKb;
+
+    private Configuracao(long monitorIntervaloMs, long starvationLimiteMs, long telemetriaIntervaloMs,
+            double amostragemAcessos, boolean sinkConsola, boolean sinkFicheiro, long logSegmentoMaxKb,
+            long logSegmentoMaxMin, String admissaoModo, double admissaoTaxa, long admissaoRajada, long memoriaKb) {
+        this.monitorIntervaloMs = monitorIntervaloMs;
+        this.starvationLimiteMs = starvationLimiteMs;
+        this.telemetriaIntervaloMs = telemetriaIntervaloMs;
+        this.amostragemAcessos = amostragemAcessos;
+        this.sinkConsola = sinkConsola;
+        this.sinkFicheiro = sinkFicheiro;
+        this.logSegmentoMaxKb = logSegmentoMaxKb;
+        this.logSegmentoMaxMin = logSegmentoMaxMin;
+        this.admissaoModo = admissaoModo;
+        this.admissaoTaxa = admissaoTaxa;
+        this.admissaoRajada = admissaoRajada;
+        this.memoriaKb = memoriaKb;
+    }
+
+    public static Configuracao padrao() {
+        return new Configuracao(Config.MONITOR_INTERVAL_MS, Config.STARVATION_THRESHOLD_MS,
+                Config.TELEMETRIA_INTERVAL_MS, 1.0, true, true, Config.LOG_SEGMENTO_MAX_KB,
+                Config.LOG_SEGMENTO_MAX_MIN, Config.ADMISSAO_MODO, Config.ADMISSAO_TAXA_POR_S,
+                Config.ADMISSAO_RAJADA, Config.ORCAMENTO_MEMORIA_MONITOR_KB);
+    }
+
+    /**
+     * Constrói um snapshot a partir de propriedades (as chaves em falta usam o valor por omissão).
+     * Lança IllegalArgumentException se algum valor for inválido.
+     */
+    public static Configuracao de(Properties props) {
+        Configuracao p = padrao();
+        return new Configuracao(
+                lerLong(props, MONITOR_INTERVALO_MS, p.monitorIntervaloMs, 10, 60_000),
+                lerLong(props, STARVATION_LIMITE_MS, p.starvationLimiteMs, 1, 3_600_000),
+                lerLong(props, TELEMETRIA_INTERVALO_MS, p.telemetriaIntervaloMs, 1000, 86_400_000),
+                lerDouble(props, AMOSTRAGEM_ACESSOS, p.amostragemAcessos, 0.0, 1.0),
+                lerBoolean(props, SINK_CONSOLA, p.sinkConsola),
+                lerBoolean(props, SINK_FICHEIRO, p.sinkFicheiro),
+                lerLong(props, LOG_SEGMENTO_MAX_KB, p.logSegmentoMaxKb, 1, 1_048_576),
+                lerLong(props, LOG_SEGMENTO_MAX_MIN, p.logSegmentoMaxMin, 1, 10_080),
+                lerOpcao(props, ADMISSAO_MODO, p.admissaoModo, MODOS_ADMISSAO),
+                lerDouble(props, ADMISSAO_TAXA, p.admissaoTaxa, 0.001, 1_000_000),
+                lerLong(props, ADMISSAO_RAJADA, p.admissaoRajada, 1, 100_000),
+                lerLong(props, MEMORIA_KB, p.memoriaKb, 64, 1_048_576));
+    }
+
+    private static long lerLong(Properties props, String chave, long omissao, long min, long max) {
+        String v = props.getProperty(chave);
+        if (v == null)
+            return omissao;
+        try {
+            long valor = Long.parseLong(v.trim());
+            if (valor < min || valor > max)
+                throw new IllegalArgumentException(chave + "=" + v + " fora do intervalo [" + min + ", " + max + "]");
+            return valor;
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException(chave + "=" + v + " não é um inteiro");
+        }
+    }
+
+    private static double lerDouble(Properties props, String chave, double omissao, double min, double max) {
+        String v = props.getProperty(chave);
+        if (v == null)
+            return omissao;
+        try {
+            double valor = Double.parseDouble(v.trim());
+            if (!(valor >= min && valor <= max))
+                throw new IllegalArgumentException(chave + "=" + v + " fora do intervalo [" + min + ", " + max + "]");
+            return valor;
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException(chave + "=" + v + " não é um número");
+        }
+    }
+
+    private static boolean lerBoolean(Properties props, String chave, boolean omissao) {
+        String v = props.getProperty(chave);
+        if (v == null)
+            return omissao;
+        String t = v.trim().toLowerCase();
+        if (t.equals("true") || t.equals("false"))
+            return Boolean.parseBoolean(t);
+        throw new IllegalArgumentException(chave + "=" + v + " não é true/false");
+    }
+
+    private static String lerOpcao(Properties props, String chave, String omissao, String[] opcoes) {
+        String v = props.getProperty(chave);
+        if (v == null)
+            return omissao;
+        String t = v.trim().toLowerCase();
+        for (String opcao : opcoes)
+            if (opcao.equals(t))
+                return t;
+        throw new IllegalArgumentException(chave + "=" + v + " não é um de " + String.join("/", opcoes));
+    }
+
+    public long getMonitorIntervaloMs() {
+        return monitorIntervaloMs;
+    }
+
+    public long getStarvationLimiteMs() {
+        return starvationLimiteMs;
+    }
+
+    public long getTelemetriaIntervaloMs() {
+        return telemetriaIntervaloMs;
+    }
+
+    public double getAmostragemAcessos() {
+        return amostragemAcessos;
+    }
+
+    public boolean isSinkConsola() {
+        return sinkConsola;
+    }
+
+    public boolean isSinkFicheiro() {
+        return sinkFicheiro;
+    }
+
+    public long getLogSegmentoMaxKb() {
+        return logSegmentoMaxKb;
+    }
+
+    public long getLogSegmentoMaxMin() {
+        return logSegmentoMaxMin;
+    }
+
+    public String getAdmissaoModo() {
+        return admissaoModo;
+    }
+
+    // Acessos/s por thread; pode ser fracionária (ex: 0.2 = um acesso a cada 5s)
+    public double getAdmissaoTaxa() {
+        return admissaoTaxa;
+    }
+
+    public long getAdmissaoRajada() {
+        return admissaoRajada;
+    }
+
+    public long getMemoriaKb() {
+        return memoriaKb;
+    }
+
+    private Map<String, Object> comoMapa() {
+        Map<String, Object> m = new TreeMap<>();
+        m.put(MONITOR_INTERVALO_MS, monitorIntervaloMs);
+        m.put(STARVATION_LIMITE_MS, starvationLimiteMs);
+        m.put(TELEMETRIA_INTERVALO_MS, telemetriaIntervaloMs);
+        m.put(AMOSTRAGEM_ACESSOS, amostragemAcessos);
+        m.put(SINK_CONSOLA, sinkConsola);
+        m.put(SINK_FICHEIRO, sinkFicheiro);
+        m.put(LOG_SEGMENTO_MAX_KB, logSegmentoMaxKb);
+        m.put(LOG_SEGMENTO_MAX_MIN, logSegmentoMaxMin);
+        m.put(ADMISSAO_MODO, admissaoModo);
+        m.put(ADMISSAO_TAXA, admissaoTaxa);
+        m.put(ADMISSAO_RAJADA, admissaoRajada);
+        m.put(MEMORIA_KB, memoriaKb);
+        return m;
+    }
+
+    public boolean equivalente(Configuracao outra) {
+        return comoMapa().equals(outra.comoMapa());
+    }
+
+    /**
+     * Descrição das chaves que mudaram em relação a outro snapshot (para o log).
+     */
+    public String diferencas(Configuracao anterior) {
+        StringBuilder sb = new StringBuilder();
+        Map<String, Object> antes = anterior.comoMapa();
+        comoMapa().forEach((k, v) -> {
+            if (!v.equals(antes.get(k)))
+                sb.append(k).append(": ").append(antes.get(k)).append(" -> ").append(v).append("; ");
+        });
+        return sb.length() == 0 ? "sem alterações" : sb.toString();
+    }
+
+    @Override
+    public String toString() {
+        return comoMapa().toString();
+    }
+}
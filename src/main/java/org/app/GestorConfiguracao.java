@@ -0,0 +1,156 @@
+package org.app;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.FileSystems;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.util.List;
+import java.util.Locale;
+import java.util.Properties;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.BiConsumer;
+
+/**
+ * Carrega a configuração em camadas (omissão < ficheiro < ambiente < -D) e
+ * recarrega-a quando o ficheiro muda. As leituras no hot path são apenas a
+ * leitura de uma referência volatile para um snapshot imutável.
+ *
+ * Formatos: .properties (chave=valor) ou YAML plano (chave: valor, sem aninhamento).
+ */
+public final class GestorConfiguracao {
+    public static final String PROPRIEDADE_FICHEIRO = "simulador.config";
+    public static final String FICHEIRO_PADRAO = "simulador.properties";
+
+    private static volatile Configuracao atual = Configuracao.padrao();
+    private static final List<BiConsumer<Configuracao, Configuracao>> ouvintes = new CopyOnWriteArrayList<>();
+    private static Path ficheiro;
+    private static Thread vigilante;
+
+    private GestorConfiguracao() {
+    }
+
+    /**
+     * Snapshot atual (leitura volatile, sem locks).
+     */
+    public static Configuracao atual() {
+        return atual;
+    }
+
+    /**
+     * Ouvinte chamado com (anterior, nova) sempre que um recarregamento é aplicado.
+     */
+    public static void adicionarOuvinte(BiConsumer<Configuracao, Configuracao> ouvinte) {
+        ouvintes.add(ouvinte);
+    }
+
+    /**
+     * Carga inicial e arranque do vigilante do ficheiro (se existir).
+     */
+    public static synchronized void iniciar() {
+        ficheiro = Paths.get(System.getProperty(PROPRIEDADE_FICHEIRO, FICHEIRO_PADRAO)).toAbsolutePath();
+        try {
+            atual = carregar();
+        } catch (IllegalArgumentException | IOException e) {
+            System.err.println("[CONFIG] Configuração inválida, a usar valores por omissão: " + e.getMessage());
+        }
+        if (vigilante == null && ficheiro.getParent() != null && Files.isDirectory(ficheiro.getParent())) {
+            vigilante = new Thread(GestorConfiguracao::vigiar, "Config-Watcher");
+            vigilante.setDaemon(true);
+            vigilante.start();
+        }
+    }
+
+    /**
+     * Recarrega e publica um novo snapshot. Um ficheiro inválido é rejeitado por inteiro
+     * e o snapshot anterior mantém-se.
+     */
+    public static synchronized boolean recarregar() {
+        Configuracao anterior = atual;
+        Configuracao nova;
+        try {
+            nova = carregar();
+        } catch (IllegalArgumentException | IOException e) {
+            System.err.println("[CONFIG] Recarregamento rejeitado: " + e.getMessage());
+            return false;
+        }
+        if (nova.equivalente(anterior))
+            return true; // Ex: várias escritas seguidas do mesmo conteúdo
+        atual = nova;
+        for (BiConsumer<Configuracao, Configuracao> ouvinte : ouvintes)
+            ouvinte.accept(anterior, nova);
+        return true;
+    }
+
+    private static Configuracao carregar() throws IOException {
+        Properties props = new Properties();
+        if (ficheiro != null && Files.isRegularFile(ficheiro))
+            lerFicheiro(ficheiro, props);
+
+        // Sobreposições: variáveis de ambiente e depois propriedades de sistema
+        for (String chave : Configuracao.CHAVES) {
+            String env = System.getenv("SIMULADOR_" + chave.replace('.', '_').toUpperCase(Locale.ROOT));
+            if (env != null)
+                props.setProperty(chave, env);
+            String sys = System.getProperty(chave);
+            if (sys != null)
+                props.setProperty(chave, sys);
+        }
+        return Configuracao.de(props);
+    }
+
+    private static void lerFicheiro(Path caminho, Properties props) throws IOException {
+        String nome = caminho.getFileName().toString().toLowerCase(Locale.ROOT);
+        if (nome.endsWith(".yml") || nome.endsWith(".yaml")) {
+            for (String linha : Files.readAllLines(caminho, StandardCharsets.UTF_8)) {
+                String l = linha.trim();
+                if (l.isEmpty() || l.startsWith("#"))
+                    continue;
+                int sep = l.indexOf(':');
+                if (sep <= 0)
+                    throw new IllegalArgumentException("Linha YAML inválida: " + linha);
+                String valor = l.substring(sep + 1).trim();
+                if (valor.length() >= 2 && (valor.startsWith("\"") && valor.endsWith("\"")))
+                    valor = valor.substring(1, valor.length() - 1);
+                props.setProperty(l.substring(0, sep).trim(), valor);
+            }
+        } else {
+            try (Reader r = Files.newBufferedReader(caminho, StandardCharsets.UTF_8)) {
+                props.load(r);
+            }
+        }
+    }
+
+    private static void vigiar() {
+        Path diretorio = ficheiro.getParent();
+        try (WatchService watcher = FileSystems.getDefault().newWatchService()) {
+            diretorio.register(watcher, StandardWatchEventKinds.ENTRY_CREATE, StandardWatchEventKinds.ENTRY_MODIFY);
+            while (true) {
+                WatchKey chave = watcher.take();
+                boolean alterado = false;
+                for (WatchEvent<?> evento : chave.pollEvents()) {
+                    Object contexto = evento.context();
+                    if (contexto instanceof Path && ficheiro.getFileName().equals(contexto))
+                        alterado = true;
+                }
+                chave.reset();
+                if (alterado) {
+                    // Os editores costumam gerar várias escritas seguidas: agrega-as
+                    Thread.sleep(100);
+                    recarregar();
+                }
+            }
+        } catch (InterruptedException | ClosedWatchServiceException e) {
+            Thread.currentThread().interrupt();
+        } catch (IOException e) {
+            System.err.println("[CONFIG] Hot reload indisponível: " + e.getMessage());
+        }
+    }
+}
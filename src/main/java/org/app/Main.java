@@ -1,17 +1,38 @@
 package org.app;
 
+import java.io.IOException;
+import java.nio.file.Path;
+import java.text.ParseException;
 import java.util.Scanner;
 
+import org.monitor.ConsultaLog;
+import org.monitor.GestorSnapshots;
+import org.monitor.GravacaoJFR;
 import org.monitor.MonitorEBPF;
+import org.monitor.PainelMonitor;
+import org.monitor.PipelineEventos;
+import org.monitor.PrevisaoStock;
 import org.resources.StockSangue;
+import org.scenarios.CaosScenario;
 import org.scenarios.DeadlockScenario;
 import org.scenarios.ExecutionOrderScenario;
+import org.scenarios.InversaoPrioridadeScenario;
 import org.scenarios.RaceConditionScenario;
 import org.scenarios.StarvationScenario;
+import org.solutions.BenchmarkAdmissao;
+import org.solutions.BenchmarkDetecaoDistribuida;
+import org.solutions.BenchmarkDetecaoSCC;
+import org.solutions.BenchmarkFairness;
+import org.solutions.BenchmarkPrevisaoStock;
+import org.solutions.BenchmarkPrioridade;
+import org.solutions.BenchmarkSnapshots;
 import org.solutions.DeadlockSolution;
 import org.solutions.ExecutionOrderSolution;
+import org.solutions.PoolEquipamentosSolution;
 import org.solutions.RaceConditionSolution;
 import org.solutions.StarvationSolution;
+import org.solutions.TransacoesAssincronasSolution;
+import org.solutions.VerificacaoEscalonamentos;
 
 public class Main {
     // Recurso global para testes manuais
@@ -19,8 +40,21 @@ public class Main {
     static Scanner scanner = new Scanner(System.in);
 
     public static void main(String[] args) {
+        // Configuração externa (simulador.properties / -Dsimulador.config=...) com hot reload
+        GestorConfiguracao.iniciar();
+
         MonitorEBPF monitor = MonitorEBPF.getInstance();
         monitor.start();
+
+        // Deteção distribuída (opcional): -Dsimulador.coordenador=127.0.0.1:7070 [-Dsimulador.no=NoA]
+        String coordenador = System.getProperty("simulador.coordenador");
+        if (coordenador != null)
+            ligarCoordenador(monitor, coordenador);
+        stockGlobal.ativarPrevisao("Stock Global");
+        PainelMonitor.registarStock("Stock Global", stockGlobal::getUnidades);
+        stockGlobal.ativarSnapshot("Stock Global");
+        restaurarSnapshot();
+        GestorSnapshots.global().iniciarPeriodico(Config.SNAPSHOT_FILE, Config.SNAPSHOT_INTERVALO_MS);
         
         // Aguardar que o monitor seja inicializado antes de mostrar o menu
         while (!monitor.isInicializado()) {
@@ -39,6 +73,9 @@ public class Main {
             System.out.println("1. MENU SEGURO (Correções)");
             System.out.println("2. MENU INSEGURO (Falhas)");
             System.out.println("3. Gestão de Stock (Manual)");
+            System.out.println("4. Painel ao Vivo");
+            System.out.println("5. Pesquisar Log de Segurança");
+            System.out.println("6. Gravação JFR (" + (GravacaoJFR.isAtiva() ? "parar e analisar" : "iniciar") + ")");
             System.out.println("0. Sair");
             System.out.print("Escolha: ");
             String op = scanner.nextLine();
@@ -53,8 +90,24 @@ public class Main {
                 case "3":
                     gestaoStockInterativa();
                     break;
+                case "4":
+                    painelAoVivo();
+                    break;
+                case "5":
+                    pesquisarLog();
+                    break;
+                case "6":
+                    gravacaoJFR();
+                    break;
                 case "0":
                     System.out.println("\n=== RELATÓRIO FINAL ===");
+                    try {
+                        GestorSnapshots.global().gravar(Config.SNAPSHOT_FILE);
+                    } catch (IOException e) {
+                        System.err.println("Erro ao gravar snapshot: " + e.getMessage());
+                    }
+                    if (GravacaoJFR.isAtiva())
+                        gravacaoJFR();
                     monitor.shutdown();
                     System.out.println("A encerrar sistema...");
                     try {
@@ -68,12 +121,51 @@ public class Main {
         }
     }
 
+    // Valor de -Dsimulador.coordenador no formato host:porta; inválido -> continua sem coordenador
+    private static void ligarCoordenador(MonitorEBPF monitor, String coordenador) {
+        int separador = coordenador.lastIndexOf(':');
+        int porta = -1;
+        if (separador > 0) {
+            try {
+                porta = Integer.parseInt(coordenador.substring(separador + 1));
+            } catch (NumberFormatException e) {
+                porta = -1;
+            }
+        }
+        if (porta < 1 || porta > 65535) {
+            System.err.println("Uso: -Dsimulador.coordenador=host:porta (ex: 127.0.0.1:7070); recebido '"
+                    + coordenador + "'. Deteção distribuída desativada.");
+            return;
+        }
+        String noId = System.getProperty("simulador.no", "No-" + ProcessHandle.current().pid());
+        monitor.ligarCoordenador(noId, coordenador.substring(0, separador), porta);
+    }
+
+    // Estado do último snapshot válido (stock e contadores), se existir
+    private static void restaurarSnapshot() {
+        long inicio = System.nanoTime();
+        GestorSnapshots.Snapshot s = GestorSnapshots.global().restaurar(Config.SNAPSHOT_FILE);
+        if (s != null)
+            System.out.println(String.format("[SNAPSHOT] Estado de %tF %<tT restaurado em %.1fms (Stock Global: %d)",
+                    s.instante, (System.nanoTime() - inicio) / 1e6, stockGlobal.getUnidades()));
+    }
+
     private static void menuSolucoes() {
         System.out.println("\n--- SOLUÇÕES E CORREÇÕES ---");
         System.out.println("1. Stock de Sangue (Synchronized)");
         System.out.println("2. Aceder a BD de Pacientes (Ordenação de Recursos)");
         System.out.println("3. Atendimentos de Pacientes (Fair Lock)");
         System.out.println("4. Cirurgia (Ordem de Execução - Semáforos)");
+        System.out.println("5. Benchmark Fairness (Unfair vs Fair vs Adaptativo)");
+        System.out.println("6. Pool de Equipamentos (Alocação Atómica k-de-n)");
+        System.out.println("7. Transações Assíncronas (CompletableFuture)");
+        System.out.println("8. Benchmark Deadlock Distribuído (2-16 nós)");
+        System.out.println("9. Benchmark Deteção em Grafos Grandes (1k-1M nós)");
+        System.out.println("10. Verificação Sistemática de Escalonamentos");
+        System.out.println("11. Benchmark Previsão de Stock (Janela Deslizante)");
+        System.out.println("12. Benchmark Snapshots do Estado (Sem Pausas)");
+        System.out.println("13. Benchmark Controlo de Admissão (Flood/DoS)");
+        System.out.println("14. Benchmark Herança de Prioridade (Latência de Urgentes)");
         System.out.println("0. Voltar");
         System.out.print("Escolha: ");
         String op = scanner.nextLine();
@@ -91,9 +183,40 @@ public class Main {
             case "4":
                 ExecutionOrderSolution.run();
                 break;
+            case "5":
+                BenchmarkFairness.run();
+                break;
+            case "6":
+                PoolEquipamentosSolution.run();
+                break;
+            case "7":
+                TransacoesAssincronasSolution.run();
+                break;
+            case "8":
+                BenchmarkDetecaoDistribuida.run();
+                break;
+            case "9":
+                BenchmarkDetecaoSCC.run();
+                break;
+            case "10":
+                VerificacaoEscalonamentos.run();
+                break;
+            case "11":
+                BenchmarkPrevisaoStock.run();
+                break;
+            case "12":
+                BenchmarkSnapshots.run();
+                break;
+            case "13":
+                BenchmarkAdmissao.run();
+                break;
+            case "14":
+                BenchmarkPrioridade.run();
+                break;
             case "0":
                 break;
         }
+        PipelineEventos.esvaziar();
     }
 
     private static void menuProblemas() {
@@ -102,6 +225,8 @@ public class Main {
         System.out.println("2. Aceder a BD de Pacientes (Deadlock - DoS em Base de Dados)");
         System.out.println("3. Atendimentos de Pacientes (Starvation - Flood na Triagem)");
         System.out.println("4. Cirurgia (Ordem Conflituante - Erro Protocolo)");
+        System.out.println("5. Modo Caos (Injeção de Falhas com Sementes; replay aproximado)");
+        System.out.println("6. Transação Urgente (Inversão de Prioridade em BD)");
         System.out.println("0. Voltar");
         System.out.print("Escolha: ");
         String op = scanner.nextLine();
@@ -120,17 +245,28 @@ public class Main {
                 case "4":
                     ExecutionOrderScenario.run();
                     break;
+                case "5":
+                    CaosScenario.run();
+                    break;
+                case "6":
+                    InversaoPrioridadeScenario.run();
+                    break;
                 case "0":
                     break;
             }
         } catch (Exception e) {
             e.printStackTrace();
         }
+        PipelineEventos.esvaziar();
     }
 
     private static void gestaoStockInterativa() {
         System.out.println("\n>> STOCK MANUAL");
         System.out.println("Stock Atual: " + stockGlobal.getUnidades());
+        PrevisaoStock.Previsao previsao = PrevisaoStock.global().previsao("Stock Global", System.nanoTime());
+        if (previsao != null)
+            System.out.println(String.format("Previsão: consumo %.1f/min, rutura em %s", previsao.consumoPorMinuto,
+                    PrevisaoStock.formatarSegundos(previsao.segundosAteRutura)));
         System.out.println("1. Adicionar | 2. Retirar | 0. Voltar");
         String acao = scanner.nextLine();
         try {
@@ -144,5 +280,83 @@ public class Main {
             }
         } catch (Exception e) {
         }
+        PipelineEventos.esvaziar();
+    }
+
+    private static void painelAoVivo() {
+        System.out.println("\n>> PAINEL AO VIVO");
+        System.out.println("Carga em segundo plano: 1. Starvation | 2. Modo Caos | 0. Nenhuma");
+        String carga = scanner.nextLine();
+
+        // Os println passam a eventos do pipeline; o painel desenha na consola original
+        PipelineEventos.setModoPainel(true);
+        PipelineEventos.Captura captura = PipelineEventos.capturarConsola();
+        PainelMonitor painel = new PainelMonitor(PipelineEventos.getConsola(), Config.PAINEL_FPS);
+        painel.iniciar();
+
+        Thread trabalho = null;
+        if (carga.equals("1") || carga.equals("2")) {
+            trabalho = new Thread(() -> {
+                try {
+                    if (carga.equals("1"))
+                        StarvationScenario.run();
+                    else
+                        CaosScenario.run();
+                } catch (Exception e) {
+                    System.out.println("Carga terminou com erro: " + e);
+                }
+            }, "Carga-Painel");
+            trabalho.setDaemon(true);
+            trabalho.start();
+        }
+
+        scanner.nextLine();
+        painel.parar();
+        captura.restaurar();
+        PipelineEventos.setModoPainel(false);
+        if (trabalho != null && trabalho.isAlive())
+            System.out.println("A carga continua em segundo plano até terminar.");
+    }
+
+    private static void gravacaoJFR() {
+        try {
+            if (!GravacaoJFR.isAtiva()) {
+                GravacaoJFR.iniciar(Config.JFR_DEFINICOES);
+                System.out.println("[JFR] Gravação iniciada (" + Config.JFR_DEFINICOES
+                        + "). Corra cenários e volte à opção 6 para parar.");
+                return;
+            }
+            Path ficheiro = GravacaoJFR.parar(Config.JFR_DIRETORIO);
+            System.out.println("[JFR] Gravação guardada em " + ficheiro);
+            GravacaoJFR.analisar(ficheiro, System.out);
+        } catch (IOException | ParseException e) {
+            System.err.println("Erro na gravação JFR: " + e.getMessage());
+        }
+    }
+
+    private static void pesquisarLog() {
+        System.out.println("\n>> PESQUISA NO LOG (índice por segmento)");
+        System.out.print("Tipo (ex: DEADLOCK, STARVATION, RACE CONDITION, ACESSO; ENTER = todos): ");
+        String tipo = scanner.nextLine().trim();
+        System.out.print("Thread (ENTER = todas): ");
+        String thread = scanner.nextLine().trim();
+        System.out.print("Últimos N minutos (ENTER = sem limite): ");
+        String minutos = scanner.nextLine().trim();
+        try {
+            long desde = minutos.isEmpty() ? Long.MIN_VALUE
+                    : System.currentTimeMillis() - Long.parseLong(minutos) * 60_000;
+            ConsultaLog.Resultado r = ConsultaLog.consultar(Config.LOG_FILE, tipo.isEmpty() ? null : tipo,
+                    thread.isEmpty() ? null : thread, desde, Long.MAX_VALUE);
+            int max = Math.min(50, r.entradas.size());
+            for (int i = r.entradas.size() - max; i < r.entradas.size(); i++)
+                System.out.println(r.entradas.get(i));
+            if (r.entradas.size() > max)
+                System.out.println("(... " + (r.entradas.size() - max) + " entradas anteriores omitidas)");
+            System.out.println(ConsultaLog.resumo(r));
+        } catch (NumberFormatException e) {
+            System.out.println("Número de minutos inválido.");
+        } catch (IOException e) {
+            System.out.println("Erro ao pesquisar o log: " + e.getMessage());
+        }
     }
 }
\ No newline at end of file
@@ -0,0 +1,55 @@
+package org.monitor;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Buffer circular de capacidade fixa: quando cheio, o elemento mais antigo é substituído.
+ * Mantém a memória constante em execuções longas (ex: ordem de eventos do monitor).
+ */
+public class BufferCircular<T> {
+    private final Object[] elementos;
+    private int inicio = 0;
+    private int tamanho = 0;
+    private long descartados = 0;
+
+    public BufferCircular(int capacidade) {
+        if (capacidade <= 0)
+            throw new IllegalArgumentException("Capacidade inválida: " + capacidade);
+        this.elementos = new Object[capacidade];
+    }
+
+    public synchronized void add(T elemento) {
+        if (tamanho < elementos.length) {
+            elementos[(inicio + tamanho) % elementos.length] = elemento;
+            tamanho++;
+        } else {
+            elementos[inicio] = elemento;
+            inicio = (inicio + 1) % elementos.length;
+            descartados++;
+        }
+    }
+
+    /**
+     * Cópia dos elementos retidos, do mais antigo para o mais recente.
+     */
+    @SuppressWarnings("unchecked")
+    public synchronized List<T> snapshot() {
+        List<T> copia = new ArrayList<>(tamanho);
+        for (int i = 0; i < tamanho; i++)
+            copia.add((T) elementos[(inicio + i) % elementos.length]);
+        return copia;
+    }
+
+    public synchronized int size() {
+        return tamanho;
+    }
+
+    public int capacidade() {
+        return elementos.length;
+    }
+
+    public synchronized long getDescartados() {
+        return descartados;
+    }
+}
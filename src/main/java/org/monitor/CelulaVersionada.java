@@ -0,0 +1,74 @@
+package org.monitor;
+
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Valor inteiro com captura por épocas (copy-on-write) para os snapshots do GestorSnapshots.
+ * A primeira escrita numa época nova guarda o valor que a célula tinha no fim da época
+ * anterior; um snapshot dessa época lê esse valor sem bloquear quem escreve.
+ *
+ * As escritas na mesma célula devem estar serializadas pelo dono e feitas dentro do lock
+ * (ex: os métodos synchronized do StockSangue);
+ * leituras não precisam de lock. Escritas concorrentes sem lock (StockSangue.retirarInseguro)
+ * mantêm a race original e o snapshot lê um dos valores escritos.
+ */
+public final class CelulaVersionada {
+
+    private static final class Versao {
+        final int valor;
+        final long epoca;
+        final int valorAnterior; // valor no fim da última época < epoca
+
+        Versao(int valor, long epoca, int valorAnterior) {
+            this.valor = valor;
+            this.epoca = epoca;
+            this.valorAnterior = valorAnterior;
+        }
+    }
+
+    private final AtomicReference<Versao> estado;
+    private final GestorSnapshots gestor;
+
+    public CelulaVersionada(int inicial) {
+        this(inicial, GestorSnapshots.global());
+    }
+
+    /**
+     * Célula cujas épocas são as do gestor dado (só pode ser registada nesse gestor).
+     */
+    public CelulaVersionada(int inicial, GestorSnapshots gestor) {
+        this.estado = new AtomicReference<>(new Versao(inicial, 0, inicial));
+        this.gestor = gestor;
+    }
+
+    public int get() {
+        return estado.get().valor;
+    }
+
+    public void set(int novo) {
+        long e = gestor.iniciarEscrita();
+        try {
+            set(novo, e);
+        } finally {
+            gestor.terminarEscrita(e);
+        }
+    }
+
+    /**
+     * Escrita dentro de uma operação já aberta com GestorSnapshots.iniciarEscrita (várias
+     * células atualizadas no mesmo corte, ex: transferência entre stocks).
+     */
+    public void set(int novo, long epoca) {
+        Versao v = estado.get();
+        int anterior = v.epoca < epoca ? v.valor : v.valorAnterior;
+        estado.set(new Versao(novo, epoca, anterior));
+    }
+
+    /**
+     * Valor no fim da época dada (chamado pelo snapshot depois de avançar a época).
+     */
+    int valorNaEpoca(long epoca) {
+        Versao v = estado.get();
+        return v.epoca <= epoca ? v.valor : v.valorAnterior;
+    }
+}
@@ -0,0 +1,162 @@
+package org.monitor;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.List;
+import org.app.Config;
+
+/**
+ * Pesquisa no log de segurança pelos índices laterais dos segmentos: descarta segmentos
+ * fora da janela de tempo pelo nome, filtra as entradas no índice (tipo, thread, instante)
+ * e lê apenas essas entradas por offset (num segmento comprimido, só o bloco gzip de cada uma).
+ * Os tipos fora do índice ([ACESSO], ou todos os tipos) percorrem o texto dos segmentos.
+ * Os bytes lidos contam o log e o índice (.idx e tabela de blocos).
+ *
+ * CLI: java org.monitor.ConsultaLog [--tipo DEADLOCK] [--thread Transacao_A]
+ *      [--desde 2025-12-19T22:00:00] [--ate ...] [--minutos 30] [--ficheiro caminho.log]
+ */
+public final class ConsultaLog {
+
+    public static final class Resultado {
+        public final List<String> entradas;
+        public final int segmentos;
+        public final int segmentosLidos;
+        public final long bytesLog;
+        public final long bytesLidos;
+        public final long bytesIndice; // Parte de bytesLidos que veio dos índices
+        public final double ms;
+
+        Resultado(List<String> entradas, int segmentos, int segmentosLidos, long bytesLog, long bytesLidos,
+                long bytesIndice, double ms) {
+            this.entradas = entradas;
+            this.segmentos = segmentos;
+            this.segmentosLidos = segmentosLidos;
+            this.bytesLog = bytesLog;
+            this.bytesLidos = bytesLidos;
+            this.bytesIndice = bytesIndice;
+            this.ms = ms;
+        }
+    }
+
+    private ConsultaLog() {
+    }
+
+    /**
+     * Entradas de um tipo (null = todos) que envolvem uma thread (null = todas) em [desdeMs, ateMs].
+     */
+    public static Resultado consultar(String ficheiroLog, String tipo, String thread, long desdeMs, long ateMs)
+            throws IOException {
+        long inicio = System.nanoTime();
+        List<SegmentosLog.Segmento> segmentos = SegmentosLog.listar(Paths.get(ficheiroLog));
+        List<String> entradas = new ArrayList<>();
+        int lidos = 0;
+        long bytesLog = 0;
+        long[] lidosLog = { 0 };
+        long[] lidosIndice = { 0 };
+        boolean porIndice = SegmentosLog.indexado(tipo);
+
+        for (int i = 0; i < segmentos.size(); i++) {
+            SegmentosLog.Segmento s = segmentos.get(i);
+            Path indice = s.indice();
+            bytesLog += tamanhoEmDisco(s.log) + (Files.exists(indice) ? Files.size(indice) : 0);
+            // Um segmento fechado termina quando o seguinte começa (o ativo não tem fim)
+            long fim = i + 1 < segmentos.size() && !segmentos.get(i + 1).ativo ? segmentos.get(i + 1).inicio
+                    : Long.MAX_VALUE;
+            long comeco = s.ativo ? (i > 0 ? segmentos.get(i - 1).inicio : Long.MIN_VALUE) : s.inicio;
+            if (comeco > ateMs || fim < desdeMs)
+                continue;
+            if (!porIndice) {
+                lidos++;
+                SegmentosLog.varrer(s.log, tipo, thread, desdeMs, ateMs, entradas, lidosLog);
+                continue;
+            }
+            if (!Files.exists(indice))
+                continue;
+            lidos++;
+
+            List<SegmentosLog.EntradaIndice> registos;
+            try {
+                registos = SegmentosLog.lerIndice(indice, ateMs, lidosIndice);
+            } catch (NoSuchFileException e) {
+                // Índice comprimido entretanto
+                registos = SegmentosLog.lerIndice(s.indice(), ateMs, lidosIndice);
+            }
+            List<SegmentosLog.EntradaIndice> pedidas = new ArrayList<>();
+            for (SegmentosLog.EntradaIndice e : registos) {
+                if (e.instante < desdeMs)
+                    continue;
+                if (!tipo.equalsIgnoreCase(e.tipo))
+                    continue;
+                if (thread != null && !e.threads.contains(thread))
+                    continue;
+                pedidas.add(e);
+                lidosLog[0] += e.comprimento;
+            }
+            if (pedidas.isEmpty())
+                continue;
+            boolean comprimido = !Files.exists(s.log);
+            entradas.addAll(SegmentosLog.lerEntradas(s.log, pedidas));
+            Path blocos = Paths.get(s.log + SegmentosLog.EXT_BLOCOS);
+            if (comprimido && Files.exists(blocos))
+                lidosIndice[0] += Files.size(blocos);
+        }
+        return new Resultado(entradas, segmentos.size(), lidos, bytesLog, lidosLog[0] + lidosIndice[0],
+                lidosIndice[0], (System.nanoTime() - inicio) / 1e6);
+    }
+
+    private static long tamanhoEmDisco(Path log) throws IOException {
+        Path gz = Paths.get(log + SegmentosLog.EXT_COMPRIMIDO);
+        if (Files.exists(log))
+            return Files.size(log);
+        return Files.exists(gz) ? Files.size(gz) : 0;
+    }
+
+    public static String resumo(Resultado r) {
+        return String.format(
+                "%d entradas | segmentos lidos: %d/%d | bytes lidos: %d (índice %d) de %d em disco | %.1fms",
+                r.entradas.size(), r.segmentosLidos, r.segmentos, r.bytesLidos, r.bytesIndice, r.bytesLog, r.ms);
+    }
+
+    public static void main(String[] args) throws IOException {
+        String ficheiro = Config.LOG_FILE;
+        String tipo = null;
+        String thread = null;
+        long desde = Long.MIN_VALUE;
+        long ate = Long.MAX_VALUE;
+        for (int i = 0; i + 1 < args.length; i += 2) {
+            String valor = args[i + 1];
+            switch (args[i]) {
+                case "--ficheiro":
+                    ficheiro = valor;
+                    break;
+                case "--tipo":
+                    tipo = valor;
+                    break;
+                case "--thread":
+                    thread = valor;
+                    break;
+                case "--desde":
+                    desde = LocalDateTime.parse(valor).atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+                    break;
+                case "--ate":
+                    ate = LocalDateTime.parse(valor).atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+                    break;
+                case "--minutos":
+                    desde = System.currentTimeMillis() - Long.parseLong(valor) * 60_000;
+                    break;
+                default:
+                    System.err.println("Opção desconhecida: " + args[i]);
+                    return;
+            }
+        }
+        Resultado r = consultar(ficheiro, tipo, thread, desde, ate);
+        r.entradas.forEach(System.out::println);
+        System.out.println(resumo(r));
+    }
+}
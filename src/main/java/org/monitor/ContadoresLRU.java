@@ -0,0 +1,81 @@
+package org.monitor;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.function.BiConsumer;
+
+/**
+ * Contadores por chave (ex: acessos por thread) com memória limitada:
+ * despeja a entrada menos usada recentemente quando atinge a capacidade e
+ * as entradas inativas há mais do que o TTL.
+ */
+public class ContadoresLRU {
+    private final int capacidade;
+    private final long ttlMs;
+    private long despejados = 0;
+
+    // [0] = contagem, [1] = último acesso (ms)
+    private final LinkedHashMap<String, long[]> contadores;
+
+    public ContadoresLRU(int capacidade, long ttlMs) {
+        this.capacidade = capacidade;
+        this.ttlMs = ttlMs;
+        // accessOrder = true -> a ordem de iteração é do menos para o mais recente
+        this.contadores = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, long[]> eldest) {
+                if (size() > ContadoresLRU.this.capacidade) {
+                    despejados++;
+                    return true;
+                }
+                return false;
+            }
+        };
+    }
+
+    public synchronized void incrementar(String chave) {
+        long[] c = contadores.computeIfAbsent(chave, k -> new long[2]);
+        c[0]++;
+        c[1] = System.currentTimeMillis();
+    }
+
+    /**
+     * Despeja as entradas inativas há mais do que o TTL (chamado pelo ciclo do monitor).
+     */
+    public synchronized int expirar() {
+        long limite = System.currentTimeMillis() - ttlMs;
+        int removidas = 0;
+        Iterator<long[]> it = contadores.values().iterator();
+        // Ordem de acesso: basta percorrer até à primeira entrada recente
+        while (it.hasNext()) {
+            if (it.next()[1] >= limite)
+                break;
+            it.remove();
+            removidas++;
+        }
+        despejados += removidas;
+        return removidas;
+    }
+
+    /**
+     * Define a contagem de uma chave (restauro a partir de um snapshot).
+     */
+    public synchronized void definir(String chave, long valor) {
+        long[] c = contadores.computeIfAbsent(chave, k -> new long[2]);
+        c[0] = valor;
+        c[1] = System.currentTimeMillis();
+    }
+
+    public synchronized void forEach(BiConsumer<String, Long> acao) {
+        contadores.forEach((k, c) -> acao.accept(k, c[0]));
+    }
+
+    public synchronized int size() {
+        return contadores.size();
+    }
+
+    public synchronized long getDespejados() {
+        return despejados;
+    }
+}
@@ -0,0 +1,224 @@
+package org.monitor;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Controlo de admissão contra flood/DoS: um balde de tokens por thread (pela identidade,
+ * threadId(): threads de vida curta que reutilizam um nome não partilham a quota), alimentado pelo
+ * hook registarAcesso do MonitorEBPF. Cada balde é um único AtomicLong com o "instante
+ * teórico de chegada" (GCRA, equivalente a um balde de tokens de capacidade = rajada e
+ * reposição = taxa), atualizado com CAS e sem locks.
+ *
+ * A thread que excede a quota fica sinalizada como gananciosa; enquanto estiver acima da
+ * quota, as aquisições seguintes (LockComAdmissao) são atrasadas até voltar a caber na
+ * quota ou rejeitadas, consoante o modo. A sinalização cai quando o balde volta a encher
+ * (no acesso seguinte ou na limpeza periódica). Desligado, não cria baldes nem sinaliza.
+ */
+public final class ControloAdmissao {
+    public enum Modo {
+        DESLIGADO, ATRASAR, REJEITAR
+    }
+
+    /**
+     * Resultado de avaliar: admitida, rejeitada ou nanos a esperar (> 0).
+     */
+    public static final long ADMITIDA = 0;
+    public static final long REJEITADA = -1;
+
+    private static final int MAX_BALDES = 4096;
+
+    private static final class Balde {
+        final AtomicLong chegadaTeorica;
+        volatile boolean sinalizada;
+        volatile long ultimoAcessoMs;
+
+        Balde(long agora) {
+            this.chegadaTeorica = new AtomicLong(agora);
+        }
+    }
+
+    private final Map<Long, Balde> baldes = new ConcurrentHashMap<>();
+    private final AtomicInteger numeroBaldes = new AtomicInteger();
+
+    private volatile long intervaloNanos;
+    private volatile int rajada;
+    private volatile Modo modo;
+
+    private final LongAdder sinalizacoes = new LongAdder();
+    private final LongAdder atrasos = new LongAdder();
+    private final LongAdder nanosAtraso = new LongAdder();
+    private final LongAdder rejeicoes = new LongAdder();
+    private final LongAdder naoSeguidas = new LongAdder();
+
+    public ControloAdmissao(double taxaPorSegundo, int rajada, Modo modo) {
+        configurar(taxaPorSegundo, rajada, modo);
+    }
+
+    /**
+     * taxaPorSegundo pode ser fracionária (ex: 0.2 = um acesso a cada 5s).
+     */
+    public void configurar(double taxaPorSegundo, int rajada, Modo modo) {
+        this.intervaloNanos = Math.max(1, (long) (TimeUnit.SECONDS.toNanos(1) / Math.max(1e-3, taxaPorSegundo)));
+        this.rajada = Math.max(1, rajada);
+        this.modo = modo;
+    }
+
+    /**
+     * Conta um acesso da thread (chamado pelo registarAcesso). Devolve true se a thread
+     * acabou de ser sinalizada por exceder a quota.
+     */
+    public boolean registar(Thread t, long agoraNanos) {
+        if (modo == Modo.DESLIGADO)
+            return false;
+        Balde b = balde(t.threadId(), agoraNanos);
+        if (b == null)
+            return false;
+        b.ultimoAcessoMs = System.currentTimeMillis();
+        long intervalo = intervaloNanos;
+        long anterior;
+        long nova;
+        do {
+            anterior = b.chegadaTeorica.get();
+            nova = Math.max(anterior, agoraNanos) + intervalo;
+        } while (!b.chegadaTeorica.compareAndSet(anterior, nova));
+        // Mais do que 'rajada' acessos adiantados em relação à taxa -> acima da quota
+        if (nova - agoraNanos > intervalo * rajada) {
+            if (b.sinalizada)
+                return false;
+            b.sinalizada = true;
+            sinalizacoes.increment();
+            return true;
+        }
+        // Balde tinha voltado a encher: a thread deixou de ser gananciosa
+        if (anterior <= agoraNanos)
+            b.sinalizada = false;
+        return false;
+    }
+
+    /**
+     * Decide a admissão de uma aquisição: ADMITIDA, REJEITADA ou os nanos a esperar até a
+     * thread voltar a caber na quota. Só as threads sinalizadas são limitadas; se o chamador
+     * não puder esperar (tryLock), o atraso conta como rejeição.
+     */
+    public long avaliar(Thread t, boolean podeEsperar) {
+        Modo m = modo;
+        if (m == Modo.DESLIGADO)
+            return ADMITIDA;
+        Balde b = baldes.get(t.threadId());
+        if (b == null || !b.sinalizada)
+            return ADMITIDA;
+        long agora = System.nanoTime();
+        long chegada = b.chegadaTeorica.get();
+        if (chegada <= agora) {
+            // Balde cheio outra vez: a thread deixou de ser gananciosa
+            b.sinalizada = false;
+            return ADMITIDA;
+        }
+        long espera = chegada - agora - intervaloNanos * (rajada - 1);
+        if (espera <= 0)
+            return ADMITIDA;
+        if (m == Modo.REJEITAR || !podeEsperar) {
+            rejeicoes.increment();
+            return REJEITADA;
+        }
+        atrasos.increment();
+        nanosAtraso.add(espera);
+        return espera;
+    }
+
+    private Balde balde(Long chave, long agora) {
+        Balde b = baldes.get(chave);
+        if (b != null)
+            return b;
+        if (numeroBaldes.get() >= MAX_BALDES) {
+            naoSeguidas.increment();
+            return null;
+        }
+        return baldes.computeIfAbsent(chave, k -> {
+            numeroBaldes.incrementAndGet();
+            return new Balde(agora);
+        });
+    }
+
+    /**
+     * Remove os baldes inativos há mais do que o TTL e tira a sinalização às threads cujo
+     * balde já voltou a encher (chamado pelo ciclo do monitor).
+     */
+    public int expirar(long ttlMs) {
+        long limite = System.currentTimeMillis() - ttlMs;
+        long agora = System.nanoTime();
+        int removidos = 0;
+        for (Map.Entry<Long, Balde> e : baldes.entrySet()) {
+            Balde b = e.getValue();
+            if (b.sinalizada && b.chegadaTeorica.get() <= agora)
+                b.sinalizada = false;
+            if (b.ultimoAcessoMs < limite && baldes.remove(e.getKey(), b)) {
+                numeroBaldes.decrementAndGet();
+                removidos++;
+            }
+        }
+        return removidos;
+    }
+
+    /**
+     * Esquece todos os baldes (ex: entre execuções de um benchmark).
+     */
+    public void limpar() {
+        baldes.clear();
+        numeroBaldes.set(0);
+    }
+
+    public boolean isSinalizada(Thread t) {
+        Balde b = baldes.get(t.threadId());
+        return b != null && b.sinalizada;
+    }
+
+    public int getSinalizadasAtuais() {
+        int n = 0;
+        for (Balde b : baldes.values())
+            if (b.sinalizada)
+                n++;
+        return n;
+    }
+
+    public Modo getModo() {
+        return modo;
+    }
+
+    public double getTaxaPorSegundo() {
+        return (double) TimeUnit.SECONDS.toNanos(1) / intervaloNanos;
+    }
+
+    public int getRajada() {
+        return rajada;
+    }
+
+    public long getSinalizacoes() {
+        return sinalizacoes.sum();
+    }
+
+    public long getAtrasos() {
+        return atrasos.sum();
+    }
+
+    public double getAtrasoTotalMs() {
+        return nanosAtraso.sum() / 1e6;
+    }
+
+    public long getRejeicoes() {
+        return rejeicoes.sum();
+    }
+
+    public long getNaoSeguidas() {
+        return naoSeguidas.sum();
+    }
+
+    public int getNumeroBaldes() {
+        return numeroBaldes.get();
+    }
+}
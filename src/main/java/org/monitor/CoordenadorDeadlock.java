@@ -0,0 +1,290 @@
+package org.monitor;
+
+import java.io.BufferedInputStream;
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Consumer;
+import org.app.Config;
+
+/**
+ * Coordenador de deteção distribuída de deadlocks (vários simuladores/JVMs).
+ * Cada nó publica deltas do seu Wait-for Graph (PublicadorGrafo); o coordenador
+ * junta-os num grafo global e corre a deteção de ciclos sempre que chega um lote.
+ * Os recursos partilhados são identificados pelo nome (ex: "Lock(DB:Pacientes)").
+ *
+ * Um nó que se religa substitui a ligação anterior: o socket antigo é fechado e as suas
+ * arestas removidas sob o lock do nó. Cada lote é aplicado sob o mesmo lock e só se a ligação
+ * ainda for a atual, pelo que o leitor antigo nunca deixa arestas no grafo global.
+ */
+public class CoordenadorDeadlock {
+    // Protocolo (DataOutputStream sobre TCP em loopback)
+    static final byte MSG_OLA = 1;
+    static final byte MSG_DELTA = 2;
+    static final char ARESTA_ESPERA = 'W';
+    static final char ARESTA_POSSE = 'H';
+
+    private final ServerSocket servidor;
+    private volatile boolean running = true;
+
+    // Grafo global: reutiliza o detetor local com nomes globais como participantes/recursos
+    private final DetectorDeadlock grafoGlobal = new DetectorDeadlock();
+    private final Map<String, Ligacao> ligacoes = new ConcurrentHashMap<>();
+    // Lock por nó: serializa a substituição da ligação e a aplicação dos lotes
+    private final Map<String, Object> locksPorNo = new ConcurrentHashMap<>();
+    private final List<Consumer<Set<Object>>> ouvintes = new CopyOnWriteArrayList<>();
+
+    // A deteção corre numa thread própria, agregando vários lotes por passagem
+    private final Object sinalDetecao = new Object();
+    private boolean grafoAlterado = false;
+    // Criadas em iniciar() (nenhuma thread arranca no construtor)
+    private Thread aceitacao;
+    private Thread detecao;
+
+    // Ligação atual de um nó e as arestas que ela publicou
+    private static final class Ligacao {
+        final Socket socket;
+        final Set<String> arestas = new HashSet<>(); // protegido pelo lock do nó
+
+        Ligacao(Socket socket) {
+            this.socket = socket;
+        }
+    }
+
+    public CoordenadorDeadlock(int porta) throws IOException {
+        this.servidor = new ServerSocket(porta, 50, InetAddress.getLoopbackAddress());
+    }
+
+    /**
+     * Arranca as threads de aceitação de nós e de deteção (daemon).
+     */
+    public synchronized void iniciar() {
+        if (aceitacao != null)
+            throw new IllegalStateException("Coordenador já iniciado");
+        detecao = new Thread(this::cicloDetecao, "Coordenador-Detecao");
+        detecao.setDaemon(true);
+        aceitacao = new Thread(this::aceitar, "Coordenador-Deadlock");
+        aceitacao.setDaemon(true);
+        detecao.start();
+        aceitacao.start();
+    }
+
+    /**
+     * Bloqueia até o coordenador terminar (processo autónomo).
+     */
+    public void aguardar() throws InterruptedException {
+        Thread t;
+        synchronized (this) {
+            t = aceitacao;
+        }
+        if (t != null)
+            t.join();
+    }
+
+    public int getPorta() {
+        return servidor.getLocalPort();
+    }
+
+    /**
+     * Regista um ouvinte chamado com os participantes em deadlock global.
+     */
+    public void adicionarOuvinte(Consumer<Set<Object>> ouvinte) {
+        ouvintes.add(ouvinte);
+    }
+
+    public void removerOuvinte(Consumer<Set<Object>> ouvinte) {
+        ouvintes.remove(ouvinte);
+    }
+
+    private void aceitar() {
+        while (running) {
+            try {
+                Socket socket = servidor.accept();
+                Thread leitor = new Thread(() -> atenderNo(socket), "Coordenador-No");
+                leitor.setDaemon(true);
+                leitor.start();
+            } catch (IOException e) {
+                if (running)
+                    System.err.println("Erro Coordenador: " + e.getMessage());
+            }
+        }
+    }
+
+    public synchronized void terminar() {
+        running = false;
+        if (detecao != null)
+            detecao.interrupt();
+        try {
+            servidor.close();
+        } catch (IOException e) {
+            // Servidor já fechado
+        }
+        for (Ligacao l : ligacoes.values())
+            fechar(l.socket);
+    }
+
+    private Object lockNo(String noId) {
+        return locksPorNo.computeIfAbsent(noId, k -> new Object());
+    }
+
+    private static void fechar(Socket socket) {
+        try {
+            socket.close();
+        } catch (IOException e) {
+            // Já fechado
+        }
+    }
+
+    private void atenderNo(Socket socket) {
+        String noId = null;
+        Ligacao ligacao = new Ligacao(socket);
+        Map<Integer, String> dicionario = new HashMap<>();
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(socket.getInputStream()))) {
+            if (in.readByte() != MSG_OLA)
+                throw new IOException("Protocolo inválido: esperado OLA");
+            noId = in.readUTF();
+            synchronized (lockNo(noId)) {
+                Ligacao anterior = ligacoes.put(noId, ligacao);
+                if (anterior != null) {
+                    // Reconexão: o nó vai reenviar o estado completo; o leitor antigo termina no
+                    // próximo lote (ligação fechada ou já não atual)
+                    fechar(anterior.socket);
+                    removerArestas(anterior.arestas);
+                }
+            }
+
+            while (running) {
+                if (in.readByte() != MSG_DELTA)
+                    throw new IOException("Protocolo inválido: esperado DELTA");
+                int nDefinicoes = in.readInt();
+                for (int i = 0; i < nDefinicoes; i++) {
+                    int id = in.readInt();
+                    dicionario.put(id, in.readUTF());
+                }
+                // O lote é lido por inteiro antes de tomar o lock do nó
+                String[][] removidas = lerArestas(in, dicionario);
+                String[][] novas = lerArestas(in, dicionario);
+                synchronized (lockNo(noId)) {
+                    if (ligacoes.get(noId) != ligacao)
+                        break; // Substituída por uma ligação mais recente
+                    // Primeiro as remoções, depois as novas (handoffs dentro do mesmo lote)
+                    for (String[] a : removidas)
+                        aplicar(ligacao.arestas, a[0].charAt(0), a[1], a[2], false);
+                    for (String[] a : novas)
+                        aplicar(ligacao.arestas, a[0].charAt(0), a[1], a[2], true);
+                }
+                sinalizarAlteracao();
+            }
+        } catch (EOFException e) {
+            // Nó desligou-se normalmente
+        } catch (IOException e) {
+            if (running && (noId == null || ligacoes.get(noId) == ligacao))
+                System.err.println("Erro ligação nó " + noId + ": " + e.getMessage());
+        } finally {
+            if (noId != null) {
+                // Só as arestas desta ligação: um nó que já se religou mantém as da nova
+                synchronized (lockNo(noId)) {
+                    if (ligacoes.remove(noId, ligacao)) {
+                        removerArestas(ligacao.arestas);
+                        sinalizarAlteracao();
+                    }
+                }
+            }
+        }
+    }
+
+    // Lista de arestas de um lote: tipo, participante e recurso já traduzidos pelo dicionário
+    private static String[][] lerArestas(DataInputStream in, Map<Integer, String> dicionario) throws IOException {
+        String[][] arestas = new String[in.readInt()][];
+        for (int i = 0; i < arestas.length; i++) {
+            char tipo = (char) in.readByte();
+            arestas[i] = new String[] { String.valueOf(tipo), dicionario.get(in.readInt()), dicionario.get(in.readInt()) };
+        }
+        return arestas;
+    }
+
+    private void aplicar(Set<String> arestasNo, char tipo, String participante, String recurso, boolean nova) {
+        String chave = tipo + "\u0000" + participante + "\u0000" + recurso;
+        if (nova) {
+            arestasNo.add(chave);
+            if (tipo == ARESTA_ESPERA)
+                grafoGlobal.registarEspera(participante, recurso);
+            else
+                grafoGlobal.registarAlocacao(participante, recurso);
+        } else {
+            arestasNo.remove(chave);
+            if (tipo == ARESTA_ESPERA)
+                grafoGlobal.cancelarEspera(participante, recurso);
+            else
+                grafoGlobal.registarLibertacao(participante, recurso);
+        }
+    }
+
+    private void removerArestas(Set<String> arestas) {
+        for (String a : new HashSet<>(arestas)) {
+            String[] partes = a.split("\u0000");
+            aplicar(arestas, partes[0].charAt(0), partes[1], partes[2], false);
+        }
+    }
+
+    private void sinalizarAlteracao() {
+        synchronized (sinalDetecao) {
+            grafoAlterado = true;
+            sinalDetecao.notifyAll();
+        }
+    }
+
+    private void cicloDetecao() {
+        while (running) {
+            try {
+                synchronized (sinalDetecao) {
+                    while (!grafoAlterado)
+                        sinalDetecao.wait();
+                    grafoAlterado = false;
+                }
+                Set<Object> emDeadlock = grafoGlobal.detectar();
+                if (emDeadlock != null && !emDeadlock.isEmpty()) {
+                    for (Consumer<Set<Object>> ouvinte : ouvintes)
+                        ouvinte.accept(emDeadlock);
+                }
+            } catch (InterruptedException e) {
+                if (!running)
+                    break;
+            }
+        }
+    }
+
+    public String obterEstadoGrafo() {
+        return grafoGlobal.obterEstadoGrafo();
+    }
+
+    /**
+     * Execução como processo autónomo: java org.monitor.CoordenadorDeadlock [porta]
+     */
+    public static void main(String[] args) throws IOException, InterruptedException {
+        int porta = args.length > 0 ? Integer.parseInt(args[0]) : 7070;
+        LoggerMonitor logger = new LoggerMonitor(Config.LOG_FILE);
+        CoordenadorDeadlock coordenador = new CoordenadorDeadlock(porta);
+        coordenador.adicionarOuvinte(participantes -> {
+            List<String> nomes = new ArrayList<>();
+            for (Object participante : participantes)
+                nomes.add(DetectorDeadlock.nomeParticipante(participante));
+            logger.log("[ALERTA CIBERSEGURANÇA] DEADLOCK DISTRIBUÍDO Confirmado! Participantes: " + participantes, nomes);
+            logger.log(coordenador.obterEstadoGrafo());
+        });
+        System.out.println("Coordenador de deadlocks à escuta em 127.0.0.1:" + coordenador.getPorta());
+        coordenador.iniciar();
+        coordenador.aguardar();
+    }
+}
@@ -1,143 +1,566 @@
 package org.monitor;
 
+import java.lang.ref.ReferenceQueue;
+import java.lang.ref.WeakReference;
 import java.util.*;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.BiConsumer;
+import java.util.function.ToIntFunction;
 
 /**
  * Detector de Deadlocks baseado nos algoritmos de SO-T-05.
- * Implementa manualmente o Wait-for Graph e a deteção de ciclos através de DFS.
+ * Implementa manualmente o Wait-for Graph; os ciclos são as SCC encontradas
+ * pelo MotorDetecaoSCC (Tarjan iterativo, sem limite de profundidade).
+ * Os participantes são normalmente Threads, mas podem ser transações assíncronas
+ * (pedidos pendentes de um LockAssincrono que não estacionam nenhuma thread).
+ * As Threads são guardadas por referência fraca (identidade): uma thread que morre
+ * sem untrack é removida automaticamente do grafo quando é recolhida pelo GC.
  */
 public class DetectorDeadlock {
     
-    // Wait-for Graph: Thread -> Recursos que detém atualmente
-    private final Map<Thread, Set<Object>> recursosDetidos = new ConcurrentHashMap<>();
+    // Wait-for Graph: Participante -> Recursos que detém atualmente
+    private final Map<Object, Set<Object>> recursosDetidos = new ConcurrentHashMap<>();
     
-    // Wait-for Graph: Thread -> Recursos que aguarda
-    private final Map<Thread, Set<Object>> recursosAguardados = new ConcurrentHashMap<>();
+    // Wait-for Graph: Participante -> Recursos que aguarda
+    private final Map<Object, Set<Object>> recursosAguardados = new ConcurrentHashMap<>();
     
-    // Mapeamento inverso: Recurso -> Thread que o detém
-    private final Map<Object, Thread> recursoParaThread = new ConcurrentHashMap<>();
+    // Mapeamento inverso: Recurso -> Participante que o detém
+    private final Map<Object, Object> recursoParaThread = new ConcurrentHashMap<>();
     
-    public DetectorDeadlock() {}
+    // Contenção por recurso (nº de Request edges criados), limitada a MAX_RECURSOS_CONTENCAO entradas
+    private static final int MAX_RECURSOS_CONTENCAO = 1024;
+    // Por identidade do recurso (ChaveFraca): a probe só incrementa, sem construir o nome
+    private final Map<Object, Contencao> esperasPorRecurso = new ConcurrentHashMap<>();
+    // Por nome: recursos já recolhidos pelo GC e valores restaurados de snapshots
+    private final Map<String, LongAdder> esperasAcumuladas = new ConcurrentHashMap<>();
+    private final ReferenceQueue<Object> recursosRecolhidos = new ReferenceQueue<>();
+    
+    // Esperas de um recurso vivo; o nome é calculado uma vez, quando o recurso entra no mapa
+    private static final class Contencao {
+        final String nome;
+        final LongAdder esperas = new LongAdder();
+        
+        Contencao(String nome) {
+            this.nome = nome;
+        }
+    }
+    
+    // Prioridades explícitas (ex: Paciente.prioridade); sem registo vale a prioridade Java da Thread
+    private final Map<Object, Integer> prioridades = new ConcurrentHashMap<>();
+    
+    // Prioridade efetiva das Threads detentoras (ex: herança do LockPrioridade); null = só a base
+    private volatile ToIntFunction<Thread> prioridadeEfetiva;
+    
+    // Eventos JFR de espera em curso (só com gravação ativa), terminados na alocação ou no cancelamento
+    private final Map<Object, Map<Object, EventosJFR.EsperaRecurso>> esperasJFR = new HashMap<>(); // protegido por 'this'
+    
+    // Referências fracas das Threads recolhidas pelo GC (limpeza automática)
+    private final ReferenceQueue<Object> threadsRecolhidas = new ReferenceQueue<>();
+    
+    /**
+     * Chave por identidade de uma Thread: hash = identityHashCode, igual a qualquer outra
+     * Identidade com o mesmo referente (chaves fracas dos mapas e sondas de consulta).
+     */
+    private interface Identidade {
+        Object referente();
+    }
+    
+    /**
+     * Chave fraca por identidade para participantes Thread (não impede o GC da thread).
+     * Há uma por Thread viva (canonizada em 'chaves'), reutilizada por todas as probes.
+     */
+    private static final class ChaveFraca extends WeakReference<Object> implements Identidade {
+        private final int hash;
+        
+        ChaveFraca(Object referente, ReferenceQueue<Object> fila) {
+            super(referente, fila);
+            this.hash = System.identityHashCode(referente);
+        }
+        
+        @Override
+        public Object referente() {
+            return get();
+        }
+        
+        @Override
+        public int hashCode() {
+            return hash;
+        }
+        
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) return true;
+            if (!(o instanceof Identidade)) return false;
+            Object referente = get();
+            return referente != null && referente == ((Identidade) o).referente();
+        }
+    }
+    
+    /**
+     * Chave de consulta reutilizável (uma por thread chamadora): procura a chave canónica
+     * de uma Thread sem alocar.
+     */
+    private static final class Sonda implements Identidade {
+        private Object referente;
+        private int hash;
+        
+        Sonda apontar(Object t) {
+            referente = t;
+            hash = System.identityHashCode(t);
+            return this;
+        }
+        
+        @Override
+        public Object referente() {
+            return referente;
+        }
+        
+        @Override
+        public int hashCode() {
+            return hash;
+        }
+        
+        @Override
+        public boolean equals(Object o) {
+            return o instanceof Identidade && referente != null && referente == ((Identidade) o).referente();
+        }
+    }
+    
+    // Chave canónica de cada Thread participante (a mesma ChaveFraca em todos os mapas)
+    private final Map<Object, ChaveFraca> chaves = new ConcurrentHashMap<>();
+    private static final ThreadLocal<Sonda> sondas = ThreadLocal.withInitial(Sonda::new);
+    
+    // Auto-telemetria (opcional): contagem e duração de cada probe do grafo
+    private final TelemetriaMonitor telemetria;
+    
+    public DetectorDeadlock() {
+        this(null);
+    }
+    
+    public DetectorDeadlock(TelemetriaMonitor telemetria) {
+        this.telemetria = telemetria;
+    }
+    
+    private void medir(String probe, long inicio) {
+        if (telemetria != null) telemetria.registarProbe(probe, inicio);
+    }
+    
+    // Só aloca na primeira vez que uma Thread aparece (ou depois de limparThread)
+    private Object chave(Object participante) {
+        if (!(participante instanceof Thread)) return participante;
+        Sonda sonda = sondas.get().apontar(participante);
+        ChaveFraca chave = chaves.get(sonda);
+        sonda.apontar(null); // A sonda não retém a thread consultada
+        if (chave != null) return chave;
+        ChaveFraca nova = new ChaveFraca(participante, threadsRecolhidas);
+        chave = chaves.putIfAbsent(nova, nova);
+        return chave != null ? chave : nova;
+    }
+    
+    private static Object desembrulhar(Object chave) {
+        return chave instanceof ChaveFraca ? ((ChaveFraca) chave).get() : chave;
+    }
+    
+    private static boolean recolhida(Object chave) {
+        return chave instanceof ChaveFraca && ((ChaveFraca) chave).get() == null;
+    }
     
     /**
      * Regista que uma thread está à ESPERA de um recurso (Request edge).
      */
-    public synchronized void registarEspera(Thread thread, Object recurso) {
+    public synchronized void registarEspera(Object thread, Object recurso) {
         if (recurso == null) return;
-        recursosAguardados.computeIfAbsent(thread, k -> ConcurrentHashMap.newKeySet()).add(recurso);
+        long inicio = System.nanoTime();
+        Object chave = chave(thread);
+        recursosAguardados.computeIfAbsent(chave, k -> ConcurrentHashMap.newKeySet()).add(recurso);
+        contarEspera(recurso);
+        EventosJFR.EsperaRecurso evento = EventosJFR.iniciarEspera(thread, recurso);
+        if (evento != null)
+            esperasJFR.computeIfAbsent(chave, k -> new HashMap<>()).put(recurso, evento);
+        medir(TelemetriaMonitor.PROBE_REGISTAR_ESPERA, inicio);
+    }
+    
+    // Chamado sob o lock do detector; só aloca na primeira espera de cada recurso
+    private void contarEspera(Object recurso) {
+        Sonda sonda = sondas.get().apontar(recurso);
+        Contencao contencao = esperasPorRecurso.get(sonda);
+        sonda.apontar(null);
+        if (contencao == null) {
+            if (esperasPorRecurso.size() + esperasAcumuladas.size() >= MAX_RECURSOS_CONTENCAO) return;
+            contencao = new Contencao(String.valueOf(recurso));
+            esperasPorRecurso.put(new ChaveFraca(recurso, recursosRecolhidos), contencao);
+        }
+        contencao.esperas.increment();
     }
     
+    /**
+     * Recursos com mais esperas (lido sem bloquear o grafo, ex: pelo PainelMonitor).
+     */
+    public List<Map.Entry<String, Long>> obterTopContencao(int n) {
+        List<Map.Entry<String, Long>> todos = new ArrayList<>();
+        obterContencao().forEach((r, c) -> todos.add(new AbstractMap.SimpleImmutableEntry<>(r, c)));
+        todos.sort((a, b) -> Long.compare(b.getValue(), a.getValue()));
+        return todos.subList(0, Math.min(n, todos.size()));
+    }
+    
+    /**
+     * Esperas acumuladas por recurso (secção "contencao" dos snapshots). Recursos distintos
+     * com o mesmo nome (ex: instâncias recriadas) somam-se numa só entrada.
+     */
+    public Map<String, Long> obterContencao() {
+        Map<String, Long> copia = new HashMap<>();
+        esperasAcumuladas.forEach((r, c) -> copia.merge(r, c.sum(), Long::sum));
+        esperasPorRecurso.forEach((k, c) -> copia.merge(c.nome, c.esperas.sum(), Long::sum));
+        return copia;
+    }
+
+    public synchronized void restaurarContencao(Map<String, Long> valores) {
+        valores.forEach((r, v) -> {
+            if (esperasPorRecurso.size() + esperasAcumuladas.size() >= MAX_RECURSOS_CONTENCAO
+                    && !esperasAcumuladas.containsKey(r))
+                return;
+            // O valor restaurado substitui o do nome: os recursos vivos com esse nome recomeçam
+            for (Contencao c : esperasPorRecurso.values())
+                if (c.nome.equals(r)) c.esperas.reset();
+            LongAdder contador = esperasAcumuladas.computeIfAbsent(r, k -> new LongAdder());
+            contador.reset();
+            contador.add(v);
+        });
+    }
+
     /**
      * Regista que uma thread OBTEVE o recurso (Allocation edge).
      */
-    public synchronized void registarAlocacao(Thread thread, Object recurso) {
+    public synchronized void registarAlocacao(Object thread, Object recurso) {
         if (recurso == null) return;
-        recursosDetidos.computeIfAbsent(thread, k -> ConcurrentHashMap.newKeySet()).add(recurso);
-        recursoParaThread.put(recurso, thread);
+        long inicio = System.nanoTime();
+        Object chave = chave(thread);
+        recursosDetidos.computeIfAbsent(chave, k -> ConcurrentHashMap.newKeySet()).add(recurso);
+        recursoParaThread.put(recurso, chave);
         
         // Remove da lista de espera pois já obteve
-        Set<Object> aguardados = recursosAguardados.get(thread);
+        Set<Object> aguardados = recursosAguardados.get(chave);
         if (aguardados != null) {
             aguardados.remove(recurso);
         }
+        terminarEsperaJFR(chave, recurso, true);
+        EventosJFR.alocacao(thread, recurso);
+        medir(TelemetriaMonitor.PROBE_REGISTAR_ALOCACAO, inicio);
+    }
+    
+    /**
+     * Remove um Request edge quando a espera termina sem alocação (timeout ou cancelamento).
+     */
+    public synchronized void cancelarEspera(Object thread, Object recurso) {
+        if (recurso == null) return;
+        long inicio = System.nanoTime();
+        Object chave = chave(thread);
+        Set<Object> aguardados = recursosAguardados.get(chave);
+        if (aguardados != null) {
+            aguardados.remove(recurso);
+            if (aguardados.isEmpty()) recursosAguardados.remove(chave);
+        }
+        terminarEsperaJFR(chave, recurso, false);
+        medir(TelemetriaMonitor.PROBE_CANCELAR_ESPERA, inicio);
+    }
+    
+    private void terminarEsperaJFR(Object chave, Object recurso, boolean concedida) {
+        if (esperasJFR.isEmpty()) return;
+        Map<Object, EventosJFR.EsperaRecurso> eventos = esperasJFR.get(chave);
+        if (eventos == null) return;
+        EventosJFR.terminarEspera(eventos.remove(recurso), concedida);
+        if (eventos.isEmpty()) esperasJFR.remove(chave);
     }
     
     /**
      * Regista a libertação de um recurso específico.
      */
-    public synchronized void registarLibertacao(Thread thread, Object recurso) {
+    public synchronized void registarLibertacao(Object thread, Object recurso) {
         if (recurso == null) return; // Proteção contra NullPointerException
+        long inicio = System.nanoTime();
 
-        Set<Object> detidos = recursosDetidos.get(thread);
+        Object chave = chave(thread);
+        Set<Object> detidos = recursosDetidos.get(chave);
         if (detidos != null) {
             detidos.remove(recurso);
-            if (detidos.isEmpty()) recursosDetidos.remove(thread);
+            if (detidos.isEmpty()) recursosDetidos.remove(chave);
         }
-        recursoParaThread.remove(recurso);
+        // Só remove se ainda pertencer a esta thread (pode já ter sido entregue a outra)
+        recursoParaThread.remove(recurso, chave);
+        EventosJFR.libertacao(thread, recurso);
+        medir(TelemetriaMonitor.PROBE_REGISTAR_LIBERTACAO, inicio);
     }
     
     /**
      * Limpa todo o estado de uma thread (quando termina ou é untracked).     */
-    public synchronized void limparThread(Thread thread) {
+    public synchronized void limparThread(Object thread) {
+        Object chave = chave(thread);
         // 1. Remover todos os recursos detidos por esta thread do mapa inverso
-        Set<Object> detidos = recursosDetidos.remove(thread); // Remove e retorna o set
+        Set<Object> detidos = recursosDetidos.remove(chave); // Remove e retorna o set
         if (detidos != null) {
             for (Object recurso : detidos) {
                 if (recurso != null) {
-                    recursoParaThread.remove(recurso);
+                    recursoParaThread.remove(recurso, chave);
                 }
             }
         }
         
         // 2. Remover da lista de espera
-        recursosAguardados.remove(thread);
+        recursosAguardados.remove(chave);
+        prioridades.remove(chave);
+        abandonarEsperasJFR(esperasJFR.remove(chave));
+        chaves.remove(chave);
+    }
+    
+    // Esperas que nunca chegaram a alocação nem a cancelamento: ficam na gravação como não concedidas
+    private static void abandonarEsperasJFR(Map<Object, EventosJFR.EsperaRecurso> eventos) {
+        if (eventos == null) return;
+        for (EventosJFR.EsperaRecurso e : eventos.values())
+            EventosJFR.terminarEspera(e, false);
     }
     
     /**
-     * Algoritmo de deteção de ciclos (DFS) para detetar Espera Circular.
+     * Remove do grafo as Threads já terminadas (sem untrack) e as recolhidas pelo GC.
+     * Devolve a descrição das que terminaram a deter recursos (locks abandonados).
      */
-    public synchronized long[] detectar() {
-        Map<Thread, Set<Thread>> grafoEspera = construirWaitForGraph();
-        Set<Thread> threadsEmDeadlock = new HashSet<>();
-        Set<Thread> visitadas = new HashSet<>();
-        Set<Thread> pilhaRecursao = new HashSet<>();
+    public synchronized List<String> limparThreadsTerminadas() {
+        // 1. Threads recolhidas pelo GC: a fila de referências sinaliza que há chaves mortas
+        boolean haRecolhidas = false;
+        while (threadsRecolhidas.poll() != null) haRecolhidas = true;
+        if (haRecolhidas) {
+            recursosDetidos.keySet().removeIf(DetectorDeadlock::recolhida);
+            recursosAguardados.keySet().removeIf(DetectorDeadlock::recolhida);
+            recursoParaThread.values().removeIf(DetectorDeadlock::recolhida);
+            prioridades.keySet().removeIf(DetectorDeadlock::recolhida);
+            esperasJFR.entrySet().removeIf(e -> {
+                if (!recolhida(e.getKey())) return false;
+                abandonarEsperasJFR(e.getValue());
+                return true;
+            });
+            chaves.keySet().removeIf(DetectorDeadlock::recolhida);
+        }
         
-        for (Thread thread : grafoEspera.keySet()) {
-            if (!visitadas.contains(thread)) {
-                detetarCicloDFS(thread, grafoEspera, visitadas, pilhaRecursao, threadsEmDeadlock);
-            }
+        // Recursos recolhidos: as esperas passam para o acumulado por nome
+        boolean haRecursosRecolhidos = false;
+        while (recursosRecolhidos.poll() != null) haRecursosRecolhidos = true;
+        if (haRecursosRecolhidos) {
+            esperasPorRecurso.entrySet().removeIf(e -> {
+                if (!recolhida(e.getKey())) return false;
+                Contencao c = e.getValue();
+                esperasAcumuladas.computeIfAbsent(c.nome, k -> new LongAdder()).add(c.esperas.sum());
+                return true;
+            });
         }
         
+        // 2. Threads ainda referenciadas algures mas já terminadas
+        List<String> abandonados = new ArrayList<>();
+        Set<Object> terminadas = new HashSet<>();
+        for (Object chave : recursosDetidos.keySet()) {
+            Object t = desembrulhar(chave);
+            if (t instanceof Thread && ((Thread) t).getState() == Thread.State.TERMINATED) {
+                terminadas.add(t);
+                abandonados.add(((Thread) t).getName() + " (" + recursosDetidos.get(chave).size() + " recursos)");
+            }
+        }
+        for (Object chave : recursosAguardados.keySet()) {
+            Object t = desembrulhar(chave);
+            if (t instanceof Thread && ((Thread) t).getState() == Thread.State.TERMINATED) terminadas.add(t);
+        }
+        for (Object t : terminadas) limparThread(t);
+        return abandonados;
+    }
+    
+    /**
+     * Deteção de Espera Circular: devolve a união dos participantes em deadlock,
+     * ou null se não existir ciclo.
+     */
+    public synchronized Set<Object> detectar() {
+        Set<Object> threadsEmDeadlock = new HashSet<>();
+        for (List<Object> componente : detectarComponentes())
+            threadsEmDeadlock.addAll(componente);
         if (threadsEmDeadlock.isEmpty()) return null;
-        return threadsEmDeadlock.stream().mapToLong(Thread::getId).toArray();
+        return threadsEmDeadlock;
+    }
+
+    /**
+     * Todos os deadlocks independentes: cada componente fortemente ligada (SCC) do
+     * Wait-for Graph com mais de um participante é um ciclo de espera distinto.
+     * Usa o MotorDetecaoSCC (CSR + Tarjan iterativo, paralelo em grafos grandes).
+     */
+    public synchronized List<List<Object>> detectarComponentes() {
+        MotorDetecaoSCC.Indexador<Object> grafo = new MotorDetecaoSCC.Indexador<>();
+        arestasWaitFor(grafo::aresta);
+        return grafo.componentesEmDeadlock(ForkJoinPool.commonPool());
+    }
+    
+    /**
+     * Inversão de prioridade: um participante aguarda um recurso detido por outro de
+     * prioridade inferior. 'cadeia' descreve o que atrasa o detentor (a espera em que está
+     * bloqueado no grafo ou o estado da thread).
+     */
+    public static final class InversaoPrioridade {
+        public final Object espera;
+        public final Object detentor;
+        public final Object recurso;
+        public final int prioridadeEspera;
+        public final int prioridadeDetentor;
+        public final String cadeia;
+
+        InversaoPrioridade(Object espera, Object detentor, Object recurso, int prioridadeEspera,
+                int prioridadeDetentor, String cadeia) {
+            this.espera = espera;
+            this.detentor = detentor;
+            this.recurso = recurso;
+            this.prioridadeEspera = prioridadeEspera;
+            this.prioridadeDetentor = prioridadeDetentor;
+            this.cadeia = cadeia;
+        }
+
+        /**
+         * Identifica o par (espera, detentor, recurso) entre ticks.
+         */
+        public String chave() {
+            return System.identityHashCode(espera) + ":" + System.identityHashCode(detentor) + ":" + recurso;
+        }
+
+        @Override
+        public String toString() {
+            return nomeParticipante(espera) + " (prio " + prioridadeEspera + ") aguarda '" + recurso
+                    + "' detido por " + nomeParticipante(detentor) + " (prio " + prioridadeDetentor + ", " + cadeia + ")";
+        }
+    }
+    
+    /**
+     * Prioridade explícita de um participante (escala das Threads Java: 1 = mínima, 10 = máxima).
+     */
+    public void definirPrioridade(Object participante, int prioridade) {
+        prioridades.put(chave(participante), prioridade);
+    }
+    
+    public int prioridade(Object participante) {
+        Integer p = prioridades.get(chave(participante));
+        if (p != null) return p;
+        return participante instanceof Thread ? ((Thread) participante).getPriority() : Thread.NORM_PRIORITY;
+    }
+    
+    /**
+     * Fonte da prioridade efetiva (base + herança) dos detentores, definida pelos locks que a
+     * implementam (o monitor não depende deles): uma inversão já resolvida por herança, em que o
+     * detentor corre com a prioridade de quem espera, deixa de ser reportada.
+     */
+    public void definirPrioridadeEfetiva(ToIntFunction<Thread> fonte) {
+        this.prioridadeEfetiva = fonte;
+    }
+    
+    private int prioridadeDetentor(Object detentor) {
+        ToIntFunction<Thread> fonte = prioridadeEfetiva;
+        if (fonte != null && detentor instanceof Thread)
+            return Math.max(prioridade(detentor), fonte.applyAsInt((Thread) detentor));
+        return prioridade(detentor);
     }
     
-    private Map<Thread, Set<Thread>> construirWaitForGraph() {
-        Map<Thread, Set<Thread>> grafo = new HashMap<>();
-        for (Map.Entry<Thread, Set<Object>> entry : recursosAguardados.entrySet()) {
-            Thread threadEsperando = entry.getKey();
+    /**
+     * Inversões de prioridade atuais no Wait-for Graph (quem espera tem prioridade superior
+     * à prioridade efetiva do detentor do recurso). A persistência entre ticks é avaliada pelo MonitorEBPF.
+     */
+    public synchronized List<InversaoPrioridade> detectarInversoes() {
+        List<InversaoPrioridade> inversoes = new ArrayList<>();
+        for (Map.Entry<Object, Set<Object>> entry : recursosAguardados.entrySet()) {
+            Object espera = desembrulhar(entry.getKey());
+            if (espera == null) continue; // Recolhida pelo GC
+            int prioridadeEspera = prioridade(espera);
             for (Object recurso : entry.getValue()) {
-                Thread threadDetentora = recursoParaThread.get(recurso);
-                if (threadDetentora != null && threadDetentora != threadEsperando) {
-                    grafo.computeIfAbsent(threadEsperando, k -> new HashSet<>()).add(threadDetentora);
-                }
+                Object chaveDetentor = recursoParaThread.get(recurso);
+                Object detentor = desembrulhar(chaveDetentor);
+                if (detentor == null || detentor == espera) continue;
+                int prioridadeDetentor = prioridadeDetentor(detentor);
+                if (prioridadeDetentor < prioridadeEspera)
+                    inversoes.add(new InversaoPrioridade(espera, detentor, recurso, prioridadeEspera,
+                            prioridadeDetentor, atrasoDe(chaveDetentor, detentor)));
             }
         }
-        return grafo;
+        return inversoes;
     }
     
-    private boolean detetarCicloDFS(Thread atual, Map<Thread, Set<Thread>> grafo, Set<Thread> visitadas, Set<Thread> pilhaRecursao, Set<Thread> threadsEmDeadlock) {
-        visitadas.add(atual);
-        pilhaRecursao.add(atual);
-        
-        Set<Thread> vizinhos = grafo.get(atual);
-        if (vizinhos != null) {
-            for (Thread vizinho : vizinhos) {
-                if (!visitadas.contains(vizinho)) {
-                    if (detetarCicloDFS(vizinho, grafo, visitadas, pilhaRecursao, threadsEmDeadlock)) {
-                        threadsEmDeadlock.add(atual);
-                        return true;
-                    }
-                } else if (pilhaRecursao.contains(vizinho)) {
-                    threadsEmDeadlock.add(atual);
-                    threadsEmDeadlock.add(vizinho);
-                    return true;
+    // O que atrasa o detentor: outra espera no grafo (bloqueio em cadeia) ou o estado da thread
+    private String atrasoDe(Object chave, Object detentor) {
+        Set<Object> aguardados = recursosAguardados.get(chave);
+        if (aguardados != null && !aguardados.isEmpty()) {
+            Object recurso = aguardados.iterator().next();
+            Object seguinte = desembrulhar(recursoParaThread.get(recurso));
+            return "bloqueado em '" + recurso + "'" + (seguinte != null ? " detido por " + nomeParticipante(seguinte) : "");
+        }
+        if (detentor instanceof Thread) return String.valueOf(((Thread) detentor).getState());
+        return "transação pendente";
+    }
+    
+    private Map<Object, Set<Object>> construirWaitForGraph() {
+        Map<Object, Set<Object>> grafo = new HashMap<>();
+        arestasWaitFor((esperando, detentora) -> grafo.computeIfAbsent(esperando, k -> new HashSet<>()).add(detentora));
+        return grafo;
+    }
+
+    // Arestas do Wait-for Graph (quem espera -> quem detém o recurso aguardado), sem materializar o grafo
+    private void arestasWaitFor(BiConsumer<Object, Object> aresta) {
+        for (Map.Entry<Object, Set<Object>> entry : recursosAguardados.entrySet()) {
+            Object threadEsperando = desembrulhar(entry.getKey());
+            if (threadEsperando == null) continue; // Recolhida pelo GC
+            for (Object recurso : entry.getValue()) {
+                Object threadDetentora = desembrulhar(recursoParaThread.get(recurso));
+                if (threadDetentora != null && threadDetentora != threadEsperando) {
+                    aresta.accept(threadEsperando, threadDetentora);
                 }
             }
         }
-        pilhaRecursao.remove(atual);
-        return false;
+    }
+
+    /**
+     * Exporta as arestas atuais: Request edges (participante -> recurso) e
+     * Allocation edges (recurso -> participante). Usado pelo PublicadorGrafo.
+     */
+    public synchronized void exportarArestas(BiConsumer<Object, Object> espera, BiConsumer<Object, Object> posse) {
+        recursosAguardados.forEach((chave, recursos) -> {
+            Object t = desembrulhar(chave);
+            if (t != null) recursos.forEach(r -> espera.accept(t, r));
+        });
+        recursoParaThread.forEach((r, chave) -> {
+            Object t = desembrulhar(chave);
+            if (t != null) posse.accept(r, t);
+        });
+    }
+
+    /**
+     * Nº de Request edges + Allocation edges ativos (gauge da telemetria).
+     */
+    public int tamanhoGrafo() {
+        int arestas = recursoParaThread.size();
+        for (Set<Object> aguardados : recursosAguardados.values()) arestas += aguardados.size();
+        return arestas;
+    }
+
+    /**
+     * Identificação legível de um participante: ID para Threads, descrição para transações.
+     */
+    public static String descrever(Object participante) {
+        if (participante instanceof Thread) return String.valueOf(((Thread) participante).threadId());
+        return "'" + participante + "'";
+    }
+
+    public static String nomeParticipante(Object participante) {
+        if (participante instanceof Thread) return ((Thread) participante).getName();
+        return String.valueOf(participante);
     }
 
     public synchronized String obterEstadoGrafo() {
         StringBuilder sb = new StringBuilder();
         sb.append("--- Wait-for Graph Dump ---\n");
-        Map<Thread, Set<Thread>> grafo = construirWaitForGraph();
+        Map<Object, Set<Object>> grafo = construirWaitForGraph();
         if(grafo.isEmpty()) sb.append("Sem dependências ativas.\n");
         grafo.forEach((t, deps) -> {
-            sb.append(t.getName()).append(" aguarda por: ");
-            deps.forEach(d -> sb.append(d.getName()).append(" "));
+            sb.append(nomeParticipante(t)).append(" aguarda por: ");
+            deps.forEach(d -> sb.append(nomeParticipante(d)).append(" "));
             sb.append("\n");
         });
         return sb.toString();
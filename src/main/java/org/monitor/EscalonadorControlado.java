@@ -0,0 +1,262 @@
+package org.monitor;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadInfo;
+import java.lang.management.ThreadMXBean;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.BooleanSupplier;
+
+/**
+ * Escalonador controlado (estilo CHESS) para uma execução de um cenário.
+ * As threads criadas com criarThread() correm uma de cada vez: cada uma só avança
+ * de um ponto de probe para o seguinte quando o escalonador lhe dá a vez. A ordem
+ * das escolhas (o escalonamento) é decidida por quem conduz a execução
+ * (ExploradorEscalonamentos), o que torna cada interleaving reproduzível.
+ *
+ * Uma thread está "parada" quando está num ponto, numa espera cooperativa
+ * (bloquear) ou BLOCKED num monitor detido por outra thread parada.
+ */
+public final class EscalonadorControlado {
+    // Leitura rápida no hot path dos pontos de probe (nenhuma execução controlada ativa)
+    static volatile int execucoesAtivas = 0;
+    private static final ThreadLocal<ThreadControlada> ATUAL = new ThreadLocal<>();
+    private static final ThreadMXBean THREADS = ManagementFactory.getThreadMXBean();
+
+    private static final long PRAZO_QUIESCENCIA_NANOS = TimeUnit.SECONDS.toNanos(2);
+
+    /**
+     * Lançado nas threads controladas para as desenrolar quando a execução é abortada
+     * (Error: não é apanhado por catch (Exception) do código dos cenários).
+     */
+    static final class Abortada extends Error {
+        private static final long serialVersionUID = 1L;
+
+        Abortada() {
+            super(null, null, false, false);
+        }
+    }
+
+    final class ThreadControlada {
+        final int indice;
+        final Thread thread;
+        volatile boolean emPonto = false;
+        volatile boolean vez = false;
+        volatile boolean terminada = false;
+        volatile String ponto;
+        volatile Object recurso;
+        volatile BooleanSupplier condicao;
+
+        ThreadControlada(int indice, String nome, Runnable corpo) {
+            this.indice = indice;
+            this.thread = new Thread(() -> correr(corpo), nome);
+            this.thread.setDaemon(true);
+        }
+
+        private void correr(Runnable corpo) {
+            ATUAL.set(this);
+            try {
+                esperarVez("inicio", null, null);
+                corpo.run();
+            } catch (Abortada e) {
+                // Execução abortada pelo escalonador
+            } catch (Throwable e) {
+                erro = e;
+            } finally {
+                terminada = true;
+                emPonto = false;
+                ATUAL.remove();
+            }
+        }
+
+        private void esperarVez(String ponto, Object recurso, BooleanSupplier condicao) {
+            this.ponto = ponto;
+            this.recurso = recurso;
+            this.condicao = condicao;
+            emPonto = true;
+            while (!vez && !abortada)
+                LockSupport.park(this);
+            vez = false;
+            if (abortada)
+                throw new Abortada();
+        }
+    }
+
+    private final List<ThreadControlada> threads = new ArrayList<>();
+    private volatile boolean abortada = false;
+    private volatile Throwable erro;
+    private volatile int passo = 0;
+
+    public EscalonadorControlado() {
+    }
+
+    /**
+     * Cria (sem arrancar) uma thread controlada; o índice é a ordem de criação.
+     */
+    public Thread criarThread(String nome, Runnable corpo) {
+        ThreadControlada t = new ThreadControlada(threads.size(), nome, corpo);
+        threads.add(t);
+        return t.thread;
+    }
+
+    /**
+     * Nº de passos já concedidos (lido pela thread que tem a vez, ex: para registar uma história).
+     */
+    public int getPasso() {
+        return passo;
+    }
+
+    // --- API usada pelos pontos de probe ---
+
+    /**
+     * A thread atual pertence a uma execução controlada.
+     */
+    public static boolean isControlada() {
+        return execucoesAtivas > 0 && ATUAL.get() != null;
+    }
+
+    /**
+     * Ponto de escalonamento: a thread atual pára até voltar a ter a vez.
+     * O recurso do passo seguinte é o próprio objeto (comparado por identidade) ou, se o
+     * chamador só tiver um nome, um rótulo String (null = pode afetar qualquer recurso).
+     */
+    static void ponto(String nome, Object recurso) {
+        ThreadControlada t = ATUAL.get();
+        if (t != null)
+            t.esperarVez(nome, recurso, null);
+    }
+
+    /**
+     * Espera cooperativa: a thread só volta a ser escolhível quando a condição for verdadeira
+     * (avaliada pelo escalonador com todas as threads paradas).
+     */
+    public static void bloquear(Object recurso, BooleanSupplier condicao) {
+        ThreadControlada t = ATUAL.get();
+        if (t != null)
+            t.esperarVez("bloquear", recurso, condicao);
+    }
+
+    // --- API usada pelo explorador ---
+
+    void iniciar() {
+        synchronized (EscalonadorControlado.class) {
+            execucoesAtivas++;
+        }
+        for (ThreadControlada t : threads)
+            t.thread.start();
+    }
+
+    /**
+     * Espera que todas as threads estejam paradas. Devolve false se o prazo expirar
+     * (a thread espera em algo que o escalonador não controla).
+     */
+    boolean aguardarQuiescencia() {
+        long prazo = System.nanoTime() + PRAZO_QUIESCENCIA_NANOS;
+        for (int tentativa = 0; !quiescente(); tentativa++) {
+            if (System.nanoTime() > prazo)
+                return false;
+            if (tentativa < 100)
+                Thread.yield();
+            else
+                LockSupport.parkNanos(20_000);
+        }
+        return true;
+    }
+
+    private boolean quiescente() {
+        for (ThreadControlada t : threads) {
+            if (t.terminada || t.emPonto)
+                continue;
+            if (t.thread.getState() != Thread.State.BLOCKED)
+                return false;
+            // BLOCKED só é estável se o dono do monitor for uma thread controlada parada
+            ThreadInfo info = THREADS.getThreadInfo(t.thread.threadId());
+            if (info == null || !detidoPorParada(info.getLockOwnerId()))
+                return false;
+        }
+        return true;
+    }
+
+    private boolean detidoPorParada(long idDono) {
+        for (ThreadControlada t : threads)
+            if (t.thread.threadId() == idDono)
+                return t.emPonto;
+        return false;
+    }
+
+    boolean todasTerminadas() {
+        for (ThreadControlada t : threads)
+            if (!t.terminada)
+                return false;
+        return true;
+    }
+
+    /**
+     * Threads que podem dar o próximo passo (num ponto e com a condição de espera satisfeita).
+     */
+    List<Integer> habilitadas() {
+        List<Integer> resultado = new ArrayList<>();
+        for (ThreadControlada t : threads) {
+            if (t.terminada || !t.emPonto)
+                continue;
+            BooleanSupplier c = t.condicao;
+            if (c == null || c.getAsBoolean())
+                resultado.add(t.indice);
+        }
+        return resultado;
+    }
+
+    Object recurso(int indice) {
+        return threads.get(indice).recurso;
+    }
+
+    String ponto(int indice) {
+        return threads.get(indice).ponto;
+    }
+
+    String nome(int indice) {
+        return threads.get(indice).thread.getName();
+    }
+
+    Thread thread(int indice) {
+        return threads.get(indice).thread;
+    }
+
+    int getNumeroThreads() {
+        return threads.size();
+    }
+
+    void conceder(int indice) {
+        ThreadControlada t = threads.get(indice);
+        passo++;
+        // Limpo antes de acordar: a quiescência seguinte espera pelo próximo ponto desta thread
+        t.emPonto = false;
+        t.vez = true;
+        LockSupport.unpark(t.thread);
+    }
+
+    /**
+     * Aborta a execução: as threads paradas desenrolam com Abortada e libertam o que detêm.
+     */
+    void terminar() {
+        abortada = true;
+        for (ThreadControlada t : threads)
+            LockSupport.unpark(t.thread);
+        for (ThreadControlada t : threads) {
+            try {
+                t.thread.join(TimeUnit.SECONDS.toMillis(2));
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        synchronized (EscalonadorControlado.class) {
+            execucoesAtivas--;
+        }
+    }
+
+    Throwable getErro() {
+        return erro;
+    }
+}
@@ -0,0 +1,273 @@
+package org.monitor;
+
+import java.util.ArrayDeque;
+import java.util.Iterator;
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Threshold;
+
+/**
+ * Eventos Java Flight Recorder das probes e dos alertas do MonitorEBPF.
+ * Numa gravação JFR ficam ao lado dos eventos da JVM (jdk.JavaMonitorEnter, jdk.JavaMonitorWait,
+ * jdk.ThreadPark, GC): a mesma thread e o mesmo intervalo de tempo mostram a semântica do lock
+ * (recurso, participante) e o que a JVM fez por baixo.
+ *
+ * Sem gravação ativa cada probe paga apenas o isEnabled() do evento. Os valores por omissão
+ * (limiar, stack trace) estão nas anotações; cada gravação pode alterá-los por evento
+ * (ficheiro monitor.jfc ou Recording.enable(...).withThreshold(...)).
+ */
+public final class EventosJFR {
+    static final String PREFIXO = "org.monitor.";
+    private static final String CATEGORIA = "Simulador Hospitalar";
+
+    private EventosJFR() {
+    }
+
+    // --- Probes ---
+
+    @Name(PREFIXO + "Acesso")
+    @Label("Acesso a Recurso")
+    @Description("Probe registarAcesso: a thread obteve o recurso")
+    @Category({ CATEGORIA, "Probes" })
+    @StackTrace(false)
+    static final class Acesso extends Event {
+        @Label("Recurso")
+        String recurso;
+
+        @Label("Thread")
+        Thread thread;
+    }
+
+    @Name(PREFIXO + "EsperaRecurso")
+    @Label("Espera por Recurso")
+    @Description("Probes registarEspera -> registarAlocacao/cancelarEspera do Wait-for Graph. "
+            + "Pode terminar na thread que entrega o lock: o participante é o campo 'Thread'")
+    @Category({ CATEGORIA, "Probes" })
+    @StackTrace(false)
+    @Threshold("1 ms")
+    static final class EsperaRecurso extends Event {
+        @Label("Recurso")
+        String recurso;
+
+        @Label("Participante")
+        String participante;
+
+        @Label("Thread")
+        Thread thread;
+
+        @Label("Concedida")
+        boolean concedida;
+    }
+
+    @Name(PREFIXO + "Alocacao")
+    @Label("Alocação de Recurso")
+    @Description("Probe registarAlocacao (Allocation edge)")
+    @Category({ CATEGORIA, "Probes" })
+    @StackTrace(false)
+    static final class Alocacao extends Event {
+        @Label("Recurso")
+        String recurso;
+
+        @Label("Participante")
+        String participante;
+    }
+
+    @Name(PREFIXO + "Libertacao")
+    @Label("Libertação de Recurso")
+    @Description("Probe registarLibertacao")
+    @Category({ CATEGORIA, "Probes" })
+    @StackTrace(false)
+    static final class Libertacao extends Event {
+        @Label("Recurso")
+        String recurso;
+
+        @Label("Participante")
+        String participante;
+    }
+
+    @Name(PREFIXO + "ZonaInsegura")
+    @Label("Zona Insegura")
+    @Description("Probes probeUnsafeEnter -> probeUnsafeExit (secção sem sincronização)")
+    @Category({ CATEGORIA, "Probes" })
+    @StackTrace(true)
+    @Threshold("0 ms")
+    static final class ZonaInsegura extends Event {
+        @Label("Recurso")
+        String recurso;
+
+        @Label("Threads Concorrentes")
+        @Description("Threads na zona à entrada (> 1 = race condition)")
+        int concorrentes;
+    }
+
+    // --- Alertas ---
+
+    abstract static class Alerta extends Event {
+        @Label("Detalhe")
+        String detalhe;
+    }
+
+    @Name(PREFIXO + "AlertaRace")
+    @Label("Alerta Race Condition")
+    @Category({ CATEGORIA, "Alertas" })
+    @StackTrace(true)
+    static final class AlertaRace extends Alerta {
+    }
+
+    @Name(PREFIXO + "AlertaDeadlock")
+    @Label("Alerta Deadlock")
+    @Category({ CATEGORIA, "Alertas" })
+    @StackTrace(false)
+    static final class AlertaDeadlock extends Alerta {
+    }
+
+    @Name(PREFIXO + "AlertaStarvation")
+    @Label("Alerta Starvation")
+    @Category({ CATEGORIA, "Alertas" })
+    @StackTrace(false)
+    static final class AlertaStarvation extends Alerta {
+    }
+
+    @Name(PREFIXO + "AlertaFlood")
+    @Label("Alerta Flood")
+    @Category({ CATEGORIA, "Alertas" })
+    @StackTrace(true)
+    static final class AlertaFlood extends Alerta {
+    }
+
+    @Name(PREFIXO + "AlertaInversao")
+    @Label("Alerta Inversão de Prioridade")
+    @Category({ CATEGORIA, "Alertas" })
+    @StackTrace(false)
+    static final class AlertaInversao extends Alerta {
+    }
+
+    // Tipos de alerta sem evento próprio
+    @Name(PREFIXO + "AlertaOutro")
+    @Label("Outro Alerta")
+    @Category({ CATEGORIA, "Alertas" })
+    @StackTrace(false)
+    static final class AlertaOutro extends Alerta {
+        @Label("Tipo")
+        String tipo;
+    }
+
+    // Zonas inseguras abertas pela thread atual (só com o evento ativo)
+    private static final ThreadLocal<ArrayDeque<ZonaInsegura>> zonasAbertas = new ThreadLocal<>();
+
+    static void acesso(Thread t, String recurso) {
+        Acesso e = new Acesso();
+        if (!e.isEnabled())
+            return;
+        e.recurso = recurso;
+        e.thread = t;
+        e.commit();
+    }
+
+    /**
+     * Início de uma espera; null se o evento não estiver ativo (o chamador guarda o evento
+     * até à alocação ou ao cancelamento).
+     */
+    static EsperaRecurso iniciarEspera(Object participante, Object recurso) {
+        EsperaRecurso e = new EsperaRecurso();
+        if (!e.isEnabled())
+            return null;
+        e.begin();
+        e.recurso = String.valueOf(recurso);
+        e.participante = DetectorDeadlock.nomeParticipante(participante);
+        e.thread = participante instanceof Thread ? (Thread) participante : null;
+        return e;
+    }
+
+    static void terminarEspera(EsperaRecurso e, boolean concedida) {
+        if (e == null)
+            return;
+        e.end();
+        if (e.shouldCommit()) {
+            e.concedida = concedida;
+            e.commit();
+        }
+    }
+
+    static void alocacao(Object participante, Object recurso) {
+        Alocacao e = new Alocacao();
+        if (!e.isEnabled())
+            return;
+        e.recurso = String.valueOf(recurso);
+        e.participante = DetectorDeadlock.nomeParticipante(participante);
+        e.commit();
+    }
+
+    static void libertacao(Object participante, Object recurso) {
+        Libertacao e = new Libertacao();
+        if (!e.isEnabled())
+            return;
+        e.recurso = String.valueOf(recurso);
+        e.participante = DetectorDeadlock.nomeParticipante(participante);
+        e.commit();
+    }
+
+    static void entrarZonaInsegura(String recurso, int concorrentes) {
+        ZonaInsegura e = new ZonaInsegura();
+        if (!e.isEnabled())
+            return;
+        e.begin();
+        e.recurso = recurso;
+        e.concorrentes = concorrentes;
+        ArrayDeque<ZonaInsegura> abertas = zonasAbertas.get();
+        if (abertas == null) {
+            abertas = new ArrayDeque<>();
+            zonasAbertas.set(abertas);
+        }
+        abertas.push(e);
+    }
+
+    static void sairZonaInsegura(String recurso) {
+        ArrayDeque<ZonaInsegura> abertas = zonasAbertas.get();
+        if (abertas == null || abertas.isEmpty())
+            return; // Entrou antes de a gravação começar
+        for (Iterator<ZonaInsegura> it = abertas.iterator(); it.hasNext();) {
+            ZonaInsegura e = it.next();
+            if (e.recurso.equals(recurso)) {
+                it.remove();
+                e.end();
+                if (e.shouldCommit())
+                    e.commit();
+                return;
+            }
+        }
+    }
+
+    static void alerta(String tipo, String detalhe) {
+        Alerta e;
+        switch (tipo) {
+            case MonitorEBPF.ALERTA_RACE:
+                e = new AlertaRace();
+                break;
+            case MonitorEBPF.ALERTA_DEADLOCK:
+                e = new AlertaDeadlock();
+                break;
+            case MonitorEBPF.ALERTA_STARVATION:
+                e = new AlertaStarvation();
+                break;
+            case MonitorEBPF.ALERTA_FLOOD:
+                e = new AlertaFlood();
+                break;
+            case MonitorEBPF.ALERTA_INVERSAO:
+                e = new AlertaInversao();
+                break;
+            default:
+                AlertaOutro outro = new AlertaOutro();
+                outro.tipo = tipo;
+                e = outro;
+        }
+        if (!e.isEnabled())
+            return;
+        e.detalhe = detalhe;
+        e.commit();
+    }
+}
@@ -0,0 +1,289 @@
+package org.monitor;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentLinkedDeque;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.Supplier;
+
+/**
+ * Exploração sistemática de escalonamentos (stateless model checking, estilo CHESS).
+ * Cada execução segue um prefixo de escolhas e estende-o; as alternativas em cada
+ * ponto de decisão ficam numa fila partilhada por vários trabalhadores (paralelo).
+ * Redução de ordem parcial com sleep sets: passos de threads sobre recursos
+ * diferentes comutam, por isso só uma das ordens é explorada.
+ * A redução supõe que cada passo só toca o recurso do seu ponto de probe. Os passos também
+ * atualizam estado partilhado sem rótulo (MonitorEBPF, DetectorDeadlock); esse estado não
+ * entra na verificação, mas a hipótese não é verificada, por isso uma exploração com POR
+ * nunca é reportada como exaustiva (só como completa).
+ */
+public final class ExploradorEscalonamentos {
+    private static final int MAX_PASSOS = 500;
+
+    /**
+     * Cenário a verificar: cria o estado e as threads (com e.criarThread) e devolve a
+     * verificação final, chamada quando todas terminam (null = correto, senão a violação).
+     */
+    public interface Cenario {
+        Supplier<String> preparar(EscalonadorControlado e);
+    }
+
+    public enum Desfecho {
+        OK, VIOLACAO, DEADLOCK, PODADA, DIVERGENCIA, LIMITE
+    }
+
+    /**
+     * Resultado de uma execução: desfecho, escalonamento seguido e descrição.
+     */
+    public static final class Execucao {
+        public final Desfecho desfecho;
+        public final int[] escolhas;
+        public final String traco;
+        public final String detalhe;
+
+        Execucao(Desfecho desfecho, List<Integer> escolhas, String traco, String detalhe) {
+            this.desfecho = desfecho;
+            this.escolhas = escolhas.stream().mapToInt(Integer::intValue).toArray();
+            this.traco = traco;
+            this.detalhe = detalhe;
+        }
+    }
+
+    public static final class Relatorio {
+        public final long execucoes;
+        public final long podadas;
+        public final long violacoes;
+        public final long deadlocks;
+        public final long divergencias;
+        // Todos os ramos agendados foram explorados (limite de execuções não atingido)
+        public final boolean completa;
+        // Completa e sem POR: cobre todos os escalonamentos, sem depender da hipótese da redução
+        public final boolean exaustiva;
+        public final double segundos;
+        public final Execucao contraExemplo;
+
+        Relatorio(long execucoes, long podadas, long violacoes, long deadlocks, long divergencias,
+                boolean completa, boolean exaustiva, double segundos, Execucao contraExemplo) {
+            this.execucoes = execucoes;
+            this.podadas = podadas;
+            this.violacoes = violacoes;
+            this.deadlocks = deadlocks;
+            this.divergencias = divergencias;
+            this.completa = completa;
+            this.exaustiva = exaustiva;
+            this.segundos = segundos;
+            this.contraExemplo = contraExemplo;
+        }
+    }
+
+    // Ramo por explorar: prefixo de escolhas + sleep set (thread -> recurso do seu próximo passo)
+    private static final class Ramo {
+        final int[] prefixo;
+        final Map<Integer, Object> sono;
+
+        Ramo(int[] prefixo, Map<Integer, Object> sono) {
+            this.prefixo = prefixo;
+            this.sono = sono;
+        }
+    }
+
+    private final int trabalhadores;
+    private final int maxExecucoes;
+    private final boolean reducaoOrdemParcial;
+
+    public ExploradorEscalonamentos(int trabalhadores, int maxExecucoes, boolean reducaoOrdemParcial) {
+        this.trabalhadores = trabalhadores;
+        this.maxExecucoes = maxExecucoes;
+        this.reducaoOrdemParcial = reducaoOrdemParcial;
+    }
+
+    public Relatorio explorar(Cenario cenario) throws InterruptedException {
+        ConcurrentLinkedDeque<Ramo> fila = new ConcurrentLinkedDeque<>();
+        AtomicInteger pendentes = new AtomicInteger(1);
+        AtomicInteger iniciadas = new AtomicInteger();
+        LongAdder execucoes = new LongAdder();
+        LongAdder[] porDesfecho = new LongAdder[Desfecho.values().length];
+        for (int i = 0; i < porDesfecho.length; i++)
+            porDesfecho[i] = new LongAdder();
+        AtomicReference<Execucao> contraExemplo = new AtomicReference<>();
+        fila.add(new Ramo(new int[0], new HashMap<>()));
+
+        long inicio = System.nanoTime();
+        Thread[] pool = new Thread[trabalhadores];
+        for (int w = 0; w < trabalhadores; w++) {
+            pool[w] = new Thread(() -> {
+                while (pendentes.get() > 0) {
+                    // pollLast: profundidade primeiro, mantém a fila pequena
+                    Ramo ramo = fila.pollLast();
+                    if (ramo == null) {
+                        LockSupport.parkNanos(50_000);
+                        continue;
+                    }
+                    if (iniciadas.incrementAndGet() <= maxExecucoes) {
+                        Execucao ex = executar(cenario, ramo, reducaoOrdemParcial, fila, pendentes);
+                        execucoes.increment();
+                        porDesfecho[ex.desfecho.ordinal()].increment();
+                        if (ex.desfecho == Desfecho.VIOLACAO || ex.desfecho == Desfecho.DEADLOCK)
+                            contraExemplo.compareAndSet(null, ex);
+                    }
+                    pendentes.decrementAndGet();
+                }
+            }, "Explorador-" + w);
+            pool[w].start();
+        }
+        for (Thread t : pool)
+            t.join();
+
+        boolean completa = iniciadas.get() <= maxExecucoes;
+        return new Relatorio(execucoes.sum(), porDesfecho[Desfecho.PODADA.ordinal()].sum(),
+                porDesfecho[Desfecho.VIOLACAO.ordinal()].sum(), porDesfecho[Desfecho.DEADLOCK.ordinal()].sum(),
+                porDesfecho[Desfecho.DIVERGENCIA.ordinal()].sum(), completa, completa && !reducaoOrdemParcial,
+                (System.nanoTime() - inicio) / 1e9, contraExemplo.get());
+    }
+
+    /**
+     * Repete exatamente um escalonamento (ex: o contra-exemplo de uma exploração).
+     */
+    public static Execucao reproduzir(Cenario cenario, int[] escolhas) {
+        return executar(cenario, new Ramo(escolhas, new HashMap<>()), false, null, null);
+    }
+
+    private static Execucao executar(Cenario cenario, Ramo ramo, boolean por, ConcurrentLinkedDeque<Ramo> fila,
+            AtomicInteger pendentes) {
+        EscalonadorControlado e = new EscalonadorControlado();
+        Supplier<String> verificacao = cenario.preparar(e);
+        List<Integer> escolhas = new ArrayList<>();
+        StringBuilder traco = new StringBuilder();
+        Map<Integer, Object> sono = null;
+        Desfecho desfecho = null;
+        String detalhe = null;
+
+        e.iniciar();
+        try {
+            while (true) {
+                if (!e.aguardarQuiescencia()) {
+                    desfecho = Desfecho.DIVERGENCIA;
+                    detalhe = "thread em espera fora do escalonador";
+                    break;
+                }
+                if (e.todasTerminadas())
+                    break;
+                List<Integer> habilitadas = e.habilitadas();
+                if (habilitadas.isEmpty()) {
+                    desfecho = Desfecho.DEADLOCK;
+                    detalhe = descreverDeadlock(e);
+                    break;
+                }
+                if (escolhas.size() >= MAX_PASSOS) {
+                    desfecho = Desfecho.LIMITE;
+                    break;
+                }
+
+                int escolha;
+                if (escolhas.size() < ramo.prefixo.length) {
+                    escolha = ramo.prefixo[escolhas.size()];
+                    if (!habilitadas.contains(escolha)) {
+                        desfecho = Desfecho.DIVERGENCIA;
+                        detalhe = "escalonamento não reproduzível no passo " + escolhas.size();
+                        break;
+                    }
+                } else {
+                    if (sono == null)
+                        sono = new HashMap<>(ramo.sono);
+                    List<Integer> candidatas = new ArrayList<>();
+                    for (int t : habilitadas)
+                        if (!sono.containsKey(t))
+                            candidatas.add(t);
+                    if (candidatas.isEmpty()) {
+                        // Todas as continuações já são cobertas por ordens equivalentes
+                        desfecho = Desfecho.PODADA;
+                        break;
+                    }
+                    escolha = candidatas.get(0);
+                    if (fila != null)
+                        agendarAlternativas(e, escolhas, candidatas, sono, por, fila, pendentes);
+                    if (por)
+                        sono = filtrarIndependentes(sono, e.recurso(escolha));
+                }
+
+                escolhas.add(escolha);
+                traco.append(e.nome(escolha)).append('@').append(e.ponto(escolha)).append(' ');
+                e.conceder(escolha);
+            }
+        } finally {
+            e.terminar();
+        }
+
+        if (desfecho == null) {
+            if (e.getErro() != null) {
+                desfecho = Desfecho.VIOLACAO;
+                detalhe = "exceção: " + e.getErro();
+            } else {
+                detalhe = verificacao.get();
+                desfecho = detalhe == null ? Desfecho.OK : Desfecho.VIOLACAO;
+            }
+        }
+        return new Execucao(desfecho, escolhas, traco.toString().trim(), detalhe);
+    }
+
+    /**
+     * Agenda as outras escolhas deste ponto de decisão. Com POR, a alternativa i herda no
+     * sleep set as escolhas anteriores (já exploradas) que comutam com ela.
+     */
+    private static void agendarAlternativas(EscalonadorControlado e, List<Integer> escolhas, List<Integer> candidatas,
+            Map<Integer, Object> sono, boolean por, ConcurrentLinkedDeque<Ramo> fila, AtomicInteger pendentes) {
+        Map<Integer, Object> anteriores = new HashMap<>(sono);
+        anteriores.put(candidatas.get(0), e.recurso(candidatas.get(0)));
+        for (int i = 1; i < candidatas.size(); i++) {
+            int alternativa = candidatas.get(i);
+            int[] prefixo = new int[escolhas.size() + 1];
+            for (int k = 0; k < escolhas.size(); k++)
+                prefixo[k] = escolhas.get(k);
+            prefixo[escolhas.size()] = alternativa;
+            Map<Integer, Object> novoSono = por ? filtrarIndependentes(anteriores, e.recurso(alternativa))
+                    : new HashMap<>();
+            pendentes.incrementAndGet();
+            fila.addLast(new Ramo(prefixo, novoSono));
+            anteriores.put(alternativa, e.recurso(alternativa));
+        }
+    }
+
+    private static Map<Integer, Object> filtrarIndependentes(Map<Integer, Object> sono, Object recurso) {
+        Map<Integer, Object> resultado = new HashMap<>();
+        sono.forEach((t, r) -> {
+            if (independentes(r, recurso))
+                resultado.put(t, r);
+        });
+        return resultado;
+    }
+
+    /**
+     * Passos comutam se ambos identificam o recurso e os recursos são diferentes. Os objetos são
+     * comparados por identidade (os rótulos de um acesso mudam com a operação, o objeto não);
+     * um rótulo String só é comparável com outro rótulo. Hipótese: o passo não toca outro estado
+     * observado pela verificação além desse recurso (ver a documentação da classe).
+     */
+    private static boolean independentes(Object a, Object b) {
+        if (a == null || b == null || a == b)
+            return false;
+        if (a instanceof String && b instanceof String)
+            return !a.equals(b);
+        return !(a instanceof String) && !(b instanceof String);
+    }
+
+    private static String descreverDeadlock(EscalonadorControlado e) {
+        // Confirma que o DetectorDeadlock também vê o ciclo neste estado
+        boolean detetado = false;
+        for (List<Object> ciclo : MonitorEBPF.getInstance().getDetector().detectarComponentes()) {
+            for (int i = 0; i < e.getNumeroThreads(); i++)
+                if (ciclo.contains(e.thread(i)))
+                    detetado = true;
+        }
+        return "todas as threads bloqueadas (DetectorDeadlock " + (detetado ? "confirmou o ciclo" : "NÃO viu o ciclo") + ")";
+    }
+}
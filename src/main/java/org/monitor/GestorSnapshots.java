@@ -0,0 +1,332 @@
+package org.monitor;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.IntConsumer;
+import java.util.zip.CRC32;
+
+/**
+ * Snapshots periódicos do estado do simulador (níveis de stock e contadores do monitor)
+ * num formato binário compacto, com restauro no arranque.
+ *
+ * Captura por épocas: o snapshot avança a época global, espera apenas pelas escritas que
+ * começaram na época anterior (nunca bloqueia novas operações) e lê cada CelulaVersionada
+ * no fim dessa época, o que dá um corte consistente entre todos os stocks. As secções de
+ * contadores (estatísticas monotónicas) são copiadas logo a seguir ao corte.
+ *
+ * Os escritores ativos de cada paridade de época são contados com um par de LongAdder
+ * (entradas e saídas, sem um contador partilhado por todas as escritas); o snapshot soma as
+ * saídas antes das entradas, por isso nunca vê menos escritores do que os que estão ativos.
+ *
+ * O simulador usa a instância global(); benchmarks e testes podem criar instâncias próprias
+ * (e células ligadas a elas) sem interferir com os snapshots periódicos.
+ *
+ * Formato: magia, versão, época, instante, secções (nome, pares chave/valor em varint) e CRC32.
+ */
+public final class GestorSnapshots {
+    private static final int MAGIA = 0x534F534E; // "SOSN"
+    private static final int VERSAO = 1;
+    private static final String SECAO_STOCK = "stock";
+    private static final String EXT_ANTERIOR = ".anterior";
+
+    /**
+     * Secção de contadores incluída nos snapshots (ex: estatísticas do monitor).
+     */
+    public interface Secao {
+        Map<String, Long> capturar();
+
+        void restaurar(Map<String, Long> valores);
+    }
+
+    /**
+     * Resultado de uma captura.
+     */
+    public static final class Snapshot {
+        public final long epoca;
+        public final long instante;
+        public final Map<String, Map<String, Long>> secoes;
+        public final double microsCorte;
+
+        Snapshot(long epoca, long instante, Map<String, Map<String, Long>> secoes, double microsCorte) {
+            this.epoca = epoca;
+            this.instante = instante;
+            this.secoes = secoes;
+            this.microsCorte = microsCorte;
+        }
+    }
+
+    private static final GestorSnapshots global = new GestorSnapshots();
+
+    // Época atual e escritores por paridade de época (ativos = entradas - saídas)
+    private final AtomicLong epoca = new AtomicLong(1);
+    private final LongAdder[] entradas = { new LongAdder(), new LongAdder() };
+    private final LongAdder[] saidas = { new LongAdder(), new LongAdder() };
+
+    private final Map<String, CelulaVersionada> stocks = new ConcurrentSkipListMap<>();
+    private final Map<String, Secao> secoes = new ConcurrentSkipListMap<>();
+    private final Map<String, IntConsumer> aoRestaurar = new ConcurrentSkipListMap<>();
+    private Thread periodico; // protegido por this
+
+    public GestorSnapshots() {
+    }
+
+    /**
+     * Instância dos stocks e contadores do simulador (snapshots periódicos e restauro no arranque).
+     */
+    public static GestorSnapshots global() {
+        return global;
+    }
+
+    // --- Protocolo dos escritores (CelulaVersionada) ---
+
+    /**
+     * Início de uma operação de escrita; devolve a época a passar a CelulaVersionada.set.
+     * Deve ser chamado já com os locks da operação: assim as escritas na mesma célula têm
+     * épocas não decrescentes e uma operação com várias células fica toda no mesmo corte.
+     */
+    public long iniciarEscrita() {
+        while (true) {
+            long e = epoca.get();
+            int paridade = (int) (e & 1);
+            entradas[paridade].increment();
+            if (epoca.get() == e)
+                return e;
+            // A época avançou entretanto: a escrita pertence à nova
+            saidas[paridade].increment();
+        }
+    }
+
+    public void terminarEscrita(long e) {
+        saidas[(int) (e & 1)].increment();
+    }
+
+    // Saídas somadas antes das entradas: cada saída contada tem a sua entrada contada
+    private long escritoresAtivos(int paridade) {
+        long sairam = saidas[paridade].sum();
+        return entradas[paridade].sum() - sairam;
+    }
+
+    // --- Registo ---
+
+    public void registarStock(String nome, CelulaVersionada celula) {
+        stocks.put(nome, celula);
+    }
+
+    /**
+     * Como registarStock, com um ouvinte chamado com o nível restaurado (ex: para reiniciar
+     * a previsão de consumo do stock).
+     */
+    public void registarStock(String nome, CelulaVersionada celula, IntConsumer ouvinteRestauro) {
+        stocks.put(nome, celula);
+        aoRestaurar.put(nome, ouvinteRestauro);
+    }
+
+    public void removerStock(String nome) {
+        stocks.remove(nome);
+        aoRestaurar.remove(nome);
+    }
+
+    public void registarSecao(String nome, Secao secao) {
+        secoes.put(nome, secao);
+    }
+
+    // --- Captura ---
+
+    public synchronized Snapshot capturar() {
+        long inicio = System.nanoTime();
+        long corte = epoca.getAndIncrement();
+        // Só as escritas já iniciadas na época do corte (secções críticas curtas); as novas
+        // entram na época seguinte e nunca esperam pelo snapshot
+        int paridade = (int) (corte & 1);
+        for (int tentativa = 0; escritoresAtivos(paridade) > 0; tentativa++) {
+            if (tentativa < 100)
+                Thread.onSpinWait();
+            else
+                Thread.yield();
+        }
+        Map<String, Map<String, Long>> capturadas = new LinkedHashMap<>();
+        Map<String, Long> niveis = new TreeMap<>();
+        stocks.forEach((nome, celula) -> niveis.put(nome, (long) celula.valorNaEpoca(corte)));
+        capturadas.put(SECAO_STOCK, niveis);
+        double micros = (System.nanoTime() - inicio) / 1e3;
+        secoes.forEach((nome, secao) -> capturadas.put(nome, secao.capturar()));
+        return new Snapshot(corte, System.currentTimeMillis(), capturadas, micros);
+    }
+
+    /**
+     * Captura e grava atomicamente (o snapshot anterior fica em .anterior). Devolve o nº de bytes.
+     */
+    public int gravar(String caminho) throws IOException {
+        return gravar(caminho, capturar());
+    }
+
+    public int gravar(String caminho, Snapshot s) throws IOException {
+        byte[] bytes = codificar(s);
+        Path destino = Paths.get(caminho);
+        if (destino.getParent() != null)
+            Files.createDirectories(destino.getParent());
+        Path temporario = Paths.get(caminho + ".tmp");
+        Files.write(temporario, bytes);
+        if (Files.exists(destino))
+            Files.move(destino, Paths.get(caminho + EXT_ANTERIOR), StandardCopyOption.REPLACE_EXISTING,
+                    StandardCopyOption.ATOMIC_MOVE);
+        Files.move(temporario, destino, StandardCopyOption.ATOMIC_MOVE);
+        return bytes.length;
+    }
+
+    /**
+     * Grava um snapshot a cada intervalo numa thread de fundo.
+     */
+    public synchronized void iniciarPeriodico(String caminho, long intervaloMs) {
+        if (periodico != null)
+            return;
+        periodico = new Thread(() -> {
+            while (!Thread.currentThread().isInterrupted()) {
+                try {
+                    TimeUnit.MILLISECONDS.sleep(intervaloMs);
+                    gravar(caminho);
+                } catch (InterruptedException e) {
+                    break;
+                } catch (IOException e) {
+                    System.err.println("Erro Snapshot: " + e.getMessage());
+                }
+            }
+        }, "Snapshot-Periodico");
+        periodico.setDaemon(true);
+        periodico.start();
+    }
+
+    // --- Restauro ---
+
+    /**
+     * Restaura o último snapshot válido (ou o anterior, se o último estiver corrompido) nos
+     * stocks e secções registados. Devolve o snapshot restaurado ou null se não houver nenhum.
+     */
+    public Snapshot restaurar(String caminho) {
+        for (String candidato : new String[] { caminho, caminho + EXT_ANTERIOR }) {
+            Path p = Paths.get(candidato);
+            if (!Files.exists(p))
+                continue;
+            try {
+                Snapshot s = descodificar(Files.readAllBytes(p));
+                aplicar(s);
+                return s;
+            } catch (IOException | IllegalArgumentException e) {
+                System.err.println("[SNAPSHOT] " + p.getFileName() + " inválido: " + e.getMessage());
+            }
+        }
+        return null;
+    }
+
+    private void aplicar(Snapshot s) {
+        // Épocas seguintes às do snapshot (as escritas restauradas ficam depois do corte gravado)
+        epoca.accumulateAndGet(s.epoca + 1, Math::max);
+        s.secoes.forEach((nome, valores) -> {
+            if (nome.equals(SECAO_STOCK)) {
+                valores.forEach((stock, unidades) -> {
+                    CelulaVersionada c = stocks.get(stock);
+                    if (c == null)
+                        return;
+                    c.set(unidades.intValue());
+                    IntConsumer ouvinte = aoRestaurar.get(stock);
+                    if (ouvinte != null)
+                        ouvinte.accept(unidades.intValue());
+                });
+            } else {
+                Secao secao = secoes.get(nome);
+                if (secao != null)
+                    secao.restaurar(valores);
+            }
+        });
+    }
+
+    // --- Formato binário ---
+
+    static byte[] codificar(Snapshot s) throws IOException {
+        ByteArrayOutputStream buffer = new ByteArrayOutputStream();
+        DataOutputStream out = new DataOutputStream(buffer);
+        out.writeInt(MAGIA);
+        out.writeByte(VERSAO);
+        escreverVarLong(out, s.epoca);
+        out.writeLong(s.instante);
+        escreverVarLong(out, s.secoes.size());
+        for (Map.Entry<String, Map<String, Long>> secao : s.secoes.entrySet()) {
+            out.writeUTF(secao.getKey());
+            escreverVarLong(out, secao.getValue().size());
+            for (Map.Entry<String, Long> e : secao.getValue().entrySet()) {
+                out.writeUTF(e.getKey());
+                // ZigZag: valores negativos pequenos (stock corrompido) continuam curtos
+                escreverVarLong(out, (e.getValue() << 1) ^ (e.getValue() >> 63));
+            }
+        }
+        CRC32 crc = new CRC32();
+        crc.update(buffer.toByteArray());
+        out.writeInt((int) crc.getValue());
+        out.flush();
+        return buffer.toByteArray();
+    }
+
+    static Snapshot descodificar(byte[] bytes) throws IOException {
+        if (bytes.length < 4)
+            throw new IllegalArgumentException("ficheiro truncado");
+        CRC32 crc = new CRC32();
+        crc.update(bytes, 0, bytes.length - 4);
+        DataInputStream in = new DataInputStream(new java.io.ByteArrayInputStream(bytes));
+        if (in.readInt() != MAGIA)
+            throw new IllegalArgumentException("não é um snapshot do simulador");
+        int versao = in.readUnsignedByte();
+        if (versao != VERSAO)
+            throw new IllegalArgumentException("versão " + versao + " não suportada");
+        int esperado = (int) crc.getValue();
+        long epocaSnapshot = lerVarLong(in);
+        long instante = in.readLong();
+        Map<String, Map<String, Long>> secoesLidas = new LinkedHashMap<>();
+        long n = lerVarLong(in);
+        for (long i = 0; i < n; i++) {
+            String nome = in.readUTF();
+            long m = lerVarLong(in);
+            Map<String, Long> valores = new TreeMap<>();
+            for (long k = 0; k < m; k++) {
+                String chave = in.readUTF();
+                long z = lerVarLong(in);
+                valores.put(chave, (z >>> 1) ^ -(z & 1));
+            }
+            secoesLidas.put(nome, valores);
+        }
+        if (in.readInt() != esperado)
+            throw new IllegalArgumentException("CRC inválido");
+        return new Snapshot(epocaSnapshot, instante, secoesLidas, 0);
+    }
+
+    private static void escreverVarLong(DataOutputStream out, long v) throws IOException {
+        while ((v & ~0x7FL) != 0) {
+            out.writeByte((int) ((v & 0x7F) | 0x80));
+            v >>>= 7;
+        }
+        out.writeByte((int) v);
+    }
+
+    private static long lerVarLong(DataInputStream in) throws IOException {
+        long v = 0;
+        for (int deslocamento = 0; deslocamento < 64; deslocamento += 7) {
+            int b = in.readUnsignedByte();
+            v |= (long) (b & 0x7F) << deslocamento;
+            if ((b & 0x80) == 0)
+                return v;
+        }
+        throw new IllegalArgumentException("varint inválido");
+    }
+}
@@ -0,0 +1,301 @@
+package org.monitor;
+
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.text.ParseException;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.TreeMap;
+import jdk.jfr.Configuration;
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordedThread;
+import jdk.jfr.consumer.RecordingFile;
+
+/**
+ * Gravação JFR do simulador e análise offline do ficheiro .jfr.
+ * A gravação usa as definições por evento de Config.JFR_DEFINICOES (monitor.jfc): limiar e
+ * stack trace das probes e alertas (EventosJFR) e dos eventos da JVM usados na correlação.
+ *
+ * A análise cruza cada espera da aplicação (org.monitor.EsperaRecurso) com os eventos de
+ * bloqueio da JVM na mesma thread e no mesmo intervalo (jdk.JavaMonitorEnter, jdk.JavaMonitorWait,
+ * jdk.ThreadPark) e com as pausas do GC, e resume os alertas (contagem por tipo e os primeiros
+ * TOP_ALERTAS por ordem cronológica).
+ *
+ * O ficheiro é lido evento a evento (RecordingFile.readEvent): da gravação só ficam em memória
+ * os intervalos necessários à correlação, as esperas em forma compacta e os alertas listados.
+ *
+ * CLI: java org.monitor.GravacaoJFR gravacao.jfr
+ * (a gravação também pode ser feita sem o menu:
+ *  java -XX:StartFlightRecording:settings=monitor.jfc,filename=sessao.jfr -cp bin org.app.Main)
+ */
+public final class GravacaoJFR {
+    // Eventos da JVM com que as esperas da aplicação são correlacionadas
+    static final String[] EVENTOS_BLOQUEIO_JVM = { "jdk.JavaMonitorEnter", "jdk.JavaMonitorWait", "jdk.ThreadPark" };
+    static final String EVENTO_PAUSA_GC = "jdk.GCPhasePause";
+    private static final int TOP_RECURSOS = 10;
+    private static final int TOP_ALERTAS = 20;
+    private static final DateTimeFormatter FORMATO_FICHEIRO = DateTimeFormatter.ofPattern("yyyyMMdd-HHmmss");
+
+    private static Recording gravacao; // protegido por GravacaoJFR.class
+
+    private GravacaoJFR() {
+    }
+
+    /**
+     * Inicia uma gravação com as definições do ficheiro .jfc (ou as "default" do JDK, se não existir).
+     * Devolve false se já houver uma gravação ativa.
+     */
+    public static synchronized boolean iniciar(String definicoes) throws IOException, ParseException {
+        if (gravacao != null)
+            return false;
+        Path ficheiro = Paths.get(definicoes);
+        Configuration cfg = Files.exists(ficheiro) ? Configuration.create(ficheiro)
+                : Configuration.getConfiguration("default");
+        Recording r = new Recording(cfg);
+        r.setName("Simulador");
+        r.setToDisk(true);
+        r.start();
+        gravacao = r;
+        return true;
+    }
+
+    public static synchronized boolean isAtiva() {
+        return gravacao != null;
+    }
+
+    /**
+     * Termina a gravação ativa e grava-a em diretorio/monitor_<instante>.jfr (null se não havia gravação).
+     */
+    public static synchronized Path parar(String diretorio) throws IOException {
+        if (gravacao == null)
+            return null;
+        Recording r = gravacao;
+        gravacao = null;
+        try {
+            r.stop();
+            Path destino = Paths.get(diretorio, "monitor_" + LocalDateTime.now().format(FORMATO_FICHEIRO) + ".jfr");
+            Files.createDirectories(destino.getParent());
+            r.dump(destino);
+            return destino;
+        } finally {
+            r.close();
+        }
+    }
+
+    // --- Análise offline ---
+
+    private static final class Intervalo {
+        final String tipo;
+        final Instant inicio;
+        final Instant fim;
+
+        Intervalo(String tipo, Instant inicio, Instant fim) {
+            this.tipo = tipo;
+            this.inicio = inicio;
+            this.fim = fim;
+        }
+
+        // Tempo em comum com [inicio, fim]
+        Duration sobreposicao(Instant de, Instant ate) {
+            Instant a = inicio.isAfter(de) ? inicio : de;
+            Instant b = fim.isBefore(ate) ? fim : ate;
+            return b.isAfter(a) ? Duration.between(a, b) : Duration.ZERO;
+        }
+    }
+
+    // Espera da aplicação, sem o RecordedEvent (que guarda todos os campos e o stack trace)
+    private static final class Espera {
+        final String recurso;
+        final long threadId; // -1 = participante que não é uma Thread (ex: transação distribuída)
+        final Instant inicio;
+        final Instant fim;
+        final Duration duracao;
+        final boolean concedida;
+
+        Espera(RecordedEvent e) {
+            RecordedThread t = e.getThread("thread");
+            this.recurso = e.getString("recurso");
+            this.threadId = t == null ? -1 : t.getJavaThreadId();
+            this.inicio = e.getStartTime();
+            this.fim = e.getEndTime();
+            this.duracao = e.getDuration();
+            this.concedida = e.getBoolean("concedida");
+        }
+    }
+
+    private static final class Alerta {
+        final Instant instante;
+        final String tipo;
+        final String thread;
+        final String detalhe;
+
+        Alerta(RecordedEvent e) {
+            RecordedThread t = e.getThread();
+            this.instante = e.getStartTime();
+            this.tipo = e.getEventType().getLabel();
+            this.thread = t == null ? "?" : t.getJavaName();
+            this.detalhe = e.getString("detalhe");
+        }
+    }
+
+    private static final class EstatisticaRecurso {
+        long esperas;
+        long canceladas;
+        Duration total = Duration.ZERO;
+        Duration maxima = Duration.ZERO;
+    }
+
+    /**
+     * Lê um ficheiro .jfr e escreve o relatório (eventos por tipo, esperas por recurso,
+     * correlação com a JVM e alertas).
+     */
+    public static void analisar(Path ficheiro, PrintStream saida) throws IOException {
+        Map<String, Long> porTipo = new TreeMap<>();
+        Map<Long, List<Intervalo>> bloqueiosPorThread = new HashMap<>();
+        List<Intervalo> pausasGC = new ArrayList<>();
+        List<Espera> esperas = new ArrayList<>();
+        Map<String, Long> alertasPorTipo = new TreeMap<>();
+        // Os TOP_ALERTAS mais antigos (o topo do heap é o mais recente, o primeiro a sair)
+        PriorityQueue<Alerta> primeirosAlertas = new PriorityQueue<>(
+                (x, y) -> y.instante.compareTo(x.instante));
+        long totalEventos = 0;
+
+        try (RecordingFile gravacao = new RecordingFile(ficheiro)) {
+            while (gravacao.hasMoreEvents()) {
+                RecordedEvent e = gravacao.readEvent();
+                totalEventos++;
+                String tipo = e.getEventType().getName();
+                porTipo.merge(tipo, 1L, Long::sum);
+                if (tipo.equals(EventosJFR.PREFIXO + "EsperaRecurso")) {
+                    esperas.add(new Espera(e));
+                } else if (tipo.startsWith(EventosJFR.PREFIXO + "Alerta")) {
+                    alertasPorTipo.merge(e.getEventType().getLabel(), 1L, Long::sum);
+                    if (primeirosAlertas.size() < TOP_ALERTAS
+                            || e.getStartTime().isBefore(primeirosAlertas.peek().instante)) {
+                        primeirosAlertas.add(new Alerta(e));
+                        if (primeirosAlertas.size() > TOP_ALERTAS)
+                            primeirosAlertas.poll();
+                    }
+                } else if (tipo.equals(EVENTO_PAUSA_GC)) {
+                    pausasGC.add(new Intervalo(tipo, e.getStartTime(), e.getEndTime()));
+                } else if (eventoBloqueioJVM(tipo) && e.getThread() != null) {
+                    bloqueiosPorThread.computeIfAbsent(e.getThread().getJavaThreadId(), k -> new ArrayList<>())
+                            .add(new Intervalo(tipo, e.getStartTime(), e.getEndTime()));
+                }
+            }
+        }
+
+        saida.println("=== GRAVAÇÃO JFR: " + ficheiro.getFileName() + " (" + totalEventos + " eventos) ===");
+        saida.println("\n-- Eventos por tipo --");
+        porTipo.forEach((tipo, n) -> {
+            if (tipo.startsWith(EventosJFR.PREFIXO) || eventoBloqueioJVM(tipo) || tipo.equals(EVENTO_PAUSA_GC))
+                saida.println(String.format("%-32s %8d", tipo, n));
+        });
+
+        // Esperas da aplicação: por recurso e cruzadas com os bloqueios da JVM da mesma thread
+        Map<String, EstatisticaRecurso> porRecurso = new HashMap<>();
+        Map<String, Duration> tempoPorEventoJVM = new TreeMap<>();
+        long comThread = 0;
+        long correlacionadas = 0;
+        long comGC = 0;
+        Duration totalEspera = Duration.ZERO;
+        Duration totalBloqueioJVM = Duration.ZERO;
+        for (Espera e : esperas) {
+            EstatisticaRecurso r = porRecurso.computeIfAbsent(e.recurso, k -> new EstatisticaRecurso());
+            Duration d = e.duracao;
+            r.esperas++;
+            if (!e.concedida)
+                r.canceladas++;
+            r.total = r.total.plus(d);
+            if (d.compareTo(r.maxima) > 0)
+                r.maxima = d;
+
+            for (Intervalo gc : pausasGC) {
+                if (!gc.sobreposicao(e.inicio, e.fim).isZero()) {
+                    comGC++;
+                    break;
+                }
+            }
+            if (e.threadId < 0)
+                continue; // Participante que não é uma Thread (ex: transação distribuída)
+            comThread++;
+            totalEspera = totalEspera.plus(d);
+            boolean correlacionada = false;
+            for (Intervalo b : bloqueiosPorThread.getOrDefault(e.threadId, List.of())) {
+                Duration comum = b.sobreposicao(e.inicio, e.fim);
+                if (comum.isZero())
+                    continue;
+                correlacionada = true;
+                totalBloqueioJVM = totalBloqueioJVM.plus(comum);
+                tempoPorEventoJVM.merge(b.tipo, comum, Duration::plus);
+            }
+            if (correlacionada)
+                correlacionadas++;
+        }
+
+        saida.println("\n-- Esperas por recurso (org.monitor.EsperaRecurso, acima do limiar) --");
+        List<Map.Entry<String, EstatisticaRecurso>> top = new ArrayList<>(porRecurso.entrySet());
+        top.sort((a, b) -> b.getValue().total.compareTo(a.getValue().total));
+        saida.println(String.format("%-28s %8s %10s %12s %10s", "Recurso", "Esperas", "Canceladas", "Total", "Máx"));
+        for (Map.Entry<String, EstatisticaRecurso> entrada : top.subList(0, Math.min(TOP_RECURSOS, top.size()))) {
+            EstatisticaRecurso r = entrada.getValue();
+            saida.println(String.format("%-28s %8d %10d %12s %10s", entrada.getKey(), r.esperas, r.canceladas,
+                    ms(r.total), ms(r.maxima)));
+        }
+
+        saida.println("\n-- Correlação com a JVM --");
+        saida.println(String.format("Esperas de Threads com bloqueio da JVM sobreposto: %d de %d (%.0f%%)",
+                correlacionadas, comThread, comThread == 0 ? 0.0 : 100.0 * correlacionadas / comThread));
+        saida.println(String.format("Tempo de espera da aplicação: %s, dos quais bloqueado na JVM: %s",
+                ms(totalEspera), ms(totalBloqueioJVM)));
+        tempoPorEventoJVM.forEach((tipo, d) -> saida.println(String.format("  %-28s %12s", tipo, ms(d))));
+        saida.println("Esperas que coincidem com uma pausa do GC: " + comGC);
+
+        saida.println("\n-- Alertas --");
+        long totalAlertas = 0;
+        for (long n : alertasPorTipo.values())
+            totalAlertas += n;
+        if (totalAlertas == 0)
+            saida.println("(nenhum)");
+        alertasPorTipo.forEach((tipo, n) -> saida.println(String.format("%-32s %8d", tipo, n)));
+        List<Alerta> listados = new ArrayList<>(primeirosAlertas);
+        listados.sort((x, y) -> x.instante.compareTo(y.instante));
+        if (!listados.isEmpty())
+            saida.println();
+        for (Alerta a : listados)
+            saida.println(String.format("%s %-26s [%s] %s", a.instante, a.tipo, a.thread, a.detalhe));
+        if (totalAlertas > listados.size())
+            saida.println("... e mais " + (totalAlertas - listados.size()) + " alertas (listados os "
+                    + listados.size() + " primeiros)");
+    }
+
+    private static boolean eventoBloqueioJVM(String tipo) {
+        for (String jvm : EVENTOS_BLOQUEIO_JVM)
+            if (jvm.equals(tipo))
+                return true;
+        return false;
+    }
+
+    private static String ms(Duration d) {
+        return String.format("%.1fms", d.toNanos() / 1e6);
+    }
+
+    public static void main(String[] args) throws IOException {
+        if (args.length != 1) {
+            System.err.println("Uso: java org.monitor.GravacaoJFR gravacao.jfr");
+            System.exit(2);
+        }
+        analisar(Paths.get(args[0]), System.out);
+    }
+}
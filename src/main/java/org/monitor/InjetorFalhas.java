@@ -0,0 +1,137 @@
+package org.monitor;
+
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Modo caos: injeção de atrasos, yields e pontos de preempção nos pontos de probe
+ * (probeUnsafeEnter/Exit, registarInicioEspera, aquisição/libertação de locks).
+ * As decisões de cada thread vêm de um Random semeado com (semente da iteração, nome
+ * da thread): repetir a semente repete a sequência de perturbações de cada thread.
+ * Só são perturbadas as threads da iteração (as que têm a semente, definida ou herdada): as
+ * restantes threads da JVM que passam pelas mesmas probes seguem inalteradas.
+ * Desativado, cada ponto custa apenas a leitura de um volatile.
+ */
+public final class InjetorFalhas {
+    private static volatile boolean ativo = false;
+    private static volatile double probabilidade = 0.5;
+    private static volatile long atrasoMaxNanos = TimeUnit.MICROSECONDS.toNanos(200);
+
+    // Herdada pelas threads criadas pela iteração (as threads do cenário)
+    private static final InheritableThreadLocal<Long> SEMENTE = new InheritableThreadLocal<>();
+    private static final ThreadLocal<Random> DECISOES = new ThreadLocal<>();
+
+    private static final Map<String, LongAdder> injecoesPorPonto = new ConcurrentHashMap<>();
+
+    private InjetorFalhas() {
+    }
+
+    public static void ativar(double probabilidade, long atrasoMaxMicros) {
+        InjetorFalhas.probabilidade = probabilidade;
+        InjetorFalhas.atrasoMaxNanos = TimeUnit.MICROSECONDS.toNanos(atrasoMaxMicros);
+        ativo = true;
+    }
+
+    public static void desativar() {
+        ativo = false;
+    }
+
+    public static boolean isAtivo() {
+        return ativo;
+    }
+
+    /**
+     * Define a semente da iteração na thread atual; as threads que ela criar a seguir herdam-na.
+     */
+    public static void definirSemente(long semente) {
+        SEMENTE.set(semente);
+        DECISOES.remove();
+    }
+
+    /**
+     * Retira a semente da thread atual (ex: a thread do menu depois de um replay), para que ela
+     * e as threads que criar a seguir deixem de ser perturbadas.
+     */
+    public static void limparSemente() {
+        SEMENTE.remove();
+        DECISOES.remove();
+    }
+
+    // Ativo e a thread atual pertence a uma iteração
+    private static boolean injetar() {
+        return ativo && SEMENTE.get() != null;
+    }
+
+    /**
+     * Ponto de injeção: com a probabilidade configurada, cede o CPU, estaciona a thread
+     * por um atraso aleatório ou gira (janela de preempção).
+     */
+    public static void ponto(String nome) {
+        ponto(nome, null);
+    }
+
+    /**
+     * Ponto de injeção associado a um recurso (o objeto, ou um rótulo se o chamador não tiver
+     * o objeto). Numa execução controlada (EscalonadorControlado) é um ponto de escalonamento
+     * em vez de uma perturbação.
+     */
+    public static void ponto(String nome, Object recurso) {
+        if (EscalonadorControlado.isControlada()) {
+            EscalonadorControlado.ponto(nome, recurso);
+            return;
+        }
+        if (!injetar())
+            return;
+        Random r = decisoes();
+        if (r.nextDouble() >= probabilidade)
+            return;
+        injecoesPorPonto.computeIfAbsent(nome, k -> new LongAdder()).increment();
+        switch (r.nextInt(3)) {
+            case 0:
+                Thread.yield();
+                break;
+            case 1:
+                LockSupport.parkNanos((long) (r.nextDouble() * atrasoMaxNanos));
+                break;
+            default:
+                long fim = System.nanoTime() + (long) (r.nextDouble() * atrasoMaxNanos);
+                while (System.nanoTime() < fim)
+                    Thread.onSpinWait();
+        }
+    }
+
+    /**
+     * Latência fixa dos cenários (Thread.sleep): nas threads de uma iteração do modo caos é
+     * substituída por um ponto de injeção, para que o interleaving dependa da semente e não do tempo.
+     */
+    public static void latencia(String nome, long ms) throws InterruptedException {
+        if (injetar() || EscalonadorControlado.isControlada())
+            ponto(nome);
+        else
+            Thread.sleep(ms);
+    }
+
+    // Só chamado com semente (injetar())
+    private static Random decisoes() {
+        Random r = DECISOES.get();
+        if (r == null) {
+            r = new Random(SEMENTE.get() * 31 + Thread.currentThread().getName().hashCode());
+            DECISOES.set(r);
+        }
+        return r;
+    }
+
+    public static String obterRelatorio() {
+        StringBuilder sb = new StringBuilder("Injeções por ponto: ");
+        injecoesPorPonto.forEach((ponto, n) -> sb.append(ponto).append("=").append(n.sum()).append(" "));
+        return sb.toString();
+    }
+
+    public static void reiniciarEstatisticas() {
+        injecoesPorPonto.clear();
+    }
+}
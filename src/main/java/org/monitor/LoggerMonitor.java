@@ -1,33 +1,58 @@
 package org.monitor;
 
-import java.io.BufferedWriter;
-import java.io.File;
-import java.io.FileWriter;
 import java.io.IOException;
-import java.time.LocalDateTime;
-import java.time.format.DateTimeFormatter;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.util.Collections;
+import java.util.List;
+import org.app.Configuracao;
+import org.app.GestorConfiguracao;
 
 public class LoggerMonitor {
-    private final String filepath;
-    private final DateTimeFormatter dtf = DateTimeFormatter.ofPattern("yyyy/MM/dd HH:mm:ss");
+    // Segmentos, rotação e índice do ficheiro (partilhados por todos os loggers do mesmo caminho)
+    private final SegmentosLog segmentos;
+    // Mede quanto tempo cada chamador fica bloqueado em log() (inclui a espera pelo lock)
+    private final TelemetriaMonitor telemetria;
 
     public LoggerMonitor(String filepath) {
-        this.filepath = filepath;
-        File f = new File(filepath);
-        if (f.getParentFile() != null)
-            f.getParentFile().mkdirs();
+        this(filepath, null);
     }
 
-    public synchronized void log(String message) {
-        String entry = String.format("[%s] %s", dtf.format(LocalDateTime.now()), message);
+    public LoggerMonitor(String filepath, TelemetriaMonitor telemetria) {
+        this.segmentos = SegmentosLog.para(filepath);
+        this.telemetria = telemetria;
+    }
+
+    public void log(String message) {
+        log(message, Collections.emptyList());
+    }
+
+    /**
+     * Regista uma mensagem associada a threads (indexadas para pesquisa no log, ex: alertas).
+     */
+    public void log(String message, List<String> threads) {
+        long inicio = System.nanoTime();
+        escrever(message, threads);
+        if (telemetria != null)
+            telemetria.registarEtapa(TelemetriaMonitor.ETAPA_LOG, inicio);
+    }
+
+    private synchronized void escrever(String message, List<String> threads) {
+        long agora = System.currentTimeMillis();
+        String entry = String.format("[%s] %s",
+                SegmentosLog.FORMATO_ENTRADA.format(Instant.ofEpochMilli(agora).atZone(ZoneId.systemDefault())), message);
         
-        // Gerar alerta no terminal para o utilizador
-        System.out.println(entry);
+        // Sinks ativos na configuração atual (hot reload)
+        Configuracao cfg = GestorConfiguracao.atual();
+
+        // Gerar alerta no terminal para o utilizador (não numa thread silenciada, ex: modo caos)
+        if (cfg.isSinkConsola() && !PipelineEventos.isSilenciada())
+            System.out.println(entry);
+        if (!cfg.isSinkFicheiro())
+            return;
         
-        try (BufferedWriter writer = new BufferedWriter(new FileWriter(filepath, true))) {
-            writer.write(entry);
-            writer.newLine();
-            writer.flush(); // Garante escrita imediata no disco
+        try {
+            segmentos.escrever(entry, agora, SegmentosLog.tipoDe(message), threads);
         } catch (IOException e) {
             System.err.println("Erro Log: " + e.getMessage());
         }
@@ -1,34 +1,177 @@
 package org.monitor;
 
+import java.lang.management.ManagementFactory;
 import java.util.ArrayList;
 import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
+import java.util.WeakHashMap;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.BiConsumer;
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
 import org.app.Config;
+import org.app.Configuracao;
+import org.app.GestorConfiguracao;
 
 public class MonitorEBPF extends Thread {
+    // Tipos de alerta entregues aos ouvintes (modo caos, ferramentas de análise)
+    public static final String ALERTA_RACE = "RACE CONDITION";
+    public static final String ALERTA_DEADLOCK = "DEADLOCK";
+    public static final String ALERTA_STARVATION = "STARVATION";
+    public static final String ALERTA_FLOOD = "FLOOD";
+    public static final String ALERTA_INVERSAO = "INVERSÃO DE PRIORIDADE";
+
     private static MonitorEBPF instance;
-    private final List<Thread> threadsVigiadas = new ArrayList<>();
+    // Referências fracas: uma thread que termina sem untrack não fica retida
+    private final Set<Thread> threadsVigiadas = Collections.newSetFromMap(new WeakHashMap<>());
     private final LoggerMonitor logger;
     private final DetectorDeadlock detector;
     private volatile boolean running = true;
     private volatile boolean inicializado = false;
 
     // Estatísticas
-    private final Map<Thread, Long> tempoInicioEspera = new ConcurrentHashMap<>();
-    private final Map<String, Integer> contagemAcessos = new ConcurrentHashMap<>();
-    private final List<String> ordemEventos = Collections.synchronizedList(new ArrayList<>());
+    // Memória limitada pelo orçamento (monitor.memoria.kb, lido no arranque)
+    private static final int BYTES_POR_EVENTO = 160;
+    private static final int BYTES_POR_CONTADOR = 150;
+    private final Map<Thread, Long> tempoInicioEspera = Collections.synchronizedMap(new WeakHashMap<>());
+    private final ContadoresLRU contagemAcessos;
+    private final BufferCircular<String> ordemEventos;
+
+    // Aquisições múltiplas (tryLock + backoff): tentativas repetidas e abortos
+    private final AtomicLong aquisicoesMultiplas = new AtomicLong();
+    private final AtomicLong retriesAquisicao = new AtomicLong();
+    private final AtomicLong abortsAquisicao = new AtomicLong();
+
+    // Inversões de prioridade vistas no tick anterior e já alertadas (só a thread do monitor acede)
+    private Set<String> inversoesAnteriores = new HashSet<>();
+    private final Set<String> inversoesAlertadas = new HashSet<>();
+
+    // Quotas por thread alimentadas pelo registarAcesso (mitigação de flood/DoS)
+    private final ControloAdmissao admissao;
 
     // Deteção de Race Condition (Contador de threads em zona crítica insegura)
     private final Map<String, Integer> threadsEmZonaInsegura = new ConcurrentHashMap<>();
 
+    // Auto-telemetria (JMX + snapshots periódicos no log)
+    private final TelemetriaMonitor telemetria = new TelemetriaMonitor();
+    private long ultimoSnapshotTelemetria = System.currentTimeMillis();
+
+    // Permite acordar o ciclo antes do fim do intervalo (ex: mudança de configuração)
+    private final Object sinalTick = new Object();
+
+    // Publicação do grafo local para o coordenador distribuído (opcional)
+    private PublicadorGrafo publicador;
+
+    // Candidatos a starvation do último tick (snapshot imutável lido pelo PainelMonitor sem locks)
+    private volatile List<CandidatoStarvation> candidatosStarvation = Collections.emptyList();
+
+    // Ouvintes chamados com (tipo, detalhe) em cada alerta
+    private final List<BiConsumer<String, String>> ouvintesAlertas = new CopyOnWriteArrayList<>();
+
     private MonitorEBPF() {
-        this.logger = new LoggerMonitor(Config.LOG_FILE);
-        this.detector = new DetectorDeadlock();
+        // 3/4 do orçamento para a ordem de eventos, 1/4 para os contadores por thread
+        Configuracao cfg = GestorConfiguracao.atual();
+        long orcamentoBytes = cfg.getMemoriaKb() * 1024L;
+        this.ordemEventos = new BufferCircular<>((int) Math.max(16, orcamentoBytes * 3 / 4 / BYTES_POR_EVENTO));
+        this.contagemAcessos = new ContadoresLRU((int) Math.max(16, orcamentoBytes / 4 / BYTES_POR_CONTADOR),
+                Config.CONTADORES_TTL_MS);
+        this.logger = new LoggerMonitor(Config.LOG_FILE, telemetria);
+        this.detector = new DetectorDeadlock(telemetria);
+        this.admissao = new ControloAdmissao(cfg.getAdmissaoTaxa(), (int) cfg.getAdmissaoRajada(), modoAdmissao(cfg));
         this.setName("Monitor-Security-Kernel");
+        registarTelemetria();
+        registarSnapshots();
+
+        // Hot reload: regista as alterações e acorda o ciclo para aplicar o novo intervalo
+        GestorConfiguracao.adicionarOuvinte((anterior, nova) -> {
+            logger.log("[CONFIG] Configuração recarregada: " + nova.diferencas(anterior));
+            if (nova.getMemoriaKb() != anterior.getMemoriaKb())
+                logger.log("[CONFIG] " + Configuracao.MEMORIA_KB + " só tem efeito no próximo arranque do monitor");
+            admissao.configurar(nova.getAdmissaoTaxa(), (int) nova.getAdmissaoRajada(), modoAdmissao(nova));
+            synchronized (sinalTick) {
+                sinalTick.notifyAll();
+            }
+        });
     } 
 
+    private static ControloAdmissao.Modo modoAdmissao(Configuracao cfg) {
+        return ControloAdmissao.Modo.valueOf(cfg.getAdmissaoModo().toUpperCase());
+    }
+
+    // Contadores incluídos nos snapshots periódicos (o grafo e as threads vigiadas não são
+    // restauráveis: referenciam threads vivas do processo anterior)
+    private void registarSnapshots() {
+        GestorSnapshots.global().registarSecao("monitor", new GestorSnapshots.Secao() {
+            @Override
+            public Map<String, Long> capturar() {
+                Map<String, Long> valores = new HashMap<>();
+                valores.put("aquisicoesMultiplas", aquisicoesMultiplas.get());
+                valores.put("retriesAquisicao", retriesAquisicao.get());
+                valores.put("abortsAquisicao", abortsAquisicao.get());
+                return valores;
+            }
+
+            @Override
+            public void restaurar(Map<String, Long> valores) {
+                aquisicoesMultiplas.set(valores.getOrDefault("aquisicoesMultiplas", 0L));
+                retriesAquisicao.set(valores.getOrDefault("retriesAquisicao", 0L));
+                abortsAquisicao.set(valores.getOrDefault("abortsAquisicao", 0L));
+            }
+        });
+        GestorSnapshots.global().registarSecao("acessos", new GestorSnapshots.Secao() {
+            @Override
+            public Map<String, Long> capturar() {
+                Map<String, Long> valores = new HashMap<>();
+                contagemAcessos.forEach(valores::put);
+                return valores;
+            }
+
+            @Override
+            public void restaurar(Map<String, Long> valores) {
+                valores.forEach(contagemAcessos::definir);
+            }
+        });
+        GestorSnapshots.global().registarSecao("contencao", new GestorSnapshots.Secao() {
+            @Override
+            public Map<String, Long> capturar() {
+                return detector.obterContencao();
+            }
+
+            @Override
+            public void restaurar(Map<String, Long> valores) {
+                detector.restaurarContencao(valores);
+            }
+        });
+    }
+
+    private void registarTelemetria() {
+        telemetria.registarGauge(TelemetriaMonitor.GAUGE_ORDEM_EVENTOS, ordemEventos::size);
+        telemetria.registarGauge(TelemetriaMonitor.GAUGE_CONTAGEM_ACESSOS, contagemAcessos::size);
+        telemetria.registarGauge(TelemetriaMonitor.GAUGE_THREADS_VIGIADAS, () -> {
+            synchronized (this) {
+                return threadsVigiadas.size();
+            }
+        });
+        telemetria.registarGauge(TelemetriaMonitor.GAUGE_GRAFO, detector::tamanhoGrafo);
+        try {
+            MBeanServer servidor = ManagementFactory.getPlatformMBeanServer();
+            ObjectName nome = new ObjectName("org.monitor:type=TelemetriaMonitor");
+            if (!servidor.isRegistered(nome))
+                servidor.registerMBean(telemetria, nome);
+        } catch (JMException e) {
+            System.err.println("Erro JMX: " + e.getMessage());
+        }
+    }
+
 
 
     public static synchronized MonitorEBPF getInstance() {
@@ -38,8 +181,7 @@ public class MonitorEBPF extends Thread {
     }
 
     public synchronized void track(Thread t) {
-        if (!threadsVigiadas.contains(t))
-            threadsVigiadas.add(t);
+        threadsVigiadas.add(t);
     }
 
     public synchronized void untrack(Thread t) {
@@ -48,16 +190,68 @@ public class MonitorEBPF extends Thread {
         detector.limparThread(t);
     }
 
+    /**
+     * Liga este nó a um CoordenadorDeadlock para deteção de deadlocks entre JVMs.
+     */
+    public synchronized void ligarCoordenador(String noId, String host, int porta) {
+        if (publicador != null)
+            publicador.terminar();
+        publicador = new PublicadorGrafo(noId, detector, host, porta, Config.PUBLICACAO_GRAFO_INTERVAL_MS);
+        publicador.iniciar();
+        logger.log("[INFO] Nó '" + noId + "' ligado ao coordenador " + host + ":" + porta);
+    }
+
+    public void adicionarOuvinteAlertas(BiConsumer<String, String> ouvinte) {
+        ouvintesAlertas.add(ouvinte);
+    }
+
+    public void removerOuvinteAlertas(BiConsumer<String, String> ouvinte) {
+        ouvintesAlertas.remove(ouvinte);
+    }
+
+    /**
+     * Thread vigiada em espera (BLOCKED/WAITING) no último tick do monitor.
+     */
+    public static final class CandidatoStarvation {
+        public final String nome;
+        public final long inicioEsperaMs;
+        public final Thread.State estado;
+
+        CandidatoStarvation(String nome, long inicioEsperaMs, Thread.State estado) {
+            this.nome = nome;
+            this.inicioEsperaMs = inicioEsperaMs;
+            this.estado = estado;
+        }
+    }
+
+    public List<CandidatoStarvation> getCandidatosStarvation() {
+        return candidatosStarvation;
+    }
+
+    private void notificarAlerta(String tipo, String detalhe) {
+        EventosJFR.alerta(tipo, detalhe);
+        for (BiConsumer<String, String> ouvinte : ouvintesAlertas)
+            ouvinte.accept(tipo, detalhe);
+    }
+
     public DetectorDeadlock getDetector() {
         return detector;
     }
 
+    public TelemetriaMonitor getTelemetria() {
+        return telemetria;
+    }
+
     public boolean isInicializado() {
         return inicializado;
     }
 
     public void shutdown() {
         running = false;
+        synchronized (this) {
+            if (publicador != null)
+                publicador.terminar();
+        }
         logEstatisticasFinais();
         this.interrupt();
     }
@@ -66,38 +260,135 @@ public class MonitorEBPF extends Thread {
 
     // Chamado para registar sucesso na obtenção de recurso e manter estatísticas
     public void registarAcesso(Thread t, String recurso) {
-        contagemAcessos.merge(t.getName(), 1, Integer::sum);
+        registarAcesso(t, recurso, recurso);
+    }
+
+    /**
+     * Acesso com o objeto do recurso: o rótulo vai para o log e as estatísticas, o objeto identifica
+     * o recurso no ponto de escalonamento (rótulos diferentes do mesmo objeto não comutam).
+     */
+    public void registarAcesso(Thread t, String recurso, Object objeto) {
+        long inicio = System.nanoTime();
+        contagemAcessos.incrementar(t.getName());
+        if (admissao.registar(t, inicio)) {
+            logger.log("[ALERTA CIBERSEGURANÇA] FLOOD: " + t.getName() + " excedeu a quota de "
+                    + String.format("%.1f", admissao.getTaxaPorSegundo()) + " acessos/s (rajada " + admissao.getRajada() + ") em '" + recurso
+                    + "'. Modo: " + admissao.getModo(), List.of(t.getName()));
+            notificarAlerta(ALERTA_FLOOD, t.getName());
+        }
         String evento = String.format("[%d] %s obteve %s", System.currentTimeMillis(), t.getName(), recurso);
         ordemEventos.add(evento);
-        logger.log("[ACESSO] " + t.getName() + " -> " + recurso);
+        // Amostragem: as estatísticas contam tudo, mas só uma fração dos acessos vai para o log
+        double amostragem = GestorConfiguracao.atual().getAmostragemAcessos();
+        if (amostragem >= 1.0 || ThreadLocalRandom.current().nextDouble() < amostragem)
+            logger.log("[ACESSO] " + t.getName() + " -> " + recurso, List.of(t.getName()));
+        EventosJFR.acesso(t, recurso);
+        telemetria.registarProbe(TelemetriaMonitor.PROBE_REGISTAR_ACESSO, inicio);
+        InjetorFalhas.ponto("registarAcesso", objeto);
+    }
+
+    // Prioridade usada na deteção de inversões (ex: Paciente urgente numa transação)
+    public void definirPrioridade(Object participante, int prioridade) {
+        detector.definirPrioridade(participante, prioridade);
+    }
+
+    private void verificarInversoes() {
+        Set<String> atuais = new HashSet<>();
+        for (DetectorDeadlock.InversaoPrioridade inv : detector.detectarInversoes()) {
+            String chave = inv.chave();
+            atuais.add(chave);
+            if (inversoesAnteriores.contains(chave) && inversoesAlertadas.add(chave)) {
+                logger.log("[ALERTA CIBERSEGURANÇA] INVERSÃO DE PRIORIDADE: " + inv,
+                        List.of(DetectorDeadlock.nomeParticipante(inv.espera),
+                                DetectorDeadlock.nomeParticipante(inv.detentor)));
+                notificarAlerta(ALERTA_INVERSAO, inv.toString());
+            }
+        }
+        inversoesAlertadas.retainAll(atuais);
+        inversoesAnteriores = atuais;
+    }
+
+    // Chamado ANTES de adquirir um recurso com controlo de admissão (LockComAdmissao):
+    // ADMITIDA, REJEITADA ou nanos a esperar se a thread estiver acima da quota
+    public long avaliarAdmissao(Thread t, boolean podeEsperar) {
+        return admissao.avaliar(t, podeEsperar);
+    }
+
+    public ControloAdmissao getAdmissao() {
+        return admissao;
     }
 
     // Chamado ANTES de entrar numa zona NÃO sincronizada (Deteção Race Condition)
-    public synchronized void probeUnsafeEnter(String recursoID) {
-        threadsEmZonaInsegura.merge(recursoID, 1, Integer::sum);
+    public void probeUnsafeEnter(String recursoID) {
+        long inicio = System.nanoTime();
+        int concorrentes;
+        synchronized (this) {
+            concorrentes = threadsEmZonaInsegura.merge(recursoID, 1, Integer::sum);
+        }
 
         // Se mais de 1 thread estiver na zona insegura ao mesmo tempo, é Race Condition
-        if (threadsEmZonaInsegura.get(recursoID) > 1) {
+        if (concorrentes > 1) {
             String msg = "[ALERTA CIBERSEGURANÇA] RACE CONDITION detetada em '" + recursoID +
-                    "'. Threads concorrentes: " + threadsEmZonaInsegura.get(recursoID);
-            logger.log(msg);
+                    "'. Threads concorrentes: " + concorrentes;
+            logger.log(msg, List.of(Thread.currentThread().getName()));
+            notificarAlerta(ALERTA_RACE, recursoID);
         }
+        EventosJFR.entrarZonaInsegura(recursoID, concorrentes);
+        telemetria.registarProbe(TelemetriaMonitor.PROBE_UNSAFE_ENTER, inicio);
+        InjetorFalhas.ponto("probeUnsafeEnter");
     }
 
     // Chamado DEPOIS de sair da zona NÃO sincronizada
-    public synchronized void probeUnsafeExit(String recursoID) {
-        if (threadsEmZonaInsegura.containsKey(recursoID)) {
-            int val = threadsEmZonaInsegura.get(recursoID) - 1;
-            if (val <= 0)
-                threadsEmZonaInsegura.remove(recursoID);
-            else
-                threadsEmZonaInsegura.put(recursoID, val);
+    public void probeUnsafeExit(String recursoID) {
+        InjetorFalhas.ponto("probeUnsafeExit");
+        long inicio = System.nanoTime();
+        synchronized (this) {
+            if (threadsEmZonaInsegura.containsKey(recursoID)) {
+                int val = threadsEmZonaInsegura.get(recursoID) - 1;
+                if (val <= 0)
+                    threadsEmZonaInsegura.remove(recursoID);
+                else
+                    threadsEmZonaInsegura.put(recursoID, val);
+            }
         }
+        EventosJFR.sairZonaInsegura(recursoID);
+        telemetria.registarProbe(TelemetriaMonitor.PROBE_UNSAFE_EXIT, inicio);
     }
 
     // Auxiliar para registar início de espera (para Starvation)
     public void registarInicioEspera(Thread t, String recurso) {
+        registarInicioEspera(t, recurso, recurso);
+    }
+
+    public void registarInicioEspera(Thread t, String recurso, Object objeto) {
+        long inicio = System.nanoTime();
         tempoInicioEspera.putIfAbsent(t, System.currentTimeMillis());
+        telemetria.registarProbe(TelemetriaMonitor.PROBE_INICIO_ESPERA, inicio);
+        InjetorFalhas.ponto("registarInicioEspera", objeto);
+    }
+
+    // Chamado pelo LockAdaptativo quando alterna entre barging e handoff FIFO
+    public void registarMudancaModoLock(String recurso, boolean fifo, long esperaMs) {
+        long inicio = System.nanoTime();
+        if (fifo) {
+            logger.log("[ANTI-STARVATION] Lock '" + recurso + "' -> modo FIFO (espera de " + esperaMs + "ms excedeu o limite)");
+        } else {
+            logger.log("[ANTI-STARVATION] Lock '" + recurso + "' -> modo Barging (fila normalizada)");
+        }
+        telemetria.registarProbe(TelemetriaMonitor.PROBE_MUDANCA_MODO_LOCK, inicio);
+    }
+
+    // Chamado no fim de cada aquisição múltipla (sucesso ou abort por timeout)
+    public void registarAquisicaoMultipla(Object participante, int tentativas, boolean sucesso) {
+        long inicio = System.nanoTime();
+        aquisicoesMultiplas.incrementAndGet();
+        retriesAquisicao.addAndGet(tentativas - 1);
+        if (!sucesso) {
+            abortsAquisicao.incrementAndGet();
+            logger.log("[AVISO] Aquisição múltipla abortada por timeout: " + DetectorDeadlock.nomeParticipante(participante) +
+                    " apos " + tentativas + " tentativas", List.of(DetectorDeadlock.nomeParticipante(participante)));
+        }
+        telemetria.registarProbe(TelemetriaMonitor.PROBE_AQUISICAO_MULTIPLA, inicio);
     }
 
     // --- CICLO DE MONITORIZAÇÃO ---
@@ -107,36 +398,83 @@ public class MonitorEBPF extends Thread {
         inicializado = true; // Marca como inicializado
         while (running) {
             try {
+                // Snapshot da configuração para este tick (pode mudar por hot reload)
+                Configuracao cfg = GestorConfiguracao.atual();
+
                 // 1. Deteção de Deadlock (Wait-for Graph - SO-T-05)
-                long[] deadlockedIds = detector.detectar();
-                if (deadlockedIds != null && deadlockedIds.length > 0) {
+                long inicioEtapa = System.nanoTime();
+                List<List<Object>> deadlocks = detector.detectarComponentes();
+                telemetria.registarEtapa(TelemetriaMonitor.ETAPA_DETECAO, inicioEtapa);
+                // Um alerta por ciclo independente (SCC)
+                for (List<Object> ciclo : deadlocks) {
                     StringBuilder sb = new StringBuilder();
-                    for (long id : deadlockedIds)
-                        sb.append(id).append(" ");
-                    logger.log("[ALERTA CIBERSEGURANÇA] DEADLOCK (DoS) Confirmado! Threads IDs: " + sb.toString());
-                    logger.log(detector.obterEstadoGrafo());
+                    List<String> nomes = new ArrayList<>();
+                    for (Object participante : ciclo) {
+                        sb.append(DetectorDeadlock.descrever(participante)).append(" ");
+                        nomes.add(DetectorDeadlock.nomeParticipante(participante));
+                    }
+                    logger.log("[ALERTA CIBERSEGURANÇA] DEADLOCK (DoS) Confirmado! Threads IDs: " + sb.toString(), nomes);
+                    notificarAlerta(ALERTA_DEADLOCK, sb.toString().trim());
                 }
+                if (!deadlocks.isEmpty())
+                    logger.log(detector.obterEstadoGrafo());
+
+                // 1b. Inversão de prioridade: só alerta se persistir desde o tick anterior
+                // (o detentor de menor prioridade está ele próprio atrasado)
+                verificarInversoes();
 
                 // 2. Deteção de Starvation
+                inicioEtapa = System.nanoTime();
+                List<CandidatoStarvation> candidatos = new ArrayList<>();
                 synchronized (this) {
                     long agora = System.currentTimeMillis();
-                    for (Thread t : threadsVigiadas) {
+                    Iterator<Thread> it = threadsVigiadas.iterator();
+                    while (it.hasNext()) {
+                        Thread t = it.next();
                         Thread.State estado = t.getState();
+                        // Thread terminou sem untrack: deixa de ser vigiada
+                        if (estado == State.TERMINATED) {
+                            it.remove();
+                            tempoInicioEspera.remove(t);
+                            continue;
+                        }
                         // Se thread está parada à espera de recurso (BLOCKED) ou notificação (WAITING)
                         if (estado == State.BLOCKED || estado == State.WAITING) {
                             tempoInicioEspera.putIfAbsent(t, agora);
-                            long delta = agora - tempoInicioEspera.get(t);
+                            long inicioEspera = tempoInicioEspera.get(t);
+                            long delta = agora - inicioEspera;
+                            candidatos.add(new CandidatoStarvation(t.getName(), inicioEspera, estado));
 
-                            if (delta > Config.STARVATION_THRESHOLD_MS) {
+                            if (delta > cfg.getStarvationLimiteMs()) {
                                 logger.log("[ALERTA CIBERSEGURANÇA] STARVATION (Service Delay): " + t.getName() +
-                                        " em espera ha " + delta + "ms (Estado: " + estado + ")");
+                                        " em espera ha " + delta + "ms (Estado: " + estado + ")", List.of(t.getName()));
+                                notificarAlerta(ALERTA_STARVATION, t.getName());
                             }
                         } else {
                             tempoInicioEspera.remove(t);
                         }
                     }
                 }
-                Thread.sleep(Config.MONITOR_INTERVAL_MS);
+                candidatos.sort((a, b) -> Long.compare(a.inicioEsperaMs, b.inicioEsperaMs));
+                candidatosStarvation = Collections.unmodifiableList(candidatos);
+                telemetria.registarEtapa(TelemetriaMonitor.ETAPA_STARVATION, inicioEtapa);
+
+                // 3. Limpeza do estado (threads mortas sem untrack e contadores inativos)
+                for (String abandonado : detector.limparThreadsTerminadas())
+                    logger.log("[AVISO] Thread terminou a deter recursos (lock abandonado): " + abandonado);
+                contagemAcessos.expirar();
+                admissao.expirar(Config.CONTADORES_TTL_MS);
+
+                // 4. Auto-telemetria (taxa de eventos e snapshot periódico)
+                telemetria.registarTick();
+                long agoraMs = System.currentTimeMillis();
+                if (agoraMs - ultimoSnapshotTelemetria >= cfg.getTelemetriaIntervaloMs()) {
+                    ultimoSnapshotTelemetria = agoraMs;
+                    logger.log("[TELEMETRIA]\n" + telemetria.obterSnapshot());
+                }
+                synchronized (sinalTick) {
+                    sinalTick.wait(cfg.getMonitorIntervaloMs());
+                }
             } catch (InterruptedException e) {
                 if (!running)
                     break;
@@ -148,11 +486,18 @@ public class MonitorEBPF extends Thread {
     public void logEstatisticasFinais() {
         logger.log("\n=== ESTATÍSTICAS FINAIS ===");
         contagemAcessos.forEach((k, v) -> logger.log("Thread " + k + ": " + v + " acessos"));
+        logger.log("Aquisições múltiplas: " + aquisicoesMultiplas.get() + " (retries: " + retriesAquisicao.get() +
+                ", aborts: " + abortsAquisicao.get() + ")");
+        logger.log("Controlo de admissão (" + admissao.getModo() + "): " + admissao.getSinalizacoes()
+                + " threads sinalizadas, " + admissao.getAtrasos() + " atrasos ("
+                + String.format("%.0f", admissao.getAtrasoTotalMs()) + "ms), " + admissao.getRejeicoes() + " rejeições");
+        logger.log(telemetria.obterSnapshot());
+        logger.log("Contadores despejados: " + contagemAcessos.getDespejados() + " | Eventos descartados: " +
+                ordemEventos.getDescartados() + " (capacidade " + ordemEventos.capacidade() + ")");
         logger.log("--- Ordem de Eventos (Amostra) ---");
-        synchronized (ordemEventos) {
-            int max = Math.min(10, ordemEventos.size());
-            for (int i = 0; i < max; i++)
-                logger.log(ordemEventos.get(i));
-        }
+        List<String> eventos = ordemEventos.snapshot();
+        int max = Math.min(10, eventos.size());
+        for (int i = 0; i < max; i++)
+            logger.log(eventos.get(i));
     }
 }
\ No newline at end of file
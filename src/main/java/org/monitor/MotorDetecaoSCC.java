@@ -0,0 +1,295 @@
+package org.monitor;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * Motor de deteção de deadlocks para Wait-for Graphs muito grandes.
+ * Os participantes são mapeados para IDs inteiros densos e o grafo é guardado em
+ * CSR (arrays primitivos). Os deadlocks são as componentes fortemente ligadas
+ * (SCC) com mais de um nó, encontradas com Tarjan iterativo (sem recursão, logo
+ * sem StackOverflow). As componentes fracamente ligadas são independentes e
+ * processadas em paralelo com fork/join.
+ */
+public final class MotorDetecaoSCC {
+    // Abaixo deste nº de nós uma tarefa não se divide mais (evita overhead do fork/join)
+    private static final int LIMIAR_SEQUENCIAL = 8192;
+
+    private MotorDetecaoSCC() {
+    }
+
+    /**
+     * Grafo em formato CSR: os vizinhos do nó v estão em destinos[inicio[v] .. inicio[v+1]).
+     */
+    public static final class GrafoCSR {
+        final int n;
+        final int[] inicio;
+        final int[] destinos;
+
+        GrafoCSR(int n, int[] inicio, int[] destinos) {
+            this.n = n;
+            this.inicio = inicio;
+            this.destinos = destinos;
+        }
+
+        public int getNos() {
+            return n;
+        }
+
+        public int getArestas() {
+            return destinos.length;
+        }
+    }
+
+    /**
+     * Constrói o CSR a partir de uma lista de arestas (origens[i] -> destinos[i]) por counting sort.
+     */
+    public static GrafoCSR construir(int n, int[] origens, int[] destinos, int m) {
+        int[] inicio = new int[n + 1];
+        for (int i = 0; i < m; i++)
+            inicio[origens[i] + 1]++;
+        for (int v = 0; v < n; v++)
+            inicio[v + 1] += inicio[v];
+        int[] posicao = Arrays.copyOf(inicio, n);
+        int[] adj = new int[m];
+        for (int i = 0; i < m; i++)
+            adj[posicao[origens[i]]++] = destinos[i];
+        return new GrafoCSR(n, inicio, adj);
+    }
+
+    /**
+     * Devolve todas as SCC em deadlock (tamanho > 1), cada uma como array de IDs.
+     */
+    public static List<int[]> componentesEmDeadlock(GrafoCSR g, ForkJoinPool pool) {
+        if (g.n == 0 || g.destinos.length == 0)
+            return new ArrayList<>();
+
+        // 1. Componentes fracamente ligadas (union-find): nunca há ciclos entre elas
+        int[][] componentes = componentesFracas(g);
+
+        // 2. Tarjan por componente; os arrays globais são escritos em índices disjuntos
+        Estado estado = new Estado(g);
+        ConcurrentLinkedQueue<int[]> resultado = new ConcurrentLinkedQueue<>();
+        TarefaSCC raiz = new TarefaSCC(estado, componentes, 0, componentes.length, resultado);
+        if (pool == null || g.n <= LIMIAR_SEQUENCIAL)
+            raiz.processar(); // Sem fork: tudo na thread chamadora
+        else
+            pool.invoke(raiz);
+        return new ArrayList<>(resultado);
+    }
+
+    private static int[][] componentesFracas(GrafoCSR g) {
+        int[] pai = new int[g.n];
+        for (int v = 0; v < g.n; v++)
+            pai[v] = v;
+        for (int v = 0; v < g.n; v++)
+            for (int e = g.inicio[v]; e < g.inicio[v + 1]; e++)
+                unir(pai, v, g.destinos[e]);
+
+        // Agrupa os nós por raiz, ignorando nós isolados sem arestas (não podem estar em ciclo)
+        int[] tamanho = new int[g.n];
+        for (int v = 0; v < g.n; v++)
+            tamanho[raiz(pai, v)]++;
+        int[] indiceComponente = new int[g.n];
+        Arrays.fill(indiceComponente, -1);
+        int total = 0;
+        for (int v = 0; v < g.n; v++)
+            if (tamanho[v] > 1)
+                indiceComponente[v] = total++;
+        int[][] componentes = new int[total][];
+        int[] preenchidos = new int[total];
+        for (int v = 0; v < g.n; v++) {
+            int r = pai[v];
+            int c = indiceComponente[r];
+            if (c < 0)
+                continue;
+            if (componentes[c] == null)
+                componentes[c] = new int[tamanho[r]];
+            componentes[c][preenchidos[c]++] = v;
+        }
+        return componentes;
+    }
+
+    // Path halving: após componentesFracas(), pai[v] aponta diretamente para a raiz
+    private static int raiz(int[] pai, int v) {
+        while (pai[v] != v) {
+            pai[v] = pai[pai[v]];
+            v = pai[v];
+        }
+        return v;
+    }
+
+    private static void unir(int[] pai, int a, int b) {
+        int ra = raiz(pai, a);
+        int rb = raiz(pai, b);
+        if (ra != rb)
+            pai[Math.max(ra, rb)] = Math.min(ra, rb);
+    }
+
+    private static final class Estado {
+        final GrafoCSR g;
+        final int[] indice;
+        final int[] low;
+        final boolean[] naPilha;
+
+        Estado(GrafoCSR g) {
+            this.g = g;
+            this.indice = new int[g.n];
+            this.low = new int[g.n];
+            this.naPilha = new boolean[g.n];
+            Arrays.fill(indice, -1);
+        }
+    }
+
+    private static final class TarefaSCC extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+
+        private final transient Estado estado; // Tarefa fork/join: nunca é serializada
+        private final int[][] componentes;
+        private final int de;
+        private final int ate;
+        private final ConcurrentLinkedQueue<int[]> resultado;
+
+        TarefaSCC(Estado estado, int[][] componentes, int de, int ate, ConcurrentLinkedQueue<int[]> resultado) {
+            this.estado = estado;
+            this.componentes = componentes;
+            this.de = de;
+            this.ate = ate;
+            this.resultado = resultado;
+        }
+
+        @Override
+        protected void compute() {
+            long nos = 0;
+            for (int c = de; c < ate && nos <= LIMIAR_SEQUENCIAL; c++)
+                nos += componentes[c].length;
+            if (ate - de <= 1 || nos <= LIMIAR_SEQUENCIAL) {
+                processar();
+                return;
+            }
+            int meio = (de + ate) >>> 1;
+            invokeAll(new TarefaSCC(estado, componentes, de, meio, resultado),
+                    new TarefaSCC(estado, componentes, meio, ate, resultado));
+        }
+
+        void processar() {
+            for (int c = de; c < ate; c++)
+                tarjan(componentes[c]);
+        }
+
+        // Tarjan iterativo sobre os nós de uma componente fracamente ligada
+        private void tarjan(int[] nos) {
+            GrafoCSR g = estado.g;
+            int[] indice = estado.indice;
+            int[] low = estado.low;
+            boolean[] naPilha = estado.naPilha;
+            int[] pilha = new int[nos.length];
+            int[] chamadas = new int[nos.length];
+            int[] proximaAresta = new int[nos.length];
+            int topoPilha = 0;
+            int contador = 0;
+
+            for (int origem : nos) {
+                if (indice[origem] >= 0)
+                    continue;
+                int topo = 0;
+                chamadas[0] = origem;
+                proximaAresta[0] = g.inicio[origem];
+                indice[origem] = low[origem] = contador++;
+                pilha[topoPilha++] = origem;
+                naPilha[origem] = true;
+
+                while (topo >= 0) {
+                    int v = chamadas[topo];
+                    if (proximaAresta[topo] < g.inicio[v + 1]) {
+                        int w = g.destinos[proximaAresta[topo]++];
+                        if (indice[w] < 0) {
+                            // "Chamada recursiva" para w
+                            indice[w] = low[w] = contador++;
+                            pilha[topoPilha++] = w;
+                            naPilha[w] = true;
+                            topo++;
+                            chamadas[topo] = w;
+                            proximaAresta[topo] = g.inicio[w];
+                        } else if (naPilha[w]) {
+                            low[v] = Math.min(low[v], indice[w]);
+                        }
+                    } else {
+                        // "Retorno" de v
+                        if (low[v] == indice[v]) {
+                            int tamanho = 0;
+                            int w;
+                            do {
+                                w = pilha[--topoPilha];
+                                naPilha[w] = false;
+                                tamanho++;
+                            } while (w != v);
+                            if (tamanho > 1)
+                                resultado.add(Arrays.copyOfRange(pilha, topoPilha, topoPilha + tamanho));
+                        }
+                        topo--;
+                        if (topo >= 0) {
+                            int pai = chamadas[topo];
+                            low[pai] = Math.min(low[pai], low[v]);
+                        }
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Mapeia participantes arbitrários para IDs densos e acumula as arestas.
+     */
+    public static final class Indexador<T> {
+        private final Map<T, Integer> ids = new HashMap<>();
+        private final List<T> participantes = new ArrayList<>();
+        private int[] origens = new int[16];
+        private int[] destinos = new int[16];
+        private int m = 0;
+
+        public int id(T participante) {
+            Integer id = ids.get(participante);
+            if (id == null) {
+                id = participantes.size();
+                ids.put(participante, id);
+                participantes.add(participante);
+            }
+            return id;
+        }
+
+        public void aresta(T de, T para) {
+            if (m == origens.length) {
+                origens = Arrays.copyOf(origens, m * 2);
+                destinos = Arrays.copyOf(destinos, m * 2);
+            }
+            origens[m] = id(de);
+            destinos[m] = id(para);
+            m++;
+        }
+
+        public GrafoCSR construir() {
+            return MotorDetecaoSCC.construir(participantes.size(), origens, destinos, m);
+        }
+
+        /**
+         * Todas as SCC em deadlock, já convertidas para os participantes originais.
+         */
+        public List<List<T>> componentesEmDeadlock(ForkJoinPool pool) {
+            List<List<T>> resultado = new ArrayList<>();
+            for (int[] scc : MotorDetecaoSCC.componentesEmDeadlock(construir(), pool)) {
+                List<T> membros = new ArrayList<>(scc.length);
+                for (int id : scc)
+                    membros.add(participantes.get(id));
+                resultado.add(membros);
+            }
+            return resultado;
+        }
+    }
+}
@@ -0,0 +1,146 @@
+package org.monitor;
+
+import java.io.PrintStream;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.IntSupplier;
+
+/**
+ * Painel de terminal ao vivo: redesenha a uma taxa fixa (fps) o estado do monitor a
+ * partir de snapshots lidos sem locks (tamanho do grafo, contenção por recurso,
+ * candidatos a starvation, taxa de eventos, níveis de stock e eventos recentes).
+ * Nunca bloqueia os produtores: só lê estruturas concorrentes e snapshots imutáveis.
+ */
+public final class PainelMonitor {
+    private static final String LIMPAR_ECRA = "\033[H\033[2J";
+    private static final int TOP_CONTENCAO = 5;
+    private static final int MAX_CANDIDATOS = 8;
+
+    // Indicadores de stock mostrados no painel (nome -> leitura sem lock das unidades)
+    private static final Map<String, IntSupplier> stocks = new ConcurrentSkipListMap<>();
+
+    private final PrintStream saida;
+    private final long periodoNanos;
+    private volatile boolean ativo = false;
+    private Thread desenhador;
+
+    // Taxa de eventos entre frames
+    private long eventosAnteriores;
+    private long publicadosAnteriores;
+    private long nanosAnteriores;
+
+    public PainelMonitor(PrintStream saida, int fps) {
+        this.saida = saida;
+        this.periodoNanos = TimeUnit.SECONDS.toNanos(1) / Math.max(1, fps);
+    }
+
+    public static void registarStock(String nome, IntSupplier unidades) {
+        stocks.put(nome, unidades);
+    }
+
+    public static void removerStock(String nome) {
+        stocks.remove(nome);
+    }
+
+    public synchronized void iniciar() {
+        if (ativo)
+            return;
+        ativo = true;
+        desenhador = new Thread(this::desenhar, "Painel-Monitor");
+        desenhador.setDaemon(true);
+        desenhador.start();
+    }
+
+    public synchronized void parar() {
+        ativo = false;
+        if (desenhador != null) {
+            LockSupport.unpark(desenhador);
+            try {
+                desenhador.join(1000);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            desenhador = null;
+        }
+    }
+
+    private void desenhar() {
+        MonitorEBPF monitor = MonitorEBPF.getInstance();
+        eventosAnteriores = monitor.getTelemetria().getTotalEventos();
+        publicadosAnteriores = PipelineEventos.getPublicados();
+        nanosAnteriores = System.nanoTime();
+        // Prazo absoluto: o tempo de desenho não acumula desvio na taxa de frames
+        long proximo = System.nanoTime();
+        while (ativo) {
+            saida.print(LIMPAR_ECRA + frame(monitor));
+            saida.flush();
+            proximo += periodoNanos;
+            long espera = proximo - System.nanoTime();
+            if (espera > 0)
+                LockSupport.parkNanos(espera);
+            else
+                proximo = System.nanoTime(); // frame atrasado: não tenta recuperar
+        }
+    }
+
+    private String frame(MonitorEBPF monitor) {
+        long agoraNanos = System.nanoTime();
+        long agoraMs = System.currentTimeMillis();
+        double segundos = Math.max(1e-9, (agoraNanos - nanosAnteriores) / 1e9);
+        long eventos = monitor.getTelemetria().getTotalEventos();
+        long publicados = PipelineEventos.getPublicados();
+        double taxaProbes = (eventos - eventosAnteriores) / segundos;
+        double taxaPipeline = (publicados - publicadosAnteriores) / segundos;
+        eventosAnteriores = eventos;
+        publicadosAnteriores = publicados;
+        nanosAnteriores = agoraNanos;
+
+        DetectorDeadlock detector = monitor.getDetector();
+        StringBuilder sb = new StringBuilder();
+        sb.append("=== PAINEL AO VIVO (Monitor eBPF) ===   ").append(String.format("%tT", agoraMs)).append('\n');
+        sb.append(String.format("Wait-for Graph: %d arestas | Threads vivas: %d%n", detector.tamanhoGrafo(),
+                Thread.activeCount()));
+        sb.append(String.format("Eventos: %.0f probes/s | %.0f eventos/s (pipeline) | descartados: %d%n",
+                taxaProbes, taxaPipeline, PipelineEventos.getDescartados()));
+
+        sb.append("\n-- Recursos mais disputados (esperas) --\n");
+        List<Map.Entry<String, Long>> top = detector.obterTopContencao(TOP_CONTENCAO);
+        if (top.isEmpty())
+            sb.append("   (sem contenção)\n");
+        for (Map.Entry<String, Long> e : top)
+            sb.append(String.format("   %-40s %8d%n", e.getKey(), e.getValue()));
+
+        sb.append("\n-- Candidatos a starvation (espera atual) --\n");
+        List<MonitorEBPF.CandidatoStarvation> candidatos = monitor.getCandidatosStarvation();
+        if (candidatos.isEmpty())
+            sb.append("   (nenhuma thread vigiada em espera)\n");
+        for (int i = 0; i < Math.min(MAX_CANDIDATOS, candidatos.size()); i++) {
+            MonitorEBPF.CandidatoStarvation c = candidatos.get(i);
+            sb.append(String.format("   %-30s %8dms  %s%n", c.nome, agoraMs - c.inicioEsperaMs, c.estado));
+        }
+        if (candidatos.size() > MAX_CANDIDATOS)
+            sb.append("   ... +").append(candidatos.size() - MAX_CANDIDATOS).append('\n');
+
+        sb.append("\n-- Stock --\n");
+        if (stocks.isEmpty())
+            sb.append("   (nenhum stock registado)\n");
+        stocks.forEach((nome, unidades) -> {
+            sb.append(String.format("   %-30s %6d unidades", nome, unidades.getAsInt()));
+            PrevisaoStock.Previsao p = PrevisaoStock.global().previsaoPublicada(nome, agoraNanos);
+            if (p != null)
+                sb.append(String.format("  consumo %.1f/min  rutura em %s", p.consumoPorMinuto,
+                        PrevisaoStock.formatarSegundos(p.segundosAteRutura)));
+            sb.append('\n');
+        });
+
+        sb.append("\n-- Eventos recentes --\n");
+        for (String evento : PipelineEventos.getRecentes())
+            sb.append("   ").append(evento).append('\n');
+
+        sb.append("\n[ENTER para sair]\n");
+        return sb.toString();
+    }
+}
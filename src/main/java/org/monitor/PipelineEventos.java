@@ -0,0 +1,203 @@
+package org.monitor;
+
+import java.io.ByteArrayOutputStream;
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Pipeline assíncrono para as mensagens por operação dos recursos (antes println diretos).
+ * Os produtores só fazem um enqueue lock-free; uma thread consumidora escreve em lote
+ * na consola ou, em modo painel, guarda apenas os eventos recentes para o PainelMonitor.
+ * A fila é limitada: acima da capacidade os eventos são descartados e contados.
+ *
+ * Uma thread silenciada (e as threads que cria) não publica nem escreve avisos na consola:
+ * o modo caos cala apenas as suas próprias iterações, sem mexer no System.out dos restantes.
+ */
+public final class PipelineEventos {
+    private static final int CAPACIDADE = 65_536;
+    private static final int RECENTES = 10;
+    private static final long PERIODO_CONSUMO_NANOS = TimeUnit.MILLISECONDS.toNanos(5);
+
+    // Consola real, fixada no arranque: o consumidor nunca escreve no System.out atual, que pode
+    // ser a própria captura (os eventos voltariam à fila em ciclo)
+    private static final PrintStream CONSOLA = System.out;
+
+    private static final ConcurrentLinkedQueue<String> fila = new ConcurrentLinkedQueue<>();
+    private static final AtomicInteger tamanho = new AtomicInteger();
+    private static final AtomicLong publicados = new AtomicLong();
+    private static final AtomicLong processados = new AtomicLong();
+    private static final LongAdder descartados = new LongAdder();
+
+    private static final InheritableThreadLocal<Boolean> silenciada = new InheritableThreadLocal<>();
+
+    private static volatile boolean modoPainel = false;
+    // Snapshot imutável lido pelo painel sem locks
+    private static volatile List<String> recentes = Collections.emptyList();
+
+    static {
+        Thread consumidor = new Thread(PipelineEventos::consumir, "Pipeline-Eventos");
+        consumidor.setDaemon(true);
+        consumidor.start();
+    }
+
+    private PipelineEventos() {
+    }
+
+    public static void publicar(String evento) {
+        if (isSilenciada())
+            return;
+        if (tamanho.incrementAndGet() > CAPACIDADE) {
+            tamanho.decrementAndGet();
+            descartados.increment();
+            return;
+        }
+        fila.add(evento);
+        publicados.incrementAndGet();
+    }
+
+    /**
+     * Avisos de erro dos recursos: escritos logo no System.err (fora da fila), exceto numa
+     * thread silenciada.
+     */
+    public static void aviso(String mensagem) {
+        if (!isSilenciada())
+            System.err.println(mensagem);
+    }
+
+    /**
+     * Silencia (ou volta a ativar) a thread atual; as threads que ela criar a seguir herdam o estado.
+     */
+    public static void silenciar(boolean ativo) {
+        if (ativo)
+            silenciada.set(Boolean.TRUE);
+        else
+            silenciada.remove();
+    }
+
+    public static boolean isSilenciada() {
+        return silenciada.get() != null;
+    }
+
+    /**
+     * Espera (até 1s) que os eventos já publicados tenham sido escritos. Usado antes de
+     * mensagens que devem aparecer depois deles (ex: resultado final de um cenário).
+     */
+    public static void esvaziar() {
+        long alvo = publicados.get();
+        long prazo = System.nanoTime() + TimeUnit.SECONDS.toNanos(1);
+        while (processados.get() < alvo && System.nanoTime() < prazo)
+            LockSupport.parkNanos(PERIODO_CONSUMO_NANOS / 5);
+    }
+
+    private static void consumir() {
+        List<String> ultimos = new ArrayList<>();
+        StringBuilder lote = new StringBuilder();
+        while (true) {
+            String evento;
+            int n = 0;
+            while ((evento = fila.poll()) != null) {
+                tamanho.decrementAndGet();
+                n++;
+                if (modoPainel) {
+                    ultimos.add(evento);
+                } else {
+                    lote.append(evento).append(System.lineSeparator());
+                }
+            }
+            if (lote.length() > 0) {
+                CONSOLA.print(lote);
+                CONSOLA.flush();
+                lote.setLength(0);
+            }
+            if (!ultimos.isEmpty()) {
+                List<String> novo = new ArrayList<>(recentes);
+                novo.addAll(ultimos);
+                recentes = Collections.unmodifiableList(
+                        new ArrayList<>(novo.subList(Math.max(0, novo.size() - RECENTES), novo.size())));
+                ultimos.clear();
+            }
+            processados.addAndGet(n);
+            if (n == 0)
+                LockSupport.parkNanos(PERIODO_CONSUMO_NANOS);
+        }
+    }
+
+    /**
+     * Modo painel: os eventos deixam de ir para a consola e alimentam a lista de recentes.
+     */
+    public static void setModoPainel(boolean ativo) {
+        modoPainel = ativo;
+    }
+
+    /**
+     * Consola real (onde o painel desenha).
+     */
+    public static PrintStream getConsola() {
+        return CONSOLA;
+    }
+
+    /**
+     * Redireciona System.out para o pipeline enquanto durar; restaurar() só repõe o stream
+     * anterior se System.out ainda for esta captura (quem o substituiu depois repõe o seu).
+     */
+    public static final class Captura {
+        private final PrintStream anterior;
+        private final PrintStream captura;
+
+        private Captura(PrintStream anterior, PrintStream captura) {
+            this.anterior = anterior;
+            this.captura = captura;
+        }
+
+        public void restaurar() {
+            synchronized (PipelineEventos.class) {
+                if (System.out == captura)
+                    System.setOut(anterior);
+            }
+        }
+    }
+
+    /**
+     * Redireciona System.out para o pipeline (cada linha passa a ser um evento).
+     */
+    public static synchronized Captura capturarConsola() {
+        PrintStream anterior = System.out;
+        PrintStream captura = new PrintStream(new OutputStream() {
+            private final ByteArrayOutputStream linha = new ByteArrayOutputStream();
+
+            @Override
+            public void write(int b) {
+                if (b == '\n') {
+                    publicar(linha.toString(StandardCharsets.UTF_8).replace("\r", ""));
+                    linha.reset();
+                } else {
+                    linha.write(b);
+                }
+            }
+        }, true, StandardCharsets.UTF_8);
+        System.setOut(captura);
+        return new Captura(anterior, captura);
+    }
+
+    public static List<String> getRecentes() {
+        return recentes;
+    }
+
+    public static long getPublicados() {
+        return publicados.get();
+    }
+
+    public static long getDescartados() {
+        return descartados.sum();
+    }
+}
@@ -0,0 +1,316 @@
+package org.monitor;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Consumer;
+import org.app.Config;
+
+/**
+ * Previsão de stock em streaming: cada evento de consumo/reposição atualiza em O(1)
+ * (amortizado) uma janela deslizante em baldes de tempo do item, sem voltar a percorrer
+ * o histórico. A partir da taxa de consumo da janela estima o tempo até à rutura e emite
+ * eventos de stock baixo e de reposição (com histerese: um evento por travessia do limiar).
+ *
+ * Os itens são independentes (um lock por item), por isso milhares de contadores são
+ * atualizados em paralelo. Memória limitada: baldes fixos por item e no máximo maxItens itens.
+ */
+public final class PrevisaoStock {
+    public static final String EVENTO_STOCK_BAIXO = "STOCK BAIXO";
+    public static final String EVENTO_REPOSICAO = "REPOSICAO";
+
+    private static final PrevisaoStock global = criarGlobal();
+
+    /**
+     * Evento emitido quando um item atravessa um limiar.
+     */
+    public static final class Evento {
+        public final String tipo;
+        public final String item;
+        public final int unidades;
+        public final double consumoPorMinuto;
+        public final double segundosAteRutura;
+        public final long instanteNanos;
+
+        Evento(String tipo, String item, int unidades, double consumoPorMinuto, double segundosAteRutura,
+                long instanteNanos) {
+            this.tipo = tipo;
+            this.item = item;
+            this.unidades = unidades;
+            this.consumoPorMinuto = consumoPorMinuto;
+            this.segundosAteRutura = segundosAteRutura;
+            this.instanteNanos = instanteNanos;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("[PREVISÃO] %s '%s': %d unidades, consumo %.1f/min, rutura em %s", tipo, item,
+                    unidades, consumoPorMinuto, formatarSegundos(segundosAteRutura));
+        }
+    }
+
+    /**
+     * Estado atual de um item (leitura para painéis e relatórios).
+     */
+    public static final class Previsao {
+        public final String item;
+        public final int unidades;
+        public final double consumoPorMinuto;
+        public final double segundosAteRutura;
+
+        Previsao(String item, int unidades, double consumoPorMinuto, double segundosAteRutura) {
+            this.item = item;
+            this.unidades = unidades;
+            this.consumoPorMinuto = consumoPorMinuto;
+            this.segundosAteRutura = segundosAteRutura;
+        }
+    }
+
+    // Janela deslizante de um item: o balde i guarda a época e tal que e % baldes == i
+    private final class Item {
+        final String nome;
+        final int[] baldes = new int[numeroBaldes];
+        long soma;
+        long epocaAtual = Long.MIN_VALUE;
+        int unidades;
+        boolean alertaBaixo;
+        boolean alertaReposicao;
+        // Última previsão calculada, lida sem lock pelo painel
+        volatile Publicada publicada;
+
+        Item(String nome) {
+            this.nome = nome;
+        }
+
+        // Avança a janela até à época dada, esvaziando os baldes que saem (no máximo numeroBaldes)
+        void avancar(long epoca) {
+            if (epocaAtual == Long.MIN_VALUE) {
+                epocaAtual = epoca;
+                return;
+            }
+            if (epoca <= epocaAtual)
+                return;
+            long desde = Math.max(epocaAtual + 1, epoca - numeroBaldes + 1);
+            for (long e = desde; e <= epoca; e++) {
+                int i = (int) Math.floorMod(e, (long) numeroBaldes);
+                soma -= baldes[i];
+                baldes[i] = 0;
+            }
+            epocaAtual = epoca;
+        }
+
+        // Sempre sobre a janela inteira: no arranque subestima, mas não dispara alertas com um só evento
+        double consumoPorSegundo() {
+            return soma / janelaSegundos;
+        }
+
+        // Chamado com o lock do item
+        Previsao publicar() {
+            double porSegundo = consumoPorSegundo();
+            Previsao p = new Previsao(nome, unidades, porSegundo * 60,
+                    porSegundo > 0 ? unidades / porSegundo : Double.POSITIVE_INFINITY);
+            publicada = new Publicada(p, epocaAtual);
+            return p;
+        }
+    }
+
+    private static final class Publicada {
+        final Previsao previsao;
+        final long epoca;
+
+        Publicada(Previsao previsao, long epoca) {
+            this.previsao = previsao;
+            this.epoca = epoca;
+        }
+    }
+
+    private final int numeroBaldes;
+    private final long nanosPorBalde;
+    private final double janelaSegundos;
+    private final int maxItens;
+    private final int nivelMinimo;
+    private final double horizonteReposicaoS;
+
+    private final Map<String, Item> itens = new ConcurrentHashMap<>();
+    private final AtomicInteger numeroItens = new AtomicInteger();
+    private final LongAdder eventosProcessados = new LongAdder();
+    private final LongAdder itensRecusados = new LongAdder();
+    private final List<Consumer<Evento>> ouvintes = new CopyOnWriteArrayList<>();
+
+    public PrevisaoStock(long janelaSegundos, int numeroBaldes, int maxItens, int nivelMinimo,
+            long horizonteReposicaoS) {
+        this.numeroBaldes = numeroBaldes;
+        this.nanosPorBalde = TimeUnit.SECONDS.toNanos(janelaSegundos) / numeroBaldes;
+        this.janelaSegundos = janelaSegundos;
+        this.maxItens = maxItens;
+        this.nivelMinimo = nivelMinimo;
+        this.horizonteReposicaoS = horizonteReposicaoS;
+    }
+
+    private static PrevisaoStock criarGlobal() {
+        PrevisaoStock p = new PrevisaoStock(Config.PREVISAO_JANELA_S, Config.PREVISAO_BALDES,
+                Config.PREVISAO_MAX_ITENS, Config.STOCK_NIVEL_MINIMO, Config.STOCK_HORIZONTE_REPOSICAO_S);
+        // Os eventos da instância global seguem para a consola/painel pelo pipeline assíncrono
+        p.adicionarOuvinte(e -> PipelineEventos.publicar(e.toString()));
+        return p;
+    }
+
+    /**
+     * Instância alimentada pelos StockSangue com previsão ativa.
+     */
+    public static PrevisaoStock global() {
+        return global;
+    }
+
+    public void adicionarOuvinte(Consumer<Evento> ouvinte) {
+        ouvintes.add(ouvinte);
+    }
+
+    public void removerOuvinte(Consumer<Evento> ouvinte) {
+        ouvintes.remove(ouvinte);
+    }
+
+    /**
+     * Consumo de qtd unidades; unidades é o stock depois da operação.
+     */
+    public void registarConsumo(String nome, int qtd, int unidades, long instanteNanos) {
+        registar(nome, qtd, unidades, instanteNanos);
+    }
+
+    /**
+     * Reposição (não conta como consumo, mas atualiza o nível e rearma os alertas).
+     */
+    public void registarReposicao(String nome, int unidades, long instanteNanos) {
+        registar(nome, 0, unidades, instanteNanos);
+    }
+
+    private void registar(String nome, int consumo, int unidades, long instanteNanos) {
+        Item item = item(nome);
+        if (item == null)
+            return;
+        eventosProcessados.increment();
+        long epoca = Math.floorDiv(instanteNanos, nanosPorBalde);
+        Evento baixo = null;
+        Evento reposicao = null;
+        synchronized (item) {
+            item.avancar(epoca);
+            // Eventos fora de ordem ainda dentro da janela contam no seu balde; mais antigos são ignorados
+            if (consumo > 0 && epoca > item.epocaAtual - numeroBaldes) {
+                item.baldes[(int) Math.floorMod(epoca, (long) numeroBaldes)] += consumo;
+                item.soma += consumo;
+            }
+            item.unidades = unidades;
+
+            double porSegundo = item.consumoPorSegundo();
+            double rutura = porSegundo > 0 ? unidades / porSegundo : Double.POSITIVE_INFINITY;
+            boolean abaixo = unidades <= nivelMinimo;
+            boolean repor = rutura <= horizonteReposicaoS;
+            if (abaixo && !item.alertaBaixo)
+                baixo = new Evento(EVENTO_STOCK_BAIXO, nome, unidades, porSegundo * 60, rutura, instanteNanos);
+            if (repor && !item.alertaReposicao)
+                reposicao = new Evento(EVENTO_REPOSICAO, nome, unidades, porSegundo * 60, rutura, instanteNanos);
+            item.alertaBaixo = abaixo;
+            item.alertaReposicao = repor;
+            item.publicar();
+        }
+        // Emitidos fora do lock do item
+        if (reposicao != null)
+            emitir(reposicao);
+        if (baixo != null)
+            emitir(baixo);
+    }
+
+    private Item item(String nome) {
+        Item item = itens.get(nome);
+        if (item != null)
+            return item;
+        if (numeroItens.get() >= maxItens) {
+            itensRecusados.increment();
+            return null;
+        }
+        return itens.computeIfAbsent(nome, k -> {
+            numeroItens.incrementAndGet();
+            return new Item(k);
+        });
+    }
+
+    private void emitir(Evento e) {
+        for (Consumer<Evento> ouvinte : ouvintes)
+            ouvinte.accept(e);
+    }
+
+    /**
+     * Previsão atual de um item no instante dado (a janela avança até lá); null se não existir.
+     */
+    public Previsao previsao(String nome, long instanteNanos) {
+        Item item = itens.get(nome);
+        if (item == null)
+            return null;
+        synchronized (item) {
+            item.avancar(Math.floorDiv(instanteNanos, nanosPorBalde));
+            return item.publicar();
+        }
+    }
+
+    /**
+     * Como previsao(), mas sem lock (ex: PainelMonitor): devolve a última previsão publicada
+     * pelos eventos do item. Não avança a janela; só deteta que ela já passou por inteiro
+     * (sem consumos recentes).
+     */
+    public Previsao previsaoPublicada(String nome, long instanteNanos) {
+        Item item = itens.get(nome);
+        Publicada pub = item == null ? null : item.publicada;
+        if (pub == null)
+            return null;
+        if (Math.floorDiv(instanteNanos, nanosPorBalde) - pub.epoca >= numeroBaldes)
+            return new Previsao(nome, pub.previsao.unidades, 0, Double.POSITIVE_INFINITY);
+        return pub.previsao;
+    }
+
+    /**
+     * Descarta a janela de consumo do item e recomeça no nível dado (ex: stock restaurado de um
+     * snapshot); os alertas são reavaliados como numa reposição.
+     */
+    public void reiniciar(String nome, int unidades, long instanteNanos) {
+        remover(nome);
+        registarReposicao(nome, unidades, instanteNanos);
+    }
+
+    public void remover(String nome) {
+        if (itens.remove(nome) != null)
+            numeroItens.decrementAndGet();
+    }
+
+    public int getNumeroItens() {
+        return numeroItens.get();
+    }
+
+    public long getEventosProcessados() {
+        return eventosProcessados.sum();
+    }
+
+    public long getItensRecusados() {
+        return itensRecusados.sum();
+    }
+
+    /**
+     * Memória aproximada ocupada pelos itens (baldes + cabeçalhos), em bytes.
+     */
+    public long getMemoriaEstimada() {
+        return (long) numeroItens.get() * (16 + 4L * numeroBaldes + 64);
+    }
+
+    public static String formatarSegundos(double segundos) {
+        if (Double.isInfinite(segundos))
+            return "-";
+        if (segundos < 120)
+            return String.format("%.0fs", segundos);
+        if (segundos < 7200)
+            return String.format("%.1fmin", segundos / 60);
+        return String.format("%.1fh", segundos / 3600);
+    }
+}
@@ -0,0 +1,200 @@
+package org.monitor;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.Socket;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Publica as arestas do Wait-for Graph local para o CoordenadorDeadlock.
+ * Em cada período só envia o delta (arestas novas/removidas) num único lote,
+ * com um dicionário de nomes: cada nome global viaja uma vez por ligação.
+ */
+public class PublicadorGrafo {
+    private final String noId;
+    private final DetectorDeadlock detector;
+    private final String host;
+    private final int porta;
+    private final long intervaloMs;
+    private volatile boolean running = true;
+    private Thread thread; // criada em iniciar()
+
+    // Estado da ligação atual (reposto a cada nova ligação -> ressincronização total)
+    private Socket socket;
+    private DataOutputStream out;
+    private final Map<String, Integer> dicionario = new HashMap<>();
+    private Set<String> publicadas = new HashSet<>();
+
+    // Volume de mensagens (para comparar com o envio do grafo completo)
+    private final AtomicLong lotesEnviados = new AtomicLong();
+    private final AtomicLong arestasEnviadas = new AtomicLong();
+    private final AtomicLong bytesEnviados = new AtomicLong();
+
+    public PublicadorGrafo(String noId, DetectorDeadlock detector, String host, int porta, long intervaloMs) {
+        this.noId = noId;
+        this.detector = detector;
+        this.host = host;
+        this.porta = porta;
+        this.intervaloMs = intervaloMs;
+    }
+
+    /**
+     * Arranca a thread de publicação (daemon).
+     */
+    public synchronized void iniciar() {
+        if (thread != null)
+            throw new IllegalStateException("Publicador já iniciado");
+        thread = new Thread(this::publicarPeriodicamente, "Publicador-Grafo-" + noId);
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    private void publicarPeriodicamente() {
+        while (running) {
+            try {
+                publicar();
+                Thread.sleep(intervaloMs);
+            } catch (InterruptedException e) {
+                if (!running)
+                    break;
+            } catch (IOException e) {
+                System.err.println("[" + noId + "] Coordenador indisponível: " + e.getMessage());
+                fecharLigacao();
+                try {
+                    Thread.sleep(Math.max(intervaloMs, 500));
+                } catch (InterruptedException ie) {
+                    if (!running)
+                        break;
+                }
+            }
+        }
+        fecharLigacao();
+    }
+
+    public synchronized void terminar() {
+        running = false;
+        if (thread != null)
+            thread.interrupt();
+    }
+
+    /**
+     * Calcula e envia o delta desde a última publicação (não envia nada se não houver alterações).
+     */
+    public synchronized void publicar() throws IOException {
+        if (out == null)
+            ligar();
+
+        Set<String> atuais = new HashSet<>();
+        detector.exportarArestas(
+                (p, r) -> atuais.add(chave(CoordenadorDeadlock.ARESTA_ESPERA, nomeParticipante(p), nomeRecurso(r))),
+                (r, p) -> atuais.add(chave(CoordenadorDeadlock.ARESTA_POSSE, nomeParticipante(p), nomeRecurso(r))));
+
+        List<String> novas = new ArrayList<>();
+        for (String a : atuais)
+            if (!publicadas.contains(a))
+                novas.add(a);
+        List<String> removidas = new ArrayList<>();
+        for (String a : publicadas)
+            if (!atuais.contains(a))
+                removidas.add(a);
+        if (novas.isEmpty() && removidas.isEmpty())
+            return;
+
+        // Nomes ainda não conhecidos pelo coordenador nesta ligação
+        List<String> definicoes = new ArrayList<>();
+        for (String a : novas) {
+            String[] partes = a.split("\u0000");
+            for (int i = 1; i <= 2; i++) {
+                if (!dicionario.containsKey(partes[i])) {
+                    dicionario.put(partes[i], dicionario.size());
+                    definicoes.add(partes[i]);
+                }
+            }
+        }
+
+        int antes = out.size();
+        out.writeByte(CoordenadorDeadlock.MSG_DELTA);
+        out.writeInt(definicoes.size());
+        for (String nome : definicoes) {
+            out.writeInt(dicionario.get(nome));
+            out.writeUTF(nome);
+        }
+        escreverArestas(removidas);
+        escreverArestas(novas);
+        out.flush();
+
+        publicadas = atuais;
+        lotesEnviados.incrementAndGet();
+        arestasEnviadas.addAndGet(novas.size() + removidas.size());
+        bytesEnviados.addAndGet(out.size() - antes);
+    }
+
+    private void escreverArestas(List<String> arestas) throws IOException {
+        out.writeInt(arestas.size());
+        for (String a : arestas) {
+            String[] partes = a.split("\u0000");
+            out.writeByte(partes[0].charAt(0));
+            out.writeInt(dicionario.get(partes[1]));
+            out.writeInt(dicionario.get(partes[2]));
+        }
+    }
+
+    private void ligar() throws IOException {
+        socket = new Socket();
+        socket.setTcpNoDelay(true);
+        socket.connect(new InetSocketAddress(host, porta), 2000);
+        out = new DataOutputStream(new BufferedOutputStream(socket.getOutputStream()));
+        out.writeByte(CoordenadorDeadlock.MSG_OLA);
+        out.writeUTF(noId);
+        out.flush();
+        dicionario.clear();
+        publicadas = new HashSet<>();
+    }
+
+    private synchronized void fecharLigacao() {
+        try {
+            if (socket != null)
+                socket.close();
+        } catch (IOException e) {
+            // Ligação já fechada
+        }
+        socket = null;
+        out = null;
+    }
+
+    private static String chave(char tipo, String participante, String recurso) {
+        return tipo + "\u0000" + participante + "\u0000" + recurso;
+    }
+
+    // Participantes são locais ao nó; recursos partilhados têm o mesmo nome em todos os nós
+    private String nomeParticipante(Object participante) {
+        String base = DetectorDeadlock.nomeParticipante(participante);
+        if (participante instanceof Thread)
+            base += "#" + ((Thread) participante).threadId();
+        return noId + "/" + base;
+    }
+
+    private static String nomeRecurso(Object recurso) {
+        return String.valueOf(recurso);
+    }
+
+    public long getLotesEnviados() {
+        return lotesEnviados.get();
+    }
+
+    public long getArestasEnviadas() {
+        return arestasEnviadas.get();
+    }
+
+    public long getBytesEnviados() {
+        return bytesEnviados.get();
+    }
+}
@@ -0,0 +1,586 @@
+package org.monitor;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.FileOutputStream;
+import java.io.FileNotFoundException;
+import java.io.FilterOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.RandomAccessFile;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+import org.app.Config;
+import org.app.Configuracao;
+import org.app.GestorConfiguracao;
+
+/**
+ * Log segmentado. O ficheiro ativo (Config.LOG_FILE) roda por tamanho ou por idade para
+ * segmentos fechados "<base>.<inicio>.log", que uma thread de fundo comprime em blocos
+ * gzip independentes (.gz + tabela de blocos .blk). Cada segmento tem um índice lateral
+ * (.idx, comprimido para .idx.gz com o segmento) com (instante, offset, comprimento, tipo,
+ * threads) dos alertas e das entradas com etiqueta: a ConsultaLog lê só as entradas pedidas,
+ * sem percorrer o log. Os [ACESSO], um por acesso a um recurso, ficam só no texto: indexá-los
+ * fazia o índice maior do que o próprio segmento comprimido.
+ */
+final class SegmentosLog {
+    static final String EXT_INDICE = ".idx";
+    static final String EXT_COMPRIMIDO = ".gz";
+    static final String EXT_BLOCOS = ".blk";
+    static final String TIPO_ACESSO = "ACESSO";
+
+    static final DateTimeFormatter FORMATO_ENTRADA = DateTimeFormatter.ofPattern("yyyy/MM/dd HH:mm:ss");
+    private static final DateTimeFormatter FORMATO_SEGMENTO = DateTimeFormatter.ofPattern("yyyyMMdd-HHmmss-SSS");
+    private static final Pattern CABECALHO = Pattern.compile("^\\[(\\d{4}/\\d{2}/\\d{2} \\d{2}:\\d{2}:\\d{2})\\] (.*)");
+    private static final Pattern ETIQUETA = Pattern.compile("^\\s*\\[([^\\]]+)\\]\\s*");
+    private static final String[] TIPOS_ALERTA = { MonitorEBPF.ALERTA_RACE, MonitorEBPF.ALERTA_DEADLOCK,
+            MonitorEBPF.ALERTA_STARVATION, MonitorEBPF.ALERTA_FLOOD, MonitorEBPF.ALERTA_INVERSAO };
+    private static final byte[] NOVA_LINHA = System.lineSeparator().getBytes(StandardCharsets.UTF_8);
+
+    // Um escritor por ficheiro: loggers diferentes sobre o mesmo caminho partilham offsets e rotação
+    private static final Map<Path, SegmentosLog> instancias = new HashMap<>();
+    private static final ExecutorService compressor = Executors.newSingleThreadExecutor(r -> {
+        Thread t = new Thread(r, "Log-Compressor");
+        t.setDaemon(true);
+        return t;
+    });
+
+    /**
+     * Entrada do índice lateral.
+     */
+    static final class EntradaIndice {
+        final long instante;
+        final long offset;
+        final int comprimento;
+        final String tipo;
+        final List<String> threads;
+
+        EntradaIndice(long instante, long offset, int comprimento, String tipo, List<String> threads) {
+            this.instante = instante;
+            this.offset = offset;
+            this.comprimento = comprimento;
+            this.tipo = tipo;
+            this.threads = threads;
+        }
+    }
+
+    /**
+     * Segmento em disco (fechado ou ativo). O intervalo de tempo vem do nome e do início do seguinte.
+     */
+    static final class Segmento {
+        final Path log;
+        final long inicio;
+        final boolean ativo;
+
+        Segmento(Path log, long inicio, boolean ativo) {
+            this.log = log;
+            this.inicio = inicio;
+            this.ativo = ativo;
+        }
+
+        // Índice plano (ativo, ou fechado ainda por comprimir) ou comprimido
+        Path indice() {
+            Path plano = Paths.get(log + EXT_INDICE);
+            return Files.exists(plano) ? plano : Paths.get(plano + EXT_COMPRIMIDO);
+        }
+    }
+
+    private final Path ativo;
+    private final Path indiceAtivo;
+    private OutputStream saida;
+    private DataOutputStream indice;
+    private long tamanho;
+    private long inicioSegmento = -1;
+
+    private SegmentosLog(Path ativo) {
+        this.ativo = ativo;
+        this.indiceAtivo = Paths.get(ativo + EXT_INDICE);
+    }
+
+    static synchronized SegmentosLog para(String caminho) {
+        Path p = Paths.get(caminho).toAbsolutePath().normalize();
+        return instancias.computeIfAbsent(p, SegmentosLog::new);
+    }
+
+    /**
+     * Acrescenta uma entrada (já formatada, sem fim de linha) ao segmento ativo e, se o tipo
+     * for indexado, ao seu índice.
+     */
+    synchronized void escrever(String entrada, long instante, String tipo, List<String> threads) throws IOException {
+        if (saida == null)
+            abrir();
+        byte[] bytes = entrada.getBytes(StandardCharsets.UTF_8);
+        int comprimento = bytes.length + NOVA_LINHA.length;
+
+        Configuracao cfg = GestorConfiguracao.atual();
+        boolean cheio = tamanho > 0 && tamanho + comprimento > cfg.getLogSegmentoMaxKb() * 1024;
+        boolean antigo = inicioSegmento >= 0 && instante - inicioSegmento >= cfg.getLogSegmentoMaxMin() * 60_000;
+        if (cheio || antigo)
+            rodar();
+
+        if (inicioSegmento < 0)
+            inicioSegmento = instante;
+        saida.write(bytes);
+        saida.write(NOVA_LINHA);
+        saida.flush(); // Garante escrita imediata no disco
+        if (indexado(tipo)) {
+            escreverIndice(indice, new EntradaIndice(instante, tamanho, comprimento, tipo, threads));
+            indice.flush();
+        }
+        tamanho += comprimento;
+    }
+
+    /**
+     * Abre o segmento ativo. Um índice em falta ou incompleto (log antigo, paragem a meio de
+     * uma escrita) é completado a partir do texto; as threads dessas entradas não são recuperadas.
+     * O texto depois da última entrada indexada volta a ser percorrido (pode ter só [ACESSO]).
+     */
+    private void abrir() throws IOException {
+        if (ativo.getParent() != null)
+            Files.createDirectories(ativo.getParent());
+        tamanho = Files.exists(ativo) ? Files.size(ativo) : 0;
+
+        List<EntradaIndice> existentes = Files.exists(indiceAtivo) ? lerIndice(indiceAtivo, Long.MAX_VALUE, null)
+                : new ArrayList<>();
+        long coberto = 0;
+        List<EntradaIndice> validas = new ArrayList<>();
+        for (EntradaIndice e : existentes) {
+            if (e.offset + e.comprimento > tamanho)
+                break;
+            validas.add(e);
+            coberto = e.offset + e.comprimento;
+        }
+        // Reescrito com as entradas válidas (descarta um registo final incompleto)
+        reescreverIndice(indiceAtivo, validas);
+
+        indice = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(indiceAtivo.toFile(), true)));
+        if (coberto < tamanho)
+            indexarTexto(ativo, coberto, indice, validas);
+        indice.flush();
+        inicioSegmento = validas.isEmpty() ? -1 : validas.get(0).instante;
+        saida = new BufferedOutputStream(new FileOutputStream(ativo.toFile(), true));
+
+        // Segmentos fechados que ficaram por comprimir (ex: saída do processo a meio)
+        for (Segmento s : listar(ativo))
+            if (!s.ativo && (Files.exists(s.log) || Files.exists(Paths.get(s.log + EXT_INDICE))))
+                compressor.submit(() -> comprimir(s.log));
+    }
+
+    /**
+     * Fecha o segmento ativo, renomeia-o (e o índice) com o instante de início e agenda a compressão.
+     */
+    private void rodar() throws IOException {
+        saida.close();
+        indice.close();
+        String base = nomeBase(ativo);
+        long inicio = inicioSegmento >= 0 ? inicioSegmento : System.currentTimeMillis();
+        Path fechado;
+        do {
+            String marca = FORMATO_SEGMENTO.format(Instant.ofEpochMilli(inicio++).atZone(ZoneId.systemDefault()));
+            fechado = ativo.resolveSibling(base + "." + marca + ".log");
+        } while (Files.exists(fechado) || Files.exists(Paths.get(fechado + EXT_COMPRIMIDO)));
+        // Índice primeiro: um segmento visível tem sempre o seu índice
+        Files.move(indiceAtivo, Paths.get(fechado + EXT_INDICE), StandardCopyOption.ATOMIC_MOVE);
+        Files.move(ativo, fechado, StandardCopyOption.ATOMIC_MOVE);
+        Path comprimir = fechado;
+        compressor.submit(() -> comprimir(comprimir));
+
+        saida = new BufferedOutputStream(new FileOutputStream(ativo.toFile(), false));
+        indice = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(indiceAtivo.toFile(), false)));
+        tamanho = 0;
+        inicioSegmento = -1;
+    }
+
+    // --- COMPRESSÃO (thread de fundo) ---
+
+    /**
+     * Comprime um segmento fechado em membros gzip independentes de LOG_BLOCO_COMPRESSAO_BYTES
+     * (descomprimidos). A tabela de blocos (offset descomprimido -> offset comprimido) permite
+     * descomprimir só o bloco de uma entrada. O .gz só aparece (rename atómico) depois da tabela.
+     * O índice é comprimido a seguir, inteiro: a consulta lê-o sempre do início.
+     */
+    static void comprimir(Path segmento) {
+        Path gz = Paths.get(segmento + EXT_COMPRIMIDO);
+        Path temporario = Paths.get(gz + ".tmp");
+        Path blocos = Paths.get(segmento + EXT_BLOCOS);
+        try {
+            if (Files.exists(gz)) {
+                Files.deleteIfExists(segmento);
+                comprimirIndice(segmento);
+                return;
+            }
+            List<long[]> tabela = new ArrayList<>();
+            try (InputStream in = new BufferedInputStream(Files.newInputStream(segmento));
+                    FileOutputStream ficheiro = new FileOutputStream(temporario.toFile())) {
+                byte[] bloco = new byte[Config.LOG_BLOCO_COMPRESSAO_BYTES];
+                long descomprimido = 0;
+                int n;
+                while ((n = in.readNBytes(bloco, 0, bloco.length)) > 0) {
+                    tabela.add(new long[] { descomprimido, ficheiro.getChannel().position() });
+                    // Cada bloco é um membro gzip completo; o ficheiro continua aberto
+                    GZIPOutputStream membro = new GZIPOutputStream(new FilterOutputStream(ficheiro) {
+                        @Override
+                        public void close() {
+                        }
+                    });
+                    membro.write(bloco, 0, n);
+                    membro.finish();
+                    membro.close();
+                    descomprimido += n;
+                }
+            }
+            try (DataOutputStream out = new DataOutputStream(
+                    new BufferedOutputStream(Files.newOutputStream(blocos)))) {
+                for (long[] b : tabela) {
+                    out.writeLong(b[0]);
+                    out.writeLong(b[1]);
+                }
+            }
+            Files.move(temporario, gz, StandardCopyOption.ATOMIC_MOVE);
+            Files.delete(segmento);
+            comprimirIndice(segmento);
+        } catch (NoSuchFileException e) {
+            // Já comprimido por outra chamada
+        } catch (IOException e) {
+            System.err.println("Erro Log (compressão de " + segmento.getFileName() + "): " + e.getMessage());
+        }
+    }
+
+    // O .idx.gz aparece antes de o .idx desaparecer: Segmento.indice() encontra sempre um dos dois
+    private static void comprimirIndice(Path segmento) throws IOException {
+        Path indice = Paths.get(segmento + EXT_INDICE);
+        if (!Files.exists(indice))
+            return;
+        Path gz = Paths.get(indice + EXT_COMPRIMIDO);
+        Path temporario = Paths.get(gz + ".tmp");
+        try (OutputStream out = new GZIPOutputStream(new BufferedOutputStream(Files.newOutputStream(temporario)))) {
+            Files.copy(indice, out);
+        }
+        Files.move(temporario, gz, StandardCopyOption.ATOMIC_MOVE);
+        Files.delete(indice);
+    }
+
+    // --- LEITURA (ConsultaLog) ---
+
+    /**
+     * Segmentos do log (fechados por ordem de início, ativo no fim).
+     */
+    static List<Segmento> listar(Path ativo) throws IOException {
+        Pattern nome = Pattern.compile(Pattern.quote(nomeBase(ativo)) + "\\.(\\d{8}-\\d{6}-\\d{3})\\.log(\\.gz)?");
+        Map<Path, Long> fechados = new HashMap<>();
+        Path dir = ativo.toAbsolutePath().getParent();
+        if (dir != null && Files.isDirectory(dir)) {
+            try (DirectoryStream<Path> ficheiros = Files.newDirectoryStream(dir)) {
+                for (Path f : ficheiros) {
+                    Matcher m = nome.matcher(f.getFileName().toString());
+                    if (!m.matches())
+                        continue;
+                    long inicio = LocalDateTime.parse(m.group(1), FORMATO_SEGMENTO).atZone(ZoneId.systemDefault())
+                            .toInstant().toEpochMilli();
+                    fechados.put(dir.resolve(m.group(0).replace(EXT_COMPRIMIDO, "")), inicio);
+                }
+            }
+        }
+        List<Segmento> segmentos = new ArrayList<>();
+        fechados.forEach((log, inicio) -> segmentos.add(new Segmento(log, inicio, false)));
+        segmentos.sort((a, b) -> Long.compare(a.inicio, b.inicio));
+        segmentos.add(new Segmento(ativo.toAbsolutePath(), Long.MIN_VALUE, true));
+        return segmentos;
+    }
+
+    /**
+     * Lê um índice (plano ou .idx.gz) até ao primeiro registo depois de ateMs: os registos estão
+     * por ordem de tempo. Um registo final incompleto (escrita interrompida) é ignorado.
+     * Soma a lidos[0] (se não for null) os bytes lidos do disco.
+     */
+    static List<EntradaIndice> lerIndice(Path indice, long ateMs, long[] lidos) throws IOException {
+        List<EntradaIndice> entradas = new ArrayList<>();
+        FileChannel canal = FileChannel.open(indice);
+        InputStream bruto = new BufferedInputStream(Channels.newInputStream(canal));
+        try (DataInputStream in = new DataInputStream(
+                indice.toString().endsWith(EXT_COMPRIMIDO) ? new GZIPInputStream(bruto) : bruto)) {
+            try {
+                while (true) {
+                    long instante = in.readLong();
+                    if (instante > ateMs)
+                        break;
+                    long offset = in.readLong();
+                    int comprimento = in.readInt();
+                    String tipo = in.readUTF();
+                    int n = in.readUnsignedByte();
+                    List<String> threads = new ArrayList<>(n);
+                    for (int i = 0; i < n; i++)
+                        threads.add(in.readUTF());
+                    entradas.add(new EntradaIndice(instante, offset, comprimento, tipo, threads));
+                }
+            } catch (EOFException e) {
+                // Fim do índice
+            }
+            if (lidos != null)
+                lidos[0] += canal.position();
+        }
+        return entradas;
+    }
+
+    /**
+     * Percorre o texto de um segmento (plano ou comprimido) e junta a destino as entradas de um
+     * tipo (null = todos) em [desdeMs, ateMs] que mencionam a thread (null = todas). Serve os
+     * tipos fora do índice ([ACESSO]). Soma a lidos[0] os bytes lidos do disco.
+     */
+    static void varrer(Path log, String tipo, String thread, long desdeMs, long ateMs, List<String> destino,
+            long[] lidos) throws IOException {
+        FileChannel canal;
+        boolean comprimido = false;
+        try {
+            canal = FileChannel.open(log);
+        } catch (NoSuchFileException e) {
+            // Já comprimido
+            canal = FileChannel.open(Paths.get(log + EXT_COMPRIMIDO));
+            comprimido = true;
+        }
+        FileChannel lido = canal;
+        InputStream bruto = new BufferedInputStream(Channels.newInputStream(canal));
+        // Os membros gzip dos blocos são lidos em sequência como um único fluxo
+        try (InputStream in = comprimido ? new GZIPInputStream(bruto, 8192) : bruto) {
+            percorrerTexto(in, 0, (instante, offset, bytes, tipoEntrada) -> {
+                if (instante < desdeMs || instante > ateMs)
+                    return;
+                if (tipo != null && !tipo.equalsIgnoreCase(tipoEntrada))
+                    return;
+                String texto = texto(bytes);
+                if (thread == null || texto.contains(thread))
+                    destino.add(texto);
+            });
+            lidos[0] += lido.position();
+        }
+    }
+
+    /**
+     * Lê as entradas indicadas (por ordem de offset) de um segmento, plano ou comprimido.
+     */
+    static List<String> lerEntradas(Path log, List<EntradaIndice> entradas) throws IOException {
+        List<String> textos = new ArrayList<>(entradas.size());
+        try {
+            try (RandomAccessFile f = new RandomAccessFile(log.toFile(), "r")) {
+                for (EntradaIndice e : entradas) {
+                    byte[] bytes = new byte[e.comprimento];
+                    f.seek(e.offset);
+                    f.readFully(bytes);
+                    textos.add(texto(bytes));
+                }
+            }
+            return textos;
+        } catch (FileNotFoundException e) {
+            // Entretanto comprimido
+            textos.clear();
+        }
+        long[][] blocos = lerBlocos(Paths.get(log + EXT_BLOCOS));
+        try (RandomAccessFile f = new RandomAccessFile(log + EXT_COMPRIMIDO, "r")) {
+            InputStream in = null;
+            long posicao = 0; // offset descomprimido atual de "in"
+            for (EntradaIndice e : entradas) {
+                int b = blocoDe(blocos[0], e.offset);
+                // Entrada mais à frente no mesmo bloco (ou no seguinte): continua a descomprimir
+                if (in == null || e.offset < posicao || blocos[0][b] > posicao) {
+                    f.seek(blocos[1][b]);
+                    // Membro gzip do bloco; a leitura continua nos seguintes se a entrada atravessar
+                    in = new GZIPInputStream(Channels.newInputStream(f.getChannel()), 8192);
+                    posicao = blocos[0][b];
+                }
+                in.skipNBytes(e.offset - posicao);
+                textos.add(texto(in.readNBytes(e.comprimento)));
+                posicao = e.offset + e.comprimento;
+            }
+        }
+        return textos;
+    }
+
+    private static long[][] lerBlocos(Path blocos) throws IOException {
+        int n = (int) (Files.size(blocos) / 16);
+        long[][] tabela = new long[2][n];
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(blocos)))) {
+            for (int i = 0; i < n; i++) {
+                tabela[0][i] = in.readLong();
+                tabela[1][i] = in.readLong();
+            }
+        }
+        return tabela;
+    }
+
+    // Último bloco que começa antes (ou no) offset
+    private static int blocoDe(long[] inicios, long offset) {
+        int i = Arrays.binarySearch(inicios, offset);
+        return i >= 0 ? i : -i - 2;
+    }
+
+    private static String texto(byte[] bytes) {
+        String s = new String(bytes, StandardCharsets.UTF_8);
+        return s.endsWith(System.lineSeparator()) ? s.substring(0, s.length() - System.lineSeparator().length()) : s;
+    }
+
+    // --- AUXILIARES ---
+
+    /**
+     * Tipo de uma mensagem: a etiqueta inicial ([ACESSO], [INFO], ...) ou, nos alertas,
+     * o tipo de alerta (DEADLOCK, STARVATION, RACE CONDITION).
+     */
+    static String tipoDe(String mensagem) {
+        Matcher m = ETIQUETA.matcher(mensagem);
+        if (!m.find())
+            return "";
+        String etiqueta = m.group(1);
+        if (etiqueta.startsWith("ALERTA")) {
+            String resto = mensagem.substring(m.end());
+            for (String tipo : TIPOS_ALERTA)
+                if (resto.startsWith(tipo))
+                    return tipo;
+        }
+        return etiqueta;
+    }
+
+    /**
+     * Tipos com registo no índice: todos menos [ACESSO]. Uma consulta de todos os tipos (null)
+     * ou de [ACESSO] percorre o texto.
+     */
+    static boolean indexado(String tipo) {
+        return tipo != null && !TIPO_ACESSO.equalsIgnoreCase(tipo);
+    }
+
+    private static String nomeBase(Path ativo) {
+        String nome = ativo.getFileName().toString();
+        return nome.endsWith(".log") ? nome.substring(0, nome.length() - 4) : nome;
+    }
+
+    private static void escreverIndice(DataOutputStream out, EntradaIndice e) throws IOException {
+        out.writeLong(e.instante);
+        out.writeLong(e.offset);
+        out.writeInt(e.comprimento);
+        out.writeUTF(e.tipo);
+        int n = Math.min(255, e.threads.size());
+        out.writeByte(n);
+        for (int i = 0; i < n; i++)
+            out.writeUTF(e.threads.get(i));
+    }
+
+    private static void reescreverIndice(Path indice, List<EntradaIndice> entradas) throws IOException {
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(indice)))) {
+            for (EntradaIndice e : entradas)
+                escreverIndice(out, e);
+        }
+    }
+
+    /**
+     * Indexa o texto do log a partir de um offset (só os tipos indexados).
+     */
+    private static void indexarTexto(Path log, long desde, DataOutputStream out, List<EntradaIndice> destino)
+            throws IOException {
+        try (InputStream in = new BufferedInputStream(Files.newInputStream(log))) {
+            in.skipNBytes(desde);
+            percorrerTexto(in, desde, (instante, offset, bytes, tipo) -> {
+                if (!indexado(tipo))
+                    return;
+                EntradaIndice e = new EntradaIndice(instante, offset, bytes.length, tipo, Collections.emptyList());
+                escreverIndice(out, e);
+                destino.add(e);
+            });
+        }
+    }
+
+    private interface LeitorEntrada {
+        void entrada(long instante, long offset, byte[] bytes, String tipo) throws IOException;
+    }
+
+    /**
+     * Separa o texto em entradas: cada entrada começa com "[data hora] "; as linhas seguintes
+     * sem cabeçalho pertencem à mesma entrada. "desde" é o offset do primeiro byte de in.
+     */
+    private static void percorrerTexto(InputStream in, long desde, LeitorEntrada leitor) throws IOException {
+        Separador separador = new Separador(desde, leitor);
+        ByteArrayOutputStream linha = new ByteArrayOutputStream();
+        byte[] buffer = new byte[8192];
+        int n;
+        while ((n = in.read(buffer)) > 0) {
+            int inicio = 0;
+            for (int i = 0; i < n; i++) {
+                if (buffer[i] != '\n')
+                    continue;
+                linha.write(buffer, inicio, i + 1 - inicio);
+                separador.linha(linha.toByteArray());
+                linha.reset();
+                inicio = i + 1;
+            }
+            linha.write(buffer, inicio, n - inicio);
+        }
+        if (linha.size() > 0)
+            separador.linha(linha.toByteArray());
+        separador.terminarEntrada();
+    }
+
+    private static final class Separador {
+        private final LeitorEntrada leitor;
+        private final ByteArrayOutputStream entrada = new ByteArrayOutputStream();
+        private long pos;
+        private long inicioEntrada = -1;
+        private long instante;
+        private String data = ""; // Última data lida: as entradas do mesmo segundo não voltam a ser convertidas
+        private String tipo = "";
+
+        Separador(long desde, LeitorEntrada leitor) {
+            this.pos = desde;
+            this.leitor = leitor;
+        }
+
+        void linha(byte[] bytes) throws IOException {
+            if (bytes.length > 0 && bytes[0] == '[') {
+                Matcher m = CABECALHO.matcher(new String(bytes, StandardCharsets.UTF_8));
+                if (m.find()) {
+                    terminarEntrada();
+                    inicioEntrada = pos;
+                    if (!m.group(1).equals(data)) {
+                        data = m.group(1);
+                        instante = LocalDateTime.parse(data, FORMATO_ENTRADA).atZone(ZoneId.systemDefault())
+                                .toInstant().toEpochMilli();
+                    }
+                    tipo = tipoDe(m.group(2));
+                }
+            }
+            if (inicioEntrada >= 0)
+                entrada.write(bytes);
+            pos += bytes.length;
+        }
+
+        void terminarEntrada() throws IOException {
+            if (inicioEntrada >= 0)
+                leitor.entrada(instante, inicioEntrada, entrada.toByteArray(), tipo);
+            entrada.reset();
+        }
+    }
+}
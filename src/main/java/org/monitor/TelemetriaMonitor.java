@@ -0,0 +1,275 @@
+package org.monitor;
+
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.LongSupplier;
+
+/**
+ * Auto-telemetria do MonitorEBPF: contadores e temporizadores por probe/etapa e
+ * gauges do estado interno. Exposta por JMX (MXBean: um atributo por probe) e em snapshots
+ * periódicos no log.
+ * O registo usa LongAdder para não criar contenção nos probes.
+ */
+public class TelemetriaMonitor implements TelemetriaMonitorMXBean {
+    // Nomes das etapas do ciclo e do logger
+    public static final String ETAPA_DETECAO = "etapa.detecao";
+    public static final String ETAPA_STARVATION = "etapa.starvation";
+    public static final String ETAPA_LOG = "logger.log";
+
+    // Temporizadores das probes (nomes completos: registarProbe não concatena por invocação)
+    public static final String PROBE_REGISTAR_ACESSO = "probe.registarAcesso";
+    public static final String PROBE_UNSAFE_ENTER = "probe.probeUnsafeEnter";
+    public static final String PROBE_UNSAFE_EXIT = "probe.probeUnsafeExit";
+    public static final String PROBE_INICIO_ESPERA = "probe.registarInicioEspera";
+    public static final String PROBE_MUDANCA_MODO_LOCK = "probe.registarMudancaModoLock";
+    public static final String PROBE_AQUISICAO_MULTIPLA = "probe.registarAquisicaoMultipla";
+    public static final String PROBE_REGISTAR_ESPERA = "probe.registarEspera";
+    public static final String PROBE_REGISTAR_ALOCACAO = "probe.registarAlocacao";
+    public static final String PROBE_CANCELAR_ESPERA = "probe.cancelarEspera";
+    public static final String PROBE_REGISTAR_LIBERTACAO = "probe.registarLibertacao";
+
+    // Nomes dos gauges registados pelo monitor
+    public static final String GAUGE_ORDEM_EVENTOS = "ordemEventos";
+    public static final String GAUGE_CONTAGEM_ACESSOS = "contagemAcessos";
+    public static final String GAUGE_THREADS_VIGIADAS = "threadsVigiadas";
+    public static final String GAUGE_GRAFO = "grafo";
+
+    private static final class Temporizador {
+        final LongAdder contagem = new LongAdder();
+        final LongAdder totalNanos = new LongAdder();
+        final AtomicLong maxNanos = new AtomicLong();
+        volatile long ultimoNanos;
+
+        void registar(long nanos) {
+            contagem.increment();
+            totalNanos.add(nanos);
+            ultimoNanos = nanos;
+            long max;
+            while (nanos > (max = maxNanos.get()) && !maxNanos.compareAndSet(max, nanos)) {
+                // Repetir até o máximo estar atualizado
+            }
+        }
+
+        double mediaMs() {
+            long n = contagem.sum();
+            return n == 0 ? 0 : totalNanos.sum() / (n * 1_000_000.0);
+        }
+
+        Tempos tempos() {
+            return new Tempos(contagem.sum(), mediaMs(), maxNanos.get() / 1_000_000.0, ultimoNanos / 1_000_000.0);
+        }
+
+        void reiniciar() {
+            contagem.reset();
+            totalNanos.reset();
+            maxNanos.set(0);
+            ultimoNanos = 0;
+        }
+    }
+
+    private final Map<String, Temporizador> temporizadores = new ConcurrentHashMap<>();
+    private final Map<String, LongSupplier> gauges = new ConcurrentHashMap<>();
+    private final LongAdder totalEventos = new LongAdder();
+    private final LongAdder ticks = new LongAdder();
+
+    // Taxa de eventos calculada a cada tick do monitor
+    private volatile double eventosPorSegundo;
+    private long eventosUltimaTaxa;
+    private long nanosUltimaTaxa = System.nanoTime();
+
+    private Temporizador temporizador(String nome) {
+        Temporizador t = temporizadores.get(nome);
+        return t != null ? t : temporizadores.computeIfAbsent(nome, k -> new Temporizador());
+    }
+
+    /**
+     * Regista uma invocação de probe (conta como evento) iniciada em inicioNanos.
+     * probe é uma das constantes PROBE_*.
+     */
+    public void registarProbe(String probe, long inicioNanos) {
+        totalEventos.increment();
+        temporizador(probe).registar(System.nanoTime() - inicioNanos);
+    }
+
+    /**
+     * Regista a duração de uma etapa interna (deteção, starvation, logger).
+     */
+    public void registarEtapa(String etapa, long inicioNanos) {
+        temporizador(etapa).registar(System.nanoTime() - inicioNanos);
+    }
+
+    public void registarGauge(String nome, LongSupplier fonte) {
+        gauges.put(nome, fonte);
+    }
+
+    // Chamado pelo ciclo do monitor no fim de cada tick
+    public synchronized void registarTick() {
+        ticks.increment();
+        long agora = System.nanoTime();
+        long eventos = totalEventos.sum();
+        double segundos = (agora - nanosUltimaTaxa) / 1e9;
+        if (segundos > 0)
+            eventosPorSegundo = (eventos - eventosUltimaTaxa) / segundos;
+        eventosUltimaTaxa = eventos;
+        nanosUltimaTaxa = agora;
+    }
+
+    private long gauge(String nome) {
+        LongSupplier fonte = gauges.get(nome);
+        return fonte == null ? 0 : fonte.getAsLong();
+    }
+
+    private Temporizador existente(String nome) {
+        Temporizador t = temporizadores.get(nome);
+        return t != null ? t : new Temporizador();
+    }
+
+    // --- ATRIBUTOS JMX ---
+
+    @Override
+    public long getTotalEventos() {
+        return totalEventos.sum();
+    }
+
+    @Override
+    public double getEventosPorSegundo() {
+        return eventosPorSegundo;
+    }
+
+    @Override
+    public long getTicksMonitor() {
+        return ticks.sum();
+    }
+
+    @Override
+    public double getDetecaoUltimaMs() {
+        return existente(ETAPA_DETECAO).ultimoNanos / 1_000_000.0;
+    }
+
+    @Override
+    public double getDetecaoMaxMs() {
+        return existente(ETAPA_DETECAO).maxNanos.get() / 1_000_000.0;
+    }
+
+    @Override
+    public double getDetecaoMediaMs() {
+        return existente(ETAPA_DETECAO).mediaMs();
+    }
+
+    @Override
+    public double getStarvationMediaMs() {
+        return existente(ETAPA_STARVATION).mediaMs();
+    }
+
+    @Override
+    public double getLogBloqueioMedioMs() {
+        return existente(ETAPA_LOG).mediaMs();
+    }
+
+    @Override
+    public double getLogBloqueioMaxMs() {
+        return existente(ETAPA_LOG).maxNanos.get() / 1_000_000.0;
+    }
+
+    @Override
+    public long getTamanhoOrdemEventos() {
+        return gauge(GAUGE_ORDEM_EVENTOS);
+    }
+
+    @Override
+    public long getTamanhoContagemAcessos() {
+        return gauge(GAUGE_CONTAGEM_ACESSOS);
+    }
+
+    @Override
+    public long getThreadsVigiadas() {
+        return gauge(GAUGE_THREADS_VIGIADAS);
+    }
+
+    @Override
+    public long getTamanhoGrafo() {
+        return gauge(GAUGE_GRAFO);
+    }
+
+    @Override
+    public Tempos getProbeRegistarAcesso() {
+        return existente(PROBE_REGISTAR_ACESSO).tempos();
+    }
+
+    @Override
+    public Tempos getProbeUnsafeEnter() {
+        return existente(PROBE_UNSAFE_ENTER).tempos();
+    }
+
+    @Override
+    public Tempos getProbeUnsafeExit() {
+        return existente(PROBE_UNSAFE_EXIT).tempos();
+    }
+
+    @Override
+    public Tempos getProbeInicioEspera() {
+        return existente(PROBE_INICIO_ESPERA).tempos();
+    }
+
+    @Override
+    public Tempos getProbeMudancaModoLock() {
+        return existente(PROBE_MUDANCA_MODO_LOCK).tempos();
+    }
+
+    @Override
+    public Tempos getProbeAquisicaoMultipla() {
+        return existente(PROBE_AQUISICAO_MULTIPLA).tempos();
+    }
+
+    @Override
+    public Tempos getProbeRegistarEspera() {
+        return existente(PROBE_REGISTAR_ESPERA).tempos();
+    }
+
+    @Override
+    public Tempos getProbeRegistarAlocacao() {
+        return existente(PROBE_REGISTAR_ALOCACAO).tempos();
+    }
+
+    @Override
+    public Tempos getProbeCancelarEspera() {
+        return existente(PROBE_CANCELAR_ESPERA).tempos();
+    }
+
+    @Override
+    public Tempos getProbeRegistarLibertacao() {
+        return existente(PROBE_REGISTAR_LIBERTACAO).tempos();
+    }
+
+    @Override
+    public Map<String, Tempos> getTemporizadores() {
+        Map<String, Tempos> tempos = new TreeMap<>();
+        temporizadores.forEach((nome, t) -> tempos.put(nome, t.tempos()));
+        return tempos;
+    }
+
+    @Override
+    public String obterSnapshot() {
+        StringBuilder sb = new StringBuilder();
+        sb.append("--- Telemetria do Monitor ---\n");
+        sb.append(String.format("Eventos: %d (%.1f/s) | Ticks: %d%n", getTotalEventos(), eventosPorSegundo, getTicksMonitor()));
+        new TreeMap<>(gauges).forEach((nome, fonte) ->
+                sb.append("Gauge ").append(nome).append(": ").append(fonte.getAsLong()).append("\n"));
+        new TreeMap<>(temporizadores).forEach((nome, t) -> sb.append(String.format(
+                "%s: n=%d media=%.3fms max=%.3fms%n", nome, t.contagem.sum(), t.mediaMs(), t.maxNanos.get() / 1_000_000.0)));
+        return sb.toString();
+    }
+
+    @Override
+    public void reiniciar() {
+        temporizadores.values().forEach(Temporizador::reiniciar);
+        totalEventos.reset();
+        synchronized (this) {
+            eventosUltimaTaxa = 0;
+            eventosPorSegundo = 0;
+        }
+    }
+}
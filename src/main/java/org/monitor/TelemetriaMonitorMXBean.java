@@ -0,0 +1,100 @@
+package org.monitor;
+
+import java.util.Map;
+
+/**
+ * Interface JMX (MXBean) da telemetria do próprio monitor.
+ * Cada probe é um atributo CompositeData (contagem, mediaMs, maxMs, ultimaMs), utilizável
+ * diretamente por monitores JMX (ex: GaugeMonitor sobre "ProbeRegistarEspera.maxMs").
+ */
+public interface TelemetriaMonitorMXBean {
+    /**
+     * Tempos de um temporizador (probe ou etapa).
+     */
+    final class Tempos {
+        private final long contagem;
+        private final double mediaMs;
+        private final double maxMs;
+        private final double ultimaMs;
+
+        public Tempos(long contagem, double mediaMs, double maxMs, double ultimaMs) {
+            this.contagem = contagem;
+            this.mediaMs = mediaMs;
+            this.maxMs = maxMs;
+            this.ultimaMs = ultimaMs;
+        }
+
+        public long getContagem() {
+            return contagem;
+        }
+
+        public double getMediaMs() {
+            return mediaMs;
+        }
+
+        public double getMaxMs() {
+            return maxMs;
+        }
+
+        public double getUltimaMs() {
+            return ultimaMs;
+        }
+    }
+
+    long getTotalEventos();
+
+    double getEventosPorSegundo();
+
+    long getTicksMonitor();
+
+    double getDetecaoUltimaMs();
+
+    double getDetecaoMaxMs();
+
+    double getDetecaoMediaMs();
+
+    double getStarvationMediaMs();
+
+    double getLogBloqueioMedioMs();
+
+    double getLogBloqueioMaxMs();
+
+    long getTamanhoOrdemEventos();
+
+    long getTamanhoContagemAcessos();
+
+    long getThreadsVigiadas();
+
+    long getTamanhoGrafo();
+
+    // --- Probes (um atributo por probe) ---
+
+    Tempos getProbeRegistarAcesso();
+
+    Tempos getProbeUnsafeEnter();
+
+    Tempos getProbeUnsafeExit();
+
+    Tempos getProbeInicioEspera();
+
+    Tempos getProbeMudancaModoLock();
+
+    Tempos getProbeAquisicaoMultipla();
+
+    Tempos getProbeRegistarEspera();
+
+    Tempos getProbeRegistarAlocacao();
+
+    Tempos getProbeCancelarEspera();
+
+    Tempos getProbeRegistarLibertacao();
+
+    /**
+     * Todos os temporizadores (probes e etapas) por nome (TabularData no JMX).
+     */
+    Map<String, Tempos> getTemporizadores();
+
+    String obterSnapshot();
+
+    void reiniciar();
+}
@@ -1,43 +1,111 @@
 package org.resources;
 
-import java.util.concurrent.locks.Lock;
-import java.util.concurrent.locks.ReentrantLock;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import org.app.Config;
 import org.monitor.MonitorEBPF;
+import org.monitor.PipelineEventos;
 
 public class BaseDados {
     private final String nomeTabela;
-    private final Lock lock = new ReentrantLock();
+    // O LockAssincrono regista os Request/Allocation edges no Wait-for Graph
+    private final LockAssincrono lock;
+    // Opcional: as threads que usam bloqueioLeitura entram primeiro por este lock, servidas por
+    // prioridade efetiva (com herança), e só depois disputam o LockAssincrono com as transações
+    private final LockPrioridade filaPrioridade;
 
     public BaseDados(String nomeTabela) {
+        this(nomeTabela, Config.BD_LOCK_PRIORIDADE);
+    }
+
+    public BaseDados(String nomeTabela, boolean lockPrioridade) {
         this.nomeTabela = nomeTabela;
+        this.lock = new LockAssincrono("DB:" + nomeTabela);
+        this.filaPrioridade = lockPrioridade ? new LockPrioridade("DB:" + nomeTabela + "(Prioridade)") : null;
     }
 
     public void bloqueioLeitura() {
         try {
-            // [Monitor] Registo no Grafo de Espera (Request Edge)
-            MonitorEBPF.getInstance().getDetector().registarEspera(Thread.currentThread(), lock);
-            MonitorEBPF.getInstance().registarInicioEspera(Thread.currentThread(), "DB:" + nomeTabela);
+            MonitorEBPF.getInstance().registarInicioEspera(Thread.currentThread(), "DB:" + nomeTabela, lock);
 
-            lock.lockInterruptibly();
+            if (filaPrioridade != null)
+                filaPrioridade.lockInterruptibly();
+            try {
+                lock.adquirir();
+            } catch (InterruptedException e) {
+                if (filaPrioridade != null)
+                    filaPrioridade.unlock();
+                throw e;
+            }
             
-            // [Monitor] Registo no Grafo de Espera (Allocation Edge - já obteve)
-            MonitorEBPF.getInstance().getDetector().registarAlocacao(Thread.currentThread(), lock);
-            MonitorEBPF.getInstance().registarAcesso(Thread.currentThread(), "DB:" + nomeTabela);
+            MonitorEBPF.getInstance().registarAcesso(Thread.currentThread(), "DB:" + nomeTabela, lock);
 
-            System.out.println(" [DB] Tabela '" + nomeTabela + "' BLOQUEADA por " + Thread.currentThread().getName());
+            PipelineEventos.publicar(" [DB] Tabela '" + nomeTabela + "' BLOQUEADA por " + Thread.currentThread().getName());
         } catch (InterruptedException e) {
-            System.err.println(" [ERRO] Interrupção ao aceder à tabela: " + nomeTabela);
+            PipelineEventos.aviso(" [ERRO] Interrupção ao aceder à tabela: " + nomeTabela);
             Thread.currentThread().interrupt();
         }
     }
 
     public void desbloquear() {
-        if (((ReentrantLock) lock).isHeldByCurrentThread()) {
-            // [Monitor] Limpeza do Grafo
-            MonitorEBPF.getInstance().getDetector().registarLibertacao(Thread.currentThread(), lock);
+        if (lock.libertar(Thread.currentThread())) {
+            if (filaPrioridade != null && filaPrioridade.isHeldByCurrentThread())
+                filaPrioridade.unlock();
+            PipelineEventos.publicar(" [DB] Tabela '" + nomeTabela + "' LIBERTADA por " + Thread.currentThread().getName());
+        }
+    }
 
-            lock.unlock();
-            System.out.println(" [DB] Tabela '" + nomeTabela + "' LIBERTADA por " + Thread.currentThread().getName());
+    /**
+     * Transação multi-tabela para a thread atual: ordenação canónica, tryLock com backoff
+     * e libertação total em caso de falha. Devolve false se o prazo expirar (abort).
+     */
+    public static boolean bloqueioTodas(Collection<BaseDados> tabelas, long timeout, TimeUnit unit)
+            throws InterruptedException {
+        boolean ok = LockAssincrono.adquirirTodos(Thread.currentThread(), locksDe(tabelas), timeout, unit);
+        if (ok) {
+            for (BaseDados t : tabelas)
+                MonitorEBPF.getInstance().registarAcesso(Thread.currentThread(), "DB:" + t.nomeTabela, t.lock);
         }
+        return ok;
+    }
+
+    public static void desbloquearTodas(Collection<BaseDados> tabelas) {
+        desbloquearTodas(Thread.currentThread(), tabelas);
+    }
+
+    // --- API ASSÍNCRONA (o dono é a transação, não a thread) ---
+
+    public CompletableFuture<Void> bloqueioLeituraAsync(Object transacao, long timeout, TimeUnit unit) {
+        return lock.adquirirAsync(transacao, timeout, unit);
+    }
+
+    public void desbloquear(Object transacao) {
+        lock.libertar(transacao);
+    }
+
+    /**
+     * Bloqueia várias tabelas para a mesma transação, sem espera circular.
+     */
+    public static CompletableFuture<Void> bloqueioTodasAsync(Object transacao, Collection<BaseDados> tabelas,
+            long timeout, TimeUnit unit) {
+        return LockAssincrono.adquirirTodosAsync(transacao, locksDe(tabelas), timeout, unit);
+    }
+
+    public static void desbloquearTodas(Object transacao, Collection<BaseDados> tabelas) {
+        LockAssincrono.libertarTodos(transacao, locksDe(tabelas));
+    }
+
+    private static List<LockAssincrono> locksDe(Collection<BaseDados> tabelas) {
+        List<LockAssincrono> locks = new ArrayList<>();
+        for (BaseDados t : tabelas)
+            locks.add(t.lock);
+        return locks;
+    }
+
+    public String getNomeTabela() {
+        return nomeTabela;
     }
-}
\ No newline at end of file
+}
@@ -1,45 +1,50 @@
 package org.resources;
 
-import java.util.concurrent.locks.Lock;
-import java.util.concurrent.locks.ReentrantLock;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
 import org.monitor.MonitorEBPF;
+import org.monitor.PipelineEventos;
 
 public class EquipamentoMedico {
     private final String nome;
-    private final Lock lock = new ReentrantLock();
+    // O LockAssincrono regista os Request/Allocation edges no Wait-for Graph
+    private final LockAssincrono lock;
 
     public EquipamentoMedico(String nome) {
         this.nome = nome;
+        this.lock = new LockAssincrono("Equipamento:" + nome);
     }
 
     public void usar() {
         try {
-            // [Monitor] Registar que a thread quer o recurso
-            MonitorEBPF.getInstance().getDetector().registarEspera(Thread.currentThread(), lock);
             MonitorEBPF.getInstance().registarInicioEspera(Thread.currentThread(), "Equipamento:" + nome);
             
-            lock.lockInterruptibly();
+            lock.adquirir();
             
-            // [Monitor] Registar que a thread obteve o recurso
-            MonitorEBPF.getInstance().getDetector().registarAlocacao(Thread.currentThread(), lock);
             MonitorEBPF.getInstance().registarAcesso(Thread.currentThread(), "Equipamento:" + nome);
             
-            System.out.println(" -> " + Thread.currentThread().getName() + " bloqueou o " + nome);
+            PipelineEventos.publicar(" -> " + Thread.currentThread().getName() + " bloqueou o " + nome);
         } catch (InterruptedException e) {
-            System.out.println(" -> " + Thread.currentThread().getName() + " foi interrompido no " + nome);
+            PipelineEventos.publicar(" -> " + Thread.currentThread().getName() + " foi interrompido no " + nome);
             Thread.currentThread().interrupt(); 
         }
     }
 
     public void libertar() {
-        if (((ReentrantLock)lock).isHeldByCurrentThread()) {
-            // [Monitor] Registar libertação
-            MonitorEBPF.getInstance().getDetector().registarLibertacao(Thread.currentThread(), lock);
-            
-            lock.unlock();
-            System.out.println(" -> " + Thread.currentThread().getName() + " libertou o " + nome);
+        if (lock.libertar(Thread.currentThread())) {
+            PipelineEventos.publicar(" -> " + Thread.currentThread().getName() + " libertou o " + nome);
         }
     }
 
+    // --- API ASSÍNCRONA (o dono é a transação, não a thread) ---
+
+    public CompletableFuture<Void> usarAsync(Object transacao, long timeout, TimeUnit unit) {
+        return lock.adquirirAsync(transacao, timeout, unit);
+    }
+
+    public void libertar(Object transacao) {
+        lock.libertar(transacao);
+    }
+
     public String getNome() { return nome; }
-}
\ No newline at end of file
+}
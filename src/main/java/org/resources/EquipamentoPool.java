@@ -0,0 +1,306 @@
+package org.resources;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLongArray;
+import org.monitor.DetectorDeadlock;
+import org.monitor.MonitorEBPF;
+
+/**
+ * Pool de equipamentos médicos intercambiáveis (ex: N ventiladores, M monitores).
+ * A alocação de k-de-n unidades de vários tipos é atómica (tudo ou nada), pelo
+ * que nunca existe Hold-and-Wait: quem falha não fica com nenhuma unidade.
+ *
+ * No Wait-for Graph, cada unidade obtida é uma Allocation edge, mas a espera é registada
+ * contra o tipo (um recurso sem detentor único): qualquer unidade que volte liberta quem
+ * espera (espera OU), que não deve ser lida como espera por cada unidade (E). Assim, as
+ * esperas no pool não formam ciclos com as unidades ocupadas nem geram falsos DEADLOCK.
+ */
+public class EquipamentoPool {
+    private final String nome;
+    private final Map<String, Tipo> tipos = new ConcurrentHashMap<>();
+
+    // Threads à espera de unidades (acordadas em cada libertação)
+    private final Object sinalLibertacao = new Object();
+    private final AtomicInteger threadsEmEspera = new AtomicInteger();
+
+    public EquipamentoPool(String nome) {
+        this.nome = nome;
+    }
+
+    /**
+     * Tipo de equipamento: as unidades livres são um bitmap lock-free (bit a 1 = livre).
+     */
+    private static final class Tipo {
+        final String pool;
+        final String nome;
+        final EquipamentoMedico[] unidades;
+        final AtomicLongArray livres;
+        final AtomicInteger disponiveis;
+
+        // Contabilidade de utilização por unidade
+        final AtomicLongArray inicioUso;
+        final AtomicLongArray tempoOcupadoNanos;
+        final AtomicLongArray usos;
+
+        Tipo(String pool, String nome, int quantidade) {
+            this.pool = pool;
+            this.nome = nome;
+            this.unidades = new EquipamentoMedico[quantidade];
+            for (int i = 0; i < quantidade; i++)
+                unidades[i] = new EquipamentoMedico(nome + "#" + (i + 1));
+            this.livres = new AtomicLongArray((quantidade + 63) / 64);
+            for (int i = 0; i < quantidade; i++)
+                livres.set(i / 64, livres.get(i / 64) | (1L << (i % 64)));
+            this.disponiveis = new AtomicInteger(quantidade);
+            this.inicioUso = new AtomicLongArray(quantidade);
+            this.tempoOcupadoNanos = new AtomicLongArray(quantidade);
+            this.usos = new AtomicLongArray(quantidade);
+        }
+
+        // Reserva k unidades no contador (sem ainda escolher quais)
+        boolean reservar(int k) {
+            if (k <= 0 || k > unidades.length)
+                throw new IllegalArgumentException("Reserva inválida de " + k + " " + nome);
+            while (true) {
+                int d = disponiveis.get();
+                if (d < k)
+                    return false;
+                if (disponiveis.compareAndSet(d, d - k))
+                    return true;
+            }
+        }
+
+        void cancelarReserva(int k) {
+            disponiveis.addAndGet(k);
+        }
+
+        // Só é chamado após reservar(): existe garantidamente um bit livre
+        int reclamarUnidade() {
+            while (true) {
+                for (int w = 0; w < livres.length(); w++) {
+                    long palavra = livres.get(w);
+                    while (palavra != 0) {
+                        int bit = Long.numberOfTrailingZeros(palavra);
+                        if (livres.compareAndSet(w, palavra, palavra & ~(1L << bit))) {
+                            int idx = w * 64 + bit;
+                            inicioUso.set(idx, System.nanoTime());
+                            usos.incrementAndGet(idx);
+                            return idx;
+                        }
+                        palavra = livres.get(w);
+                    }
+                }
+                Thread.onSpinWait(); // Outra thread reservou e ainda não libertou o bit
+            }
+        }
+
+        void devolverUnidade(int idx) {
+            tempoOcupadoNanos.addAndGet(idx, System.nanoTime() - inicioUso.get(idx));
+            int w = idx / 64;
+            long mascara = 1L << (idx % 64);
+            while (true) {
+                long palavra = livres.get(w);
+                if (livres.compareAndSet(w, palavra, palavra | mascara))
+                    break;
+            }
+            disponiveis.incrementAndGet();
+        }
+
+        // Nome do recurso de espera no Wait-for Graph
+        @Override
+        public String toString() {
+            return "Pool:" + pool + "/" + nome;
+        }
+    }
+
+    /**
+     * Resultado de uma aquisição bem sucedida. Deve ser devolvido com libertar().
+     */
+    public static final class Alocacao {
+        private final Thread dono;
+        private final List<Tipo> tipos = new ArrayList<>();
+        private final List<Integer> indices = new ArrayList<>();
+        private final List<EquipamentoMedico> equipamentos = new ArrayList<>();
+        private boolean libertada = false;
+
+        private Alocacao(Thread dono) {
+            this.dono = dono;
+        }
+
+        public List<EquipamentoMedico> getEquipamentos() {
+            return Collections.unmodifiableList(equipamentos);
+        }
+    }
+
+    public void adicionarTipo(String tipo, int quantidade) {
+        if (quantidade <= 0)
+            throw new IllegalArgumentException("Quantidade inválida para " + tipo + ": " + quantidade);
+        if (tipos.putIfAbsent(tipo, new Tipo(nome, tipo, quantidade)) != null)
+            throw new IllegalStateException("Tipo já registado no pool: " + tipo);
+    }
+
+    /**
+     * Tentativa não bloqueante: devolve null se algum tipo não tiver unidades suficientes.
+     * Um pedido vazio ou com uma quantidade fora de [1, unidades do tipo] é rejeitado
+     * (IllegalArgumentException) antes de qualquer reserva.
+     */
+    public Alocacao tentarAdquirir(Map<String, Integer> pedido) {
+        // Ordem canónica dos tipos (TreeMap) para reservas previsíveis
+        Map<String, Integer> ordenado = new TreeMap<>(pedido);
+        validar(ordenado);
+        List<Tipo> reservados = new ArrayList<>();
+        List<Integer> quantidades = new ArrayList<>();
+
+        for (Map.Entry<String, Integer> e : ordenado.entrySet()) {
+            Tipo tipo = obterTipo(e.getKey());
+            int k = e.getValue();
+            if (!tipo.reservar(k)) {
+                // Tudo ou nada: desfaz as reservas anteriores (sem Hold-and-Wait)
+                for (int i = 0; i < reservados.size(); i++)
+                    reservados.get(i).cancelarReserva(quantidades.get(i));
+                if (!reservados.isEmpty())
+                    acordarEsperas();
+                return null;
+            }
+            reservados.add(tipo);
+            quantidades.add(k);
+        }
+
+        Thread atual = Thread.currentThread();
+        DetectorDeadlock detector = MonitorEBPF.getInstance().getDetector();
+        Alocacao alocacao = new Alocacao(atual);
+        for (int i = 0; i < reservados.size(); i++) {
+            Tipo tipo = reservados.get(i);
+            for (int j = 0; j < quantidades.get(i); j++) {
+                int idx = tipo.reclamarUnidade();
+                alocacao.tipos.add(tipo);
+                alocacao.indices.add(idx);
+                alocacao.equipamentos.add(tipo.unidades[idx]);
+                // [Monitor] Allocation edge por unidade
+                detector.registarAlocacao(atual, tipo.unidades[idx]);
+            }
+        }
+        MonitorEBPF.getInstance().registarAcesso(atual, "Pool:" + nome + ordenado);
+        return alocacao;
+    }
+
+    /**
+     * Aquisição com timeout. A thread espera sem deter unidades; devolve null se o prazo expirar.
+     */
+    public Alocacao adquirir(Map<String, Integer> pedido, long timeout, TimeUnit unit) throws InterruptedException {
+        Alocacao alocacao = tentarAdquirir(pedido);
+        if (alocacao != null)
+            return alocacao;
+
+        Thread atual = Thread.currentThread();
+        MonitorEBPF monitor = MonitorEBPF.getInstance();
+        DetectorDeadlock detector = monitor.getDetector();
+        long prazo = System.nanoTime() + unit.toNanos(timeout);
+
+        // [Monitor] Um Request edge por tipo pedido (espera OU sobre as unidades do tipo)
+        List<Object> aguardados = new ArrayList<>();
+        for (String t : pedido.keySet()) {
+            Tipo tipo = obterTipo(t);
+            detector.registarEspera(atual, tipo);
+            aguardados.add(tipo);
+        }
+        monitor.registarInicioEspera(atual, "Pool:" + nome);
+
+        threadsEmEspera.incrementAndGet();
+        try {
+            while (true) {
+                long restante = prazo - System.nanoTime();
+                if (restante <= 0)
+                    return null;
+                synchronized (sinalLibertacao) {
+                    alocacao = tentarAdquirir(pedido);
+                    if (alocacao != null)
+                        return alocacao;
+                    TimeUnit.NANOSECONDS.timedWait(sinalLibertacao, restante);
+                }
+            }
+        } finally {
+            threadsEmEspera.decrementAndGet();
+            for (Object tipo : aguardados)
+                detector.cancelarEspera(atual, tipo);
+        }
+    }
+
+    public void libertar(Alocacao alocacao) {
+        if (alocacao == null)
+            return;
+        synchronized (alocacao) {
+            if (alocacao.libertada)
+                return;
+            alocacao.libertada = true;
+        }
+        DetectorDeadlock detector = MonitorEBPF.getInstance().getDetector();
+        for (int i = 0; i < alocacao.indices.size(); i++) {
+            Tipo tipo = alocacao.tipos.get(i);
+            int idx = alocacao.indices.get(i);
+            // [Monitor] Limpeza do Grafo antes de a unidade voltar a estar visível
+            detector.registarLibertacao(alocacao.dono, tipo.unidades[idx]);
+            tipo.devolverUnidade(idx);
+        }
+        acordarEsperas();
+    }
+
+    private void acordarEsperas() {
+        if (threadsEmEspera.get() > 0) {
+            synchronized (sinalLibertacao) {
+                sinalLibertacao.notifyAll();
+            }
+        }
+    }
+
+    // Pedido completo verificado antes de reservar: uma exceção a meio deixaria reservas por desfazer
+    private void validar(Map<String, Integer> pedido) {
+        if (pedido.isEmpty())
+            throw new IllegalArgumentException("Pedido vazio ao pool '" + nome + "'");
+        for (Map.Entry<String, Integer> e : pedido.entrySet()) {
+            Tipo tipo = obterTipo(e.getKey());
+            Integer k = e.getValue();
+            if (k == null || k <= 0)
+                throw new IllegalArgumentException("Quantidade inválida de " + tipo.nome + ": " + k);
+            if (k > tipo.unidades.length)
+                throw new IllegalArgumentException("Pedido de " + k + " " + tipo.nome + " excede o pool (" + tipo.unidades.length + ")");
+        }
+    }
+
+    private Tipo obterTipo(String tipo) {
+        Tipo t = tipos.get(tipo);
+        if (t == null)
+            throw new IllegalArgumentException("Tipo desconhecido no pool '" + nome + "': " + tipo);
+        return t;
+    }
+
+    public int getDisponiveis(String tipo) {
+        return obterTipo(tipo).disponiveis.get();
+    }
+
+    public String obterRelatorioUtilizacao() {
+        StringBuilder sb = new StringBuilder();
+        sb.append("--- Utilização do Pool '").append(nome).append("' ---\n");
+        new TreeMap<>(tipos).forEach((n, tipo) -> {
+            sb.append(n).append(" (livres ").append(tipo.disponiveis.get())
+                    .append("/").append(tipo.unidades.length).append(")\n");
+            for (int i = 0; i < tipo.unidades.length; i++) {
+                sb.append("  ").append(tipo.unidades[i].getNome())
+                        .append(": ").append(tipo.usos.get(i)).append(" usos, ")
+                        .append(TimeUnit.NANOSECONDS.toMillis(tipo.tempoOcupadoNanos.get(i))).append("ms ocupado\n");
+            }
+        });
+        return sb.toString();
+    }
+
+    public String getNome() {
+        return nome;
+    }
+}
@@ -0,0 +1,198 @@
+package org.resources;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.AbstractQueuedSynchronizer;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.Lock;
+import org.app.GestorConfiguracao;
+import org.monitor.InjetorFalhas;
+import org.monitor.MonitorEBPF;
+
+/**
+ * Lock de justiça adaptativa (Starvation sem o custo de um Fair Lock).
+ * Por omissão comporta-se como um lock injusto (barging): quem chega pode
+ * ultrapassar a fila. Quando o primeiro da fila espera mais do que o limite, o lock
+ * passa a modo FIFO (handoff) até esse waiter ser servido.
+ *
+ * Quem espera entra uma única vez na fila do AQS e só sai quando é servido: a mudança
+ * de modo não o volta a pôr no fim da fila, apenas impede os outros de o ultrapassar.
+ *
+ * O modo só é avaliado com a fila não vazia: a aquisição sem contenção custa o mesmo que a de
+ * um lock injusto. As mudanças de modo são todas contadas, mas chegam ao log do monitor no
+ * máximo uma vez por INTERVALO_REGISTO_MS (sob flood o modo pode alternar a cada entrega).
+ */
+public class LockAdaptativo implements Lock {
+    private static final long INTERVALO_REGISTO_MS = 1000;
+
+    private final String nome;
+    private final long limiteEsperaNanos;
+    private final Sync sync = new Sync();
+
+    // Início da espera de cada thread na fila (só no caminho lento); tryLock com prazo não regista
+    private final Map<Thread, Long> inicioEspera = new ConcurrentHashMap<>();
+    // Enquanto o primeiro da fila estiver acima do limite, o lock funciona em FIFO (mudado por CAS)
+    private final AtomicBoolean modoFifo = new AtomicBoolean(false);
+    private final AtomicLong mudancasModo = new AtomicLong();
+    private final AtomicLong ultimoRegistoNanos =
+            new AtomicLong(System.nanoTime() - TimeUnit.MILLISECONDS.toNanos(INTERVALO_REGISTO_MS));
+
+    /**
+     * Limite de espera alimentado pelo threshold de Starvation do monitor.
+     */
+    public LockAdaptativo(String nome) {
+        this(nome, GestorConfiguracao.atual().getStarvationLimiteMs());
+    }
+
+    public LockAdaptativo(String nome, long limiteEsperaMs) {
+        this.nome = nome;
+        this.limiteEsperaNanos = TimeUnit.MILLISECONDS.toNanos(limiteEsperaMs);
+    }
+
+    private final class Sync extends AbstractQueuedSynchronizer {
+        private static final long serialVersionUID = 1L;
+
+        @Override
+        protected boolean tryAcquire(int acquires) {
+            Thread atual = Thread.currentThread();
+            int c = getState();
+            if (c == 0) {
+                // Em modo FIFO ninguém pode ultrapassar quem já está na fila (sem fila, não há modo a avaliar)
+                if (hasQueuedThreads() && verificarModo() && hasQueuedPredecessors())
+                    return false;
+                if (compareAndSetState(0, acquires)) {
+                    setExclusiveOwnerThread(atual);
+                    return true;
+                }
+            } else if (atual == getExclusiveOwnerThread()) {
+                setState(c + acquires); // Reentrância
+                return true;
+            }
+            return false;
+        }
+
+        @Override
+        protected boolean tryRelease(int releases) {
+            if (Thread.currentThread() != getExclusiveOwnerThread())
+                throw new IllegalMonitorStateException();
+            int c = getState() - releases;
+            boolean livre = c == 0;
+            if (livre)
+                setExclusiveOwnerThread(null);
+            setState(c);
+            return livre;
+        }
+
+        @Override
+        protected boolean isHeldExclusively() {
+            return getExclusiveOwnerThread() == Thread.currentThread();
+        }
+
+        // Modo atual: FIFO se o primeiro da fila (o que espera há mais tempo) passou o limite
+        boolean verificarModo() {
+            Thread primeiro = getFirstQueuedThread();
+            Long inicio = primeiro == null ? null : inicioEspera.get(primeiro);
+            long espera = inicio == null ? 0 : System.nanoTime() - inicio;
+            boolean fifo = inicio != null && espera >= limiteEsperaNanos;
+            if (fifo != modoFifo.get())
+                mudarModo(fifo, espera);
+            return fifo;
+        }
+
+        Condition novaCondicao() {
+            return new ConditionObject();
+        }
+    }
+
+    private void adquirir(boolean interruptivel) throws InterruptedException {
+        InjetorFalhas.ponto("LockAdaptativo.adquirir");
+        if (sync.tryAcquire(1))
+            return;
+
+        Thread atual = Thread.currentThread();
+        inicioEspera.put(atual, System.nanoTime());
+        try {
+            if (interruptivel)
+                sync.acquireInterruptibly(1);
+            else
+                sync.acquire(1);
+        } finally {
+            inicioEspera.remove(atual);
+            // Servido (ou desistiu): o modo passa a depender do seguinte; sem fila volta a barging
+            if (sync.hasQueuedThreads())
+                sync.verificarModo();
+            else if (modoFifo.get())
+                mudarModo(false, 0);
+        }
+    }
+
+    // Só quem ganha o CAS conta (e eventualmente regista) a mudança
+    private void mudarModo(boolean fifo, long esperaNanos) {
+        if (!modoFifo.compareAndSet(!fifo, fifo))
+            return;
+        mudancasModo.incrementAndGet();
+        long agora = System.nanoTime();
+        long ultimo = ultimoRegistoNanos.get();
+        if (agora - ultimo >= TimeUnit.MILLISECONDS.toNanos(INTERVALO_REGISTO_MS)
+                && ultimoRegistoNanos.compareAndSet(ultimo, agora))
+            MonitorEBPF.getInstance().registarMudancaModoLock(nome, fifo, TimeUnit.NANOSECONDS.toMillis(esperaNanos));
+    }
+
+    @Override
+    public void lock() {
+        try {
+            adquirir(false);
+        } catch (InterruptedException e) {
+            // Impossível: o modo não interruptível nunca propaga a interrupção
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    @Override
+    public void lockInterruptibly() throws InterruptedException {
+        if (Thread.interrupted())
+            throw new InterruptedException();
+        adquirir(true);
+    }
+
+    @Override
+    public boolean tryLock() {
+        return sync.tryAcquire(1);
+    }
+
+    // Espera limitada pelo chamador: não escala para FIFO
+    @Override
+    public boolean tryLock(long time, TimeUnit unit) throws InterruptedException {
+        return sync.tryAcquireNanos(1, unit.toNanos(time));
+    }
+
+    @Override
+    public void unlock() {
+        InjetorFalhas.ponto("LockAdaptativo.libertar");
+        sync.release(1);
+    }
+
+    @Override
+    public Condition newCondition() {
+        return sync.novaCondicao();
+    }
+
+    public boolean isHeldByCurrentThread() {
+        return sync.isHeldExclusively();
+    }
+
+    public boolean isModoFifo() {
+        return modoFifo.get();
+    }
+
+    public long getMudancasModo() {
+        return mudancasModo.get();
+    }
+
+    public String getNome() {
+        return nome;
+    }
+}
@@ -0,0 +1,337 @@
+package org.resources;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.Deque;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import org.monitor.DetectorDeadlock;
+import org.monitor.EscalonadorControlado;
+import org.monitor.InjetorFalhas;
+import org.monitor.MonitorEBPF;
+
+/**
+ * Lock de exclusão mútua com aquisição assíncrona (CompletableFuture).
+ * O dono é um participante arbitrário (Thread ou transação assíncrona): os pedidos
+ * pendentes ficam numa fila FIFO e são completados na libertação, sem estacionar threads.
+ * Os pedidos pendentes aparecem no Wait-for Graph como Request edges do seu dono.
+ */
+public class LockAssincrono {
+    // Ordem canónica global (para aquisições múltiplas sem espera circular)
+    private static final AtomicLong SEQUENCIA = new AtomicLong();
+
+    // Único temporizador partilhado para os timeouts de todos os pedidos
+    private static final ScheduledThreadPoolExecutor TEMPORIZADOR;
+    static {
+        TEMPORIZADOR = new ScheduledThreadPoolExecutor(1, r -> {
+            Thread t = Executors.defaultThreadFactory().newThread(r);
+            t.setName("Lock-Timeouts");
+            t.setDaemon(true);
+            return t;
+        });
+        TEMPORIZADOR.setRemoveOnCancelPolicy(true);
+    }
+
+    // Limites do backoff exponencial da aquisição múltipla
+    private static final long BACKOFF_INICIAL_NANOS = TimeUnit.MICROSECONDS.toNanos(500);
+    private static final long BACKOFF_MAXIMO_NANOS = TimeUnit.MILLISECONDS.toNanos(64);
+
+    private final String nome;
+    private final long ordem = SEQUENCIA.incrementAndGet();
+
+    // Estado protegido por 'this'
+    private Object dono;
+    private int contagem;
+    private final Deque<Pedido> fila = new ArrayDeque<>();
+
+    private static final class Pedido {
+        final Object dono;
+        final CompletableFuture<Void> futuro = new CompletableFuture<>();
+
+        Pedido(Object dono) {
+            this.dono = dono;
+        }
+    }
+
+    public LockAssincrono(String nome) {
+        this.nome = nome;
+    }
+
+    /**
+     * Pedido sem prazo (usado pelo caminho síncrono).
+     */
+    public CompletableFuture<Void> adquirirAsync(Object dono) {
+        return adquirirAsync(dono, -1, TimeUnit.NANOSECONDS, false);
+    }
+
+    /**
+     * Pedido com prazo: o futuro falha com TimeoutException se expirar.
+     * Cancelar o futuro retira o pedido da fila.
+     */
+    public CompletableFuture<Void> adquirirAsync(Object dono, long timeout, TimeUnit unit) {
+        return adquirirAsync(dono, timeout, unit, true);
+    }
+
+    private CompletableFuture<Void> adquirirAsync(Object dono, long timeout, TimeUnit unit, boolean comPrazo) {
+        InjetorFalhas.ponto("LockAssincrono.adquirir", this);
+        DetectorDeadlock detector = MonitorEBPF.getInstance().getDetector();
+        Pedido pedido = new Pedido(dono);
+        synchronized (this) {
+            if (this.dono == null || this.dono == dono) {
+                this.dono = dono;
+                contagem++;
+                detector.registarAlocacao(dono, this);
+                pedido.futuro.complete(null);
+                return pedido.futuro;
+            }
+            if (comPrazo && timeout <= 0) {
+                pedido.futuro.completeExceptionally(new TimeoutException("Lock '" + nome + "' ocupado"));
+                return pedido.futuro;
+            }
+            // [Monitor] Request edge do dono (Thread ou transação assíncrona)
+            detector.registarEspera(dono, this);
+            fila.addLast(pedido);
+        }
+
+        ScheduledFuture<?> tarefaTimeout = null;
+        if (comPrazo) {
+            tarefaTimeout = TEMPORIZADOR.schedule(() -> pedido.futuro.completeExceptionally(
+                    new TimeoutException("Timeout no lock '" + nome + "'")), timeout, unit);
+        }
+        ScheduledFuture<?> tarefa = tarefaTimeout;
+        pedido.futuro.whenComplete((r, e) -> {
+            if (tarefa != null)
+                tarefa.cancel(false);
+            if (e != null)
+                desistir(pedido);
+        });
+        return pedido.futuro;
+    }
+
+    // Pedido expirado ou cancelado antes de ser servido
+    private void desistir(Pedido pedido) {
+        synchronized (this) {
+            if (fila.remove(pedido))
+                MonitorEBPF.getInstance().getDetector().cancelarEspera(pedido.dono, this);
+        }
+    }
+
+    public boolean tentarAdquirir(Object dono) {
+        InjetorFalhas.ponto("LockAssincrono.adquirir", this);
+        synchronized (this) {
+            if (this.dono == null || this.dono == dono) {
+                this.dono = dono;
+                contagem++;
+                MonitorEBPF.getInstance().getDetector().registarAlocacao(dono, this);
+                return true;
+            }
+            return false;
+        }
+    }
+
+    /**
+     * Aquisição síncrona interruptível sobre o mesmo mecanismo (o dono é a thread atual).
+     */
+    public void adquirir() throws InterruptedException {
+        Thread atual = Thread.currentThread();
+        if (EscalonadorControlado.isControlada()) {
+            // Execução controlada: espera cooperativa, o escalonador decide quem avança
+            DetectorDeadlock detector = MonitorEBPF.getInstance().getDetector();
+            while (!tentarAdquirir(atual)) {
+                detector.registarEspera(atual, this);
+                try {
+                    EscalonadorControlado.bloquear(this, () -> isLivrePara(atual));
+                } finally {
+                    detector.cancelarEspera(atual, this);
+                }
+            }
+            return;
+        }
+        CompletableFuture<Void> futuro = adquirirAsync(atual);
+        try {
+            futuro.get();
+        } catch (InterruptedException e) {
+            // Se o lock já tinha sido entregue, devolve-o
+            if (!futuro.cancel(false))
+                libertar(atual);
+            throw e;
+        } catch (ExecutionException e) {
+            throw new IllegalStateException(e.getCause());
+        }
+    }
+
+    /**
+     * Liberta uma posse do dono e entrega o lock ao próximo pedido da fila (handoff).
+     */
+    public boolean libertar(Object dono) {
+        InjetorFalhas.ponto("LockAssincrono.libertar", this);
+        Pedido seguinte;
+        synchronized (this) {
+            if (this.dono != dono)
+                return false;
+            if (--contagem > 0)
+                return true;
+            MonitorEBPF.getInstance().getDetector().registarLibertacao(dono, this);
+            seguinte = passarAoSeguinte();
+        }
+        entregar(seguinte);
+        return true;
+    }
+
+    // Chamado com 'this' bloqueado
+    private Pedido passarAoSeguinte() {
+        Pedido seguinte = fila.pollFirst();
+        if (seguinte == null) {
+            this.dono = null;
+            this.contagem = 0;
+        } else {
+            this.dono = seguinte.dono;
+            this.contagem = 1;
+            MonitorEBPF.getInstance().getDetector().registarAlocacao(seguinte.dono, this);
+        }
+        return seguinte;
+    }
+
+    // Completa o futuro fora do monitor para não correr continuações com o lock interno
+    private void entregar(Pedido pedido) {
+        while (pedido != null) {
+            if (pedido.futuro.complete(null))
+                return;
+            // O pedido expirou/foi cancelado em simultâneo: devolve e passa ao seguinte
+            synchronized (this) {
+                MonitorEBPF.getInstance().getDetector().registarLibertacao(pedido.dono, this);
+                pedido = passarAoSeguinte();
+            }
+        }
+    }
+
+    private synchronized boolean isLivrePara(Object dono) {
+        return this.dono == null || this.dono == dono;
+    }
+
+    public synchronized boolean isDetidoPor(Object dono) {
+        return this.dono == dono;
+    }
+
+    public synchronized int getPedidosPendentes() {
+        return fila.size();
+    }
+
+    public String getNome() {
+        return nome;
+    }
+
+    @Override
+    public String toString() {
+        return "Lock(" + nome + ")";
+    }
+
+    // --- COMPOSIÇÃO ---
+
+    /**
+     * Adquire todos os locks em ordem canónica (sem espera circular) dentro do prazo total.
+     * Em caso de falha ou cancelamento, liberta os que já tinham sido obtidos.
+     */
+    public static CompletableFuture<Void> adquirirTodosAsync(Object dono, Collection<LockAssincrono> locks,
+            long timeout, TimeUnit unit) {
+        List<LockAssincrono> ordenados = new ArrayList<>(new LinkedHashSet<>(locks));
+        ordenados.sort(Comparator.comparingLong(l -> l.ordem));
+        long prazo = System.nanoTime() + unit.toNanos(timeout);
+
+        CompletableFuture<Void> resultado = new CompletableFuture<>();
+        AtomicReference<CompletableFuture<Void>> passoAtual = new AtomicReference<>();
+        resultado.whenComplete((r, e) -> {
+            CompletableFuture<Void> passo = passoAtual.get();
+            if (e != null && passo != null)
+                passo.cancel(false);
+        });
+        adquirirPasso(dono, ordenados, 0, prazo, resultado, passoAtual);
+        return resultado;
+    }
+
+    private static void adquirirPasso(Object dono, List<LockAssincrono> ordenados, int i, long prazo,
+            CompletableFuture<Void> resultado, AtomicReference<CompletableFuture<Void>> passoAtual) {
+        if (i == ordenados.size()) {
+            if (!resultado.complete(null))
+                libertarTodos(dono, ordenados.subList(0, i));
+            return;
+        }
+        CompletableFuture<Void> passo = ordenados.get(i).adquirirAsync(dono,
+                Math.max(0, prazo - System.nanoTime()), TimeUnit.NANOSECONDS);
+        passoAtual.set(passo);
+        if (resultado.isDone())
+            passo.cancel(false);
+        passo.whenComplete((r, e) -> {
+            if (e != null) {
+                libertarTodos(dono, ordenados.subList(0, i));
+                resultado.completeExceptionally(e);
+            } else if (resultado.isDone()) {
+                libertarTodos(dono, ordenados.subList(0, i + 1));
+            } else {
+                adquirirPasso(dono, ordenados, i + 1, prazo, resultado, passoAtual);
+            }
+        });
+    }
+
+    /**
+     * Aquisição múltipla síncrona sem Hold-and-Wait: tenta todos os locks em ordem canónica
+     * com tryLock; se algum falhar, liberta os obtidos e repete após um backoff exponencial
+     * aleatório. Devolve false (abort) se o prazo expirar.
+     */
+    public static boolean adquirirTodos(Object dono, Collection<LockAssincrono> locks, long timeout, TimeUnit unit)
+            throws InterruptedException {
+        List<LockAssincrono> ordenados = new ArrayList<>(new LinkedHashSet<>(locks));
+        ordenados.sort(Comparator.comparingLong(l -> l.ordem));
+        long prazo = System.nanoTime() + unit.toNanos(timeout);
+        long backoffMaxNanos = BACKOFF_INICIAL_NANOS;
+        int tentativas = 0;
+
+        while (true) {
+            tentativas++;
+            int obtidos = 0;
+            while (obtidos < ordenados.size() && ordenados.get(obtidos).tentarAdquirir(dono))
+                obtidos++;
+            if (obtidos == ordenados.size()) {
+                MonitorEBPF.getInstance().registarAquisicaoMultipla(dono, tentativas, true);
+                return true;
+            }
+            libertarTodos(dono, ordenados.subList(0, obtidos));
+
+            long restante = prazo - System.nanoTime();
+            if (restante <= 0) {
+                MonitorEBPF.getInstance().registarAquisicaoMultipla(dono, tentativas, false);
+                return false;
+            }
+            if (EscalonadorControlado.isControlada()) {
+                // Sem tempo real: volta a tentar quando o lock que falhou estiver livre
+                LockAssincrono falhado = ordenados.get(obtidos);
+                EscalonadorControlado.bloquear(falhado, () -> falhado.isLivrePara(dono));
+                continue;
+            }
+            // Backoff aleatório em [0, max] para dessincronizar transações concorrentes
+            long espera = Math.min(restante, ThreadLocalRandom.current().nextLong(backoffMaxNanos + 1));
+            TimeUnit.NANOSECONDS.sleep(espera);
+            backoffMaxNanos = Math.min(backoffMaxNanos * 2, BACKOFF_MAXIMO_NANOS);
+        }
+    }
+
+    public static void libertarTodos(Object dono, Collection<LockAssincrono> locks) {
+        List<LockAssincrono> ordenados = new ArrayList<>(new LinkedHashSet<>(locks));
+        // Ordem inversa da aquisição
+        ordenados.sort(Comparator.comparingLong((LockAssincrono l) -> l.ordem).reversed());
+        for (LockAssincrono l : ordenados)
+            l.libertar(dono);
+    }
+}
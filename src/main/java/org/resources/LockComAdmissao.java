@@ -0,0 +1,137 @@
+package org.resources;
+
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.LockSupport;
+import java.util.concurrent.locks.ReentrantLock;
+import org.monitor.ControloAdmissao;
+import org.monitor.MonitorEBPF;
+
+/**
+ * Lock injusto com controlo de admissão (mitigação de flood/DoS).
+ * Antes de entrar na fila pergunta ao MonitorEBPF se a thread está acima da quota:
+ * as threads gananciosas esperam fora da fila (sem disputar o lock) ou são rejeitadas,
+ * e quem já está na fila (ex: a vítima) é servido. Cada aquisição alimenta a quota
+ * através do hook registarAcesso. Com um ControloAdmissao próprio, a quota é a dele e
+ * não muda com a configuração global (nem com o hot reload).
+ */
+public class LockComAdmissao implements Lock {
+    private final String nome;
+    private final ReentrantLock lock = new ReentrantLock(false);
+    // null = o controlo de admissão do MonitorEBPF
+    private final ControloAdmissao admissao;
+
+    public LockComAdmissao(String nome) {
+        this(nome, null);
+    }
+
+    public LockComAdmissao(String nome, ControloAdmissao admissao) {
+        this.nome = nome;
+        this.admissao = admissao;
+    }
+
+    private long avaliar(boolean podeEsperar) {
+        Thread t = Thread.currentThread();
+        return admissao != null ? admissao.avaliar(t, podeEsperar)
+                : MonitorEBPF.getInstance().avaliarAdmissao(t, podeEsperar);
+    }
+
+    // Espera de admissão; devolve false se a thread for rejeitada
+    private boolean admitir(boolean interruptivel) throws InterruptedException {
+        // Reentrância: quem já tem o lock nunca espera (atrasaria todos os outros)
+        if (lock.isHeldByCurrentThread())
+            return true;
+        long espera = avaliar(true);
+        if (espera == ControloAdmissao.REJEITADA)
+            return false;
+        long prazo = System.nanoTime() + espera;
+        boolean interrompida = false;
+        while (espera > 0) {
+            LockSupport.parkNanos(this, espera);
+            if (Thread.interrupted()) {
+                if (interruptivel)
+                    throw new InterruptedException();
+                interrompida = true;
+            }
+            espera = prazo - System.nanoTime();
+        }
+        if (interrompida)
+            Thread.currentThread().interrupt();
+        return true;
+    }
+
+    private void registar() {
+        Thread t = Thread.currentThread();
+        MonitorEBPF.getInstance().registarAcesso(t, nome);
+        if (admissao != null)
+            admissao.registar(t, System.nanoTime());
+    }
+
+    private RejectedExecutionException rejeicao() {
+        return new RejectedExecutionException(Thread.currentThread().getName() + " acima da quota em " + nome);
+    }
+
+    /**
+     * @throws RejectedExecutionException se a thread estiver acima da quota no modo REJEITAR
+     */
+    @Override
+    public void lock() {
+        try {
+            if (!admitir(false))
+                throw rejeicao();
+        } catch (InterruptedException e) {
+            // Impossível: o modo não interruptível nunca propaga a interrupção
+            Thread.currentThread().interrupt();
+        }
+        lock.lock();
+        registar();
+    }
+
+    @Override
+    public void lockInterruptibly() throws InterruptedException {
+        if (!admitir(true))
+            throw rejeicao();
+        lock.lockInterruptibly();
+        registar();
+    }
+
+    // Sem espera: uma thread acima da quota falha logo
+    @Override
+    public boolean tryLock() {
+        if (!lock.isHeldByCurrentThread() && avaliar(false) != ControloAdmissao.ADMITIDA)
+            return false;
+        if (!lock.tryLock())
+            return false;
+        registar();
+        return true;
+    }
+
+    // O atraso de admissão não conta para o tempo limite
+    @Override
+    public boolean tryLock(long time, TimeUnit unit) throws InterruptedException {
+        if (!admitir(true) || !lock.tryLock(time, unit))
+            return false;
+        registar();
+        return true;
+    }
+
+    @Override
+    public void unlock() {
+        lock.unlock();
+    }
+
+    @Override
+    public Condition newCondition() {
+        return lock.newCondition();
+    }
+
+    public boolean isHeldByCurrentThread() {
+        return lock.isHeldByCurrentThread();
+    }
+
+    public String getNome() {
+        return nome;
+    }
+}
@@ -0,0 +1,430 @@
+package org.resources;
+
+import java.util.ArrayDeque;
+import java.util.Date;
+import java.util.Deque;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.LockSupport;
+import org.app.Config;
+import org.monitor.DetectorDeadlock;
+import org.monitor.InjetorFalhas;
+import org.monitor.MonitorEBPF;
+
+/**
+ * Lock com fila ordenada por prioridade efetiva (contra inversão de prioridade).
+ * Na libertação, o lock é entregue (handoff, sem barging) ao pedido de maior prioridade
+ * efetiva; em caso de empate, ao mais antigo.
+ *
+ * Prioridade efetiva = prioridade base (MonitorEBPF.definirPrioridade ou prioridade Java)
+ * + herança: quem detém LockPrioridade herda a maior prioridade efetiva dos pedidos à espera
+ * desses locks, transitivamente. Assim, um detentor de baixa prioridade que bloqueia um
+ * urgente passa à frente na fila dos outros locks de que precisa.
+ * + envelhecimento limitado: +1 por cada passo de espera, até MAX_PRIORITY. Depois disso a
+ * ordem é FIFO, o que limita a espera de qualquer pedido (sem starvation dos de baixa prioridade).
+ *
+ * newCondition() devolve Conditions com a semântica das do ReentrantLock: await liberta todas as
+ * posses e, depois do signal (ou prazo/interrupção), volta a pedir o lock pela fila de prioridade.
+ *
+ * O estado interno é protegido por um monitor privado: código externo que sincronize no próprio
+ * objeto do lock não interfere com as entregas. A prioridade efetiva é também a usada pelo
+ * DetectorDeadlock, pelo que as inversões já resolvidas por herança não são alertadas.
+ */
+public class LockPrioridade implements Lock {
+    // Limite da cadeia de herança (protege contra ciclos de espera, que são deadlocks)
+    private static final int PROFUNDIDADE_HERANCA = 8;
+    private static final AtomicLong sequencia = new AtomicLong();
+
+    // Locks detidos por cada thread (lidos sem lock no cálculo da herança)
+    private static final Map<Thread, Set<LockPrioridade>> detidos = new ConcurrentHashMap<>();
+
+    static {
+        MonitorEBPF.getInstance().getDetector().definirPrioridadeEfetiva(LockPrioridade::prioridadeEfetiva);
+    }
+
+    private final String nome;
+    private final long passoEnvelhecimentoNanos;
+
+    // Monitor privado do estado do lock (dono, contagem e entregas)
+    private final Object estado = new Object();
+    private Thread dono; // protegido por 'estado'
+    private int contagem = 0;
+    private final Set<Pedido> pedidos = ConcurrentHashMap.newKeySet();
+
+    private final AtomicLong concessoesHeranca = new AtomicLong();
+    private final AtomicLong concessoesEnvelhecimento = new AtomicLong();
+
+    private static final class Pedido {
+        final Thread thread;
+        final long chegadaNanos = System.nanoTime();
+        final long ordem = sequencia.incrementAndGet();
+        volatile boolean concedido = false;
+
+        Pedido(Thread thread) {
+            this.thread = thread;
+        }
+    }
+
+    public LockPrioridade(String nome) {
+        this(nome, Config.PRIORIDADE_ENVELHECIMENTO_MS);
+    }
+
+    public LockPrioridade(String nome, long passoEnvelhecimentoMs) {
+        this.nome = nome;
+        this.passoEnvelhecimentoNanos = TimeUnit.MILLISECONDS.toNanos(Math.max(1, passoEnvelhecimentoMs));
+    }
+
+    // --- Prioridades ---
+
+    private static int prioridadeBase(Thread t) {
+        return MonitorEBPF.getInstance().getDetector().prioridade(t);
+    }
+
+    /**
+     * Prioridade efetiva atual de uma thread (base + herança dos locks que detém).
+     */
+    public static int prioridadeEfetiva(Thread t) {
+        return prioridadeEfetiva(t, System.nanoTime(), 0);
+    }
+
+    private static int prioridadeEfetiva(Thread t, long agora, int profundidade) {
+        int p = prioridadeBase(t);
+        Set<LockPrioridade> locks = detidos.get(t);
+        if (locks == null || profundidade >= PROFUNDIDADE_HERANCA)
+            return p;
+        for (LockPrioridade l : locks)
+            for (Pedido pedido : l.pedidos)
+                p = Math.max(p, l.prioridadePedido(pedido, agora, profundidade + 1));
+        return p;
+    }
+
+    private int prioridadePedido(Pedido p, long agora, int profundidade) {
+        long passos = (agora - p.chegadaNanos) / passoEnvelhecimentoNanos;
+        long envelhecida = prioridadeEfetiva(p.thread, agora, profundidade) + passos;
+        return (int) Math.min(Thread.MAX_PRIORITY, envelhecida);
+    }
+
+    // Maior prioridade efetiva; empate -> o pedido mais antigo
+    private Pedido escolher() {
+        long agora = System.nanoTime();
+        Pedido melhor = null;
+        int prioridadeMelhor = -1;
+        int maiorBase = -1;
+        for (Pedido p : pedidos) {
+            int prio = prioridadePedido(p, agora, 0);
+            maiorBase = Math.max(maiorBase, prioridadeBase(p.thread));
+            if (prio > prioridadeMelhor || (prio == prioridadeMelhor && p.ordem < melhor.ordem)) {
+                melhor = p;
+                prioridadeMelhor = prio;
+            }
+        }
+        if (melhor != null) {
+            int base = prioridadeBase(melhor.thread);
+            if (prioridadeEfetiva(melhor.thread, agora, 0) > base)
+                concessoesHeranca.incrementAndGet();
+            else if (base < maiorBase)
+                concessoesEnvelhecimento.incrementAndGet();
+        }
+        return melhor;
+    }
+
+    // --- Aquisição ---
+
+    // Chamado com o monitor de 'estado'
+    private void conceder(Thread t) {
+        dono = t;
+        contagem = 1;
+        detidos.computeIfAbsent(t, k -> ConcurrentHashMap.newKeySet()).add(this);
+        MonitorEBPF.getInstance().getDetector().registarAlocacao(t, this);
+    }
+
+    /**
+     * prazoNanos < 0 = sem prazo; 0 = sem espera (tryLock).
+     */
+    private boolean adquirir(boolean interruptivel, long prazoNanos) throws InterruptedException {
+        InjetorFalhas.ponto("LockPrioridade.adquirir", this);
+        Thread atual = Thread.currentThread();
+        DetectorDeadlock detector = MonitorEBPF.getInstance().getDetector();
+        Pedido pedido;
+        synchronized (estado) {
+            if (dono == atual) {
+                contagem++; // Reentrância
+                return true;
+            }
+            if (dono == null) {
+                conceder(atual);
+                return true;
+            }
+            if (prazoNanos == 0)
+                return false;
+            pedido = new Pedido(atual);
+            pedidos.add(pedido);
+            // [Monitor] Request edge (usado também na deteção de inversões de prioridade)
+            detector.registarEspera(atual, this);
+        }
+
+        long limite = System.nanoTime() + prazoNanos;
+        boolean interrompida = false;
+        while (!pedido.concedido) {
+            if (prazoNanos < 0) {
+                LockSupport.park(this);
+            } else {
+                long restante = limite - System.nanoTime();
+                if (restante <= 0 && desistir(pedido, detector))
+                    return false;
+                LockSupport.parkNanos(this, Math.max(0, restante));
+            }
+            if (Thread.interrupted()) {
+                if (interruptivel && desistir(pedido, detector))
+                    throw new InterruptedException();
+                interrompida = true;
+            }
+        }
+        if (interrompida)
+            Thread.currentThread().interrupt();
+        return true;
+    }
+
+    // Retira o pedido se ainda não foi servido; false se o lock já lhe foi entregue
+    private boolean desistir(Pedido pedido, DetectorDeadlock detector) {
+        synchronized (estado) {
+            if (pedido.concedido)
+                return false;
+            pedidos.remove(pedido);
+            detector.cancelarEspera(pedido.thread, this);
+            return true;
+        }
+    }
+
+    @Override
+    public void lock() {
+        try {
+            adquirir(false, -1);
+        } catch (InterruptedException e) {
+            // Impossível: o modo não interruptível nunca propaga a interrupção
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    @Override
+    public void lockInterruptibly() throws InterruptedException {
+        if (Thread.interrupted())
+            throw new InterruptedException();
+        adquirir(true, -1);
+    }
+
+    @Override
+    public boolean tryLock() {
+        try {
+            return adquirir(false, 0);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+
+    @Override
+    public boolean tryLock(long time, TimeUnit unit) throws InterruptedException {
+        if (Thread.interrupted())
+            throw new InterruptedException();
+        return adquirir(true, Math.max(1, unit.toNanos(time)));
+    }
+
+    @Override
+    public void unlock() {
+        InjetorFalhas.ponto("LockPrioridade.libertar", this);
+        Thread atual = Thread.currentThread();
+        synchronized (estado) {
+            if (dono != atual)
+                throw new IllegalMonitorStateException();
+            if (--contagem > 0)
+                return;
+            entregar(atual);
+        }
+    }
+
+    // Liberta a posse de 'atual' e entrega o lock ao pedido escolhido (chamado com o monitor de 'estado')
+    private void entregar(Thread atual) {
+        Set<LockPrioridade> locks = detidos.get(atual);
+        if (locks != null) {
+            locks.remove(this);
+            if (locks.isEmpty())
+                detidos.remove(atual, locks);
+        }
+        MonitorEBPF.getInstance().getDetector().registarLibertacao(atual, this);
+        Pedido seguinte = escolher();
+        if (seguinte == null) {
+            dono = null;
+            return;
+        }
+        pedidos.remove(seguinte);
+        conceder(seguinte.thread);
+        seguinte.concedido = true;
+        LockSupport.unpark(seguinte.thread);
+    }
+
+    // Liberta todas as posses da thread atual (await); devolve a contagem a repor
+    private int libertarTudo() {
+        Thread atual = Thread.currentThread();
+        synchronized (estado) {
+            if (dono != atual)
+                throw new IllegalMonitorStateException();
+            int posse = contagem;
+            contagem = 0;
+            entregar(atual);
+            return posse;
+        }
+    }
+
+    // Volta a pedir o lock pela fila (sem interrupção: await só sai com o lock) e repõe a contagem
+    private void readquirir(int posse) {
+        lock();
+        synchronized (estado) {
+            contagem = posse;
+        }
+    }
+
+    @Override
+    public Condition newCondition() {
+        return new Condicao();
+    }
+
+    private final class Condicao implements Condition {
+        // Alterada só pelo dono do lock (a posse passa pelo monitor 'estado')
+        private final Deque<Espera> esperas = new ArrayDeque<>();
+
+        private final class Espera {
+            final Thread thread = Thread.currentThread();
+            volatile boolean sinalizada = false;
+        }
+
+        /**
+         * prazoNanos < 0 = sem prazo. Devolve o tempo restante (<= 0 se o prazo expirou), medido
+         * ao acordar: o tempo de readquirir o lock não transforma um signal a tempo num timeout.
+         */
+        private long esperar(boolean interruptivel, long prazoNanos) throws InterruptedException {
+            if (interruptivel && Thread.interrupted())
+                throw new InterruptedException();
+            if (!isHeldByCurrentThread())
+                throw new IllegalMonitorStateException();
+            Espera espera = new Espera();
+            esperas.addLast(espera);
+            int posse = libertarTudo();
+            long limite = System.nanoTime() + prazoNanos;
+            long restante = prazoNanos;
+            boolean interrompida = false;
+            while (!espera.sinalizada) {
+                if (prazoNanos < 0) {
+                    LockSupport.park(this);
+                } else {
+                    restante = limite - System.nanoTime();
+                    if (restante <= 0)
+                        break;
+                    LockSupport.parkNanos(this, restante);
+                }
+                if (Thread.interrupted()) {
+                    interrompida = true;
+                    if (interruptivel)
+                        break;
+                }
+            }
+            long restanteAoAcordar = prazoNanos < 0 ? 1 : limite - System.nanoTime();
+            readquirir(posse);
+            // Um signal recebido durante a readquisição também conta (já saiu da fila de esperas)
+            boolean sinalizada = espera.sinalizada;
+            if (!sinalizada)
+                esperas.remove(espera);
+            // Interrompida antes do signal: InterruptedException; depois: só o estado de interrupção
+            if (interrompida && interruptivel && !sinalizada)
+                throw new InterruptedException();
+            if (interrompida)
+                Thread.currentThread().interrupt();
+            if (sinalizada)
+                return Math.max(1, restanteAoAcordar);
+            return restanteAoAcordar;
+        }
+
+        @Override
+        public void await() throws InterruptedException {
+            esperar(true, -1);
+        }
+
+        @Override
+        public void awaitUninterruptibly() {
+            try {
+                esperar(false, -1);
+            } catch (InterruptedException e) {
+                // Impossível: o modo não interruptível nunca propaga a interrupção
+                Thread.currentThread().interrupt();
+            }
+        }
+
+        @Override
+        public long awaitNanos(long nanosTimeout) throws InterruptedException {
+            return esperar(true, Math.max(0, nanosTimeout));
+        }
+
+        @Override
+        public boolean await(long time, TimeUnit unit) throws InterruptedException {
+            return awaitNanos(unit.toNanos(time)) > 0;
+        }
+
+        @Override
+        public boolean awaitUntil(Date deadline) throws InterruptedException {
+            return awaitNanos(TimeUnit.MILLISECONDS.toNanos(deadline.getTime() - System.currentTimeMillis())) > 0;
+        }
+
+        @Override
+        public void signal() {
+            if (!isHeldByCurrentThread())
+                throw new IllegalMonitorStateException();
+            Espera espera = esperas.pollFirst();
+            if (espera != null) {
+                espera.sinalizada = true;
+                LockSupport.unpark(espera.thread);
+            }
+        }
+
+        @Override
+        public void signalAll() {
+            if (!isHeldByCurrentThread())
+                throw new IllegalMonitorStateException();
+            for (Espera espera; (espera = esperas.pollFirst()) != null;) {
+                espera.sinalizada = true;
+                LockSupport.unpark(espera.thread);
+            }
+        }
+    }
+
+    public boolean isHeldByCurrentThread() {
+        synchronized (estado) {
+            return dono == Thread.currentThread();
+        }
+    }
+
+    public int getEmEspera() {
+        return pedidos.size();
+    }
+
+    public long getConcessoesHeranca() {
+        return concessoesHeranca.get();
+    }
+
+    public long getConcessoesEnvelhecimento() {
+        return concessoesEnvelhecimento.get();
+    }
+
+    public String getNome() {
+        return nome;
+    }
+
+    @Override
+    public String toString() {
+        return "Lock(" + nome + ")";
+    }
+}
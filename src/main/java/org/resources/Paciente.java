@@ -17,6 +17,21 @@ public class Paciente implements Comparable<Paciente> {
         return prioridade;
     }
 
+    /**
+     * Prioridade na escala das Threads Java (Urgente = MAX_PRIORITY, Baixa = MIN_PRIORITY),
+     * usada pelo LockPrioridade e pela deteção de inversões de prioridade.
+     */
+    public int getPrioridadeThread() {
+        switch (prioridade) {
+            case 1:
+                return Thread.MAX_PRIORITY;
+            case 2:
+                return Thread.NORM_PRIORITY;
+            default:
+                return Thread.MIN_PRIORITY;
+        }
+    }
+
     @Override
     public int compareTo(Paciente o) {
         return Integer.compare(this.prioridade, o.prioridade);
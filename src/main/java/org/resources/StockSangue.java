@@ -1,29 +1,73 @@
 package org.resources;
 
+import org.monitor.CelulaVersionada;
+import org.monitor.GestorSnapshots;
+import org.monitor.InjetorFalhas;
 import org.monitor.MonitorEBPF;
+import org.monitor.PipelineEventos;
+import org.monitor.PrevisaoStock;
 
 public class StockSangue {
-    private int unidades;
+    // Versionado por época: os snapshots leem um corte consistente sem bloquear as operações
+    private final CelulaVersionada unidades;
+    // Identifica a instância na probe de Race Condition (várias instâncias em paralelo)
+    private final String probeInseguro;
+    // Item na previsão de stock (null = previsão desativada para esta instância)
+    private volatile String itemPrevisao;
 
     public StockSangue(int inicio) {
-        this.unidades = inicio;
+        this.unidades = new CelulaVersionada(inicio);
+        this.probeInseguro = "StockSangue:retirarInseguro";
+    }
+
+    public StockSangue(String nome, int inicio) {
+        this.unidades = new CelulaVersionada(inicio);
+        this.probeInseguro = "StockSangue(" + nome + "):retirarInseguro";
+    }
+
+    /**
+     * Passa a alimentar a PrevisaoStock global com os consumos e reposições desta instância.
+     */
+    public void ativarPrevisao(String item) {
+        this.itemPrevisao = item;
+    }
+
+    /**
+     * Inclui o nível desta instância nos snapshots periódicos (e no restauro) do GestorSnapshots.
+     * O restauro recomeça a previsão do item no nível restaurado (os consumos anteriores são de
+     * outro processo).
+     */
+    public void ativarSnapshot(String nome) {
+        GestorSnapshots.global().registarStock(nome, unidades, nivel -> {
+            String item = itemPrevisao;
+            if (item != null)
+                PrevisaoStock.global().reiniciar(item, nivel, System.nanoTime());
+        });
     }
 
     public synchronized void adicionar(int qtd) {
         // Hook de monitorização
-        MonitorEBPF.getInstance().registarAcesso(Thread.currentThread(), "StockSangue(Escrita)");
-        this.unidades += qtd;
-        System.out.println("[STOCK] Adicionado " + qtd + ". Total: " + unidades);
+        MonitorEBPF.getInstance().registarAcesso(Thread.currentThread(), "StockSangue(Escrita)", this);
+        int total = unidades.get() + qtd;
+        unidades.set(total);
+        PipelineEventos.publicar("[STOCK] Adicionado " + qtd + ". Total: " + total);
+        String item = itemPrevisao;
+        if (item != null)
+            PrevisaoStock.global().registarReposicao(item, total, System.nanoTime());
     }
 
     // CORREÇÃO (Seguro): Usa synchronized para atomicidade
     public synchronized boolean retirarSeguroManual(int qtd) {
         // Hook de monitorização - Regista que a thread conseguiu entrar na secção crítica
-        MonitorEBPF.getInstance().registarAcesso(Thread.currentThread(), "StockSangue(Leitura/Escrita)");
+        MonitorEBPF.getInstance().registarAcesso(Thread.currentThread(), "StockSangue(Leitura/Escrita)", this);
 
-        if (unidades >= qtd) {
-            unidades -= qtd;
-            System.out.println("[STOCK] Retirado " + qtd + ". Restante: " + unidades);
+        int atual = unidades.get();
+        if (atual >= qtd) {
+            unidades.set(atual - qtd);
+            PipelineEventos.publicar("[STOCK] Retirado " + qtd + ". Restante: " + (atual - qtd));
+            String item = itemPrevisao;
+            if (item != null)
+                PrevisaoStock.global().registarConsumo(item, qtd, atual - qtd, System.nanoTime());
             return true;
         }
         return false;
@@ -32,26 +76,32 @@ public class StockSangue {
     // FALHA (Inseguro): Simula latência para causar Race Condition
     public void retirarInseguro(int qtd) {
         // [eBPF Probe] Sinaliza entrada em zona de perigo
-        MonitorEBPF.getInstance().probeUnsafeEnter("StockSangue:retirarInseguro");
+        MonitorEBPF.getInstance().probeUnsafeEnter(probeInseguro);
 
         // Secção Crítica Vulnerável (Check-then-Act sem proteção)
-        if (unidades >= qtd) {
+        if (unidades.get() >= qtd) {
             try {
                 // Simula processamento para garantir que ocorre interleaving de threads
-                Thread.sleep(100);
+                // (em modo caos o interleaving é decidido pelo InjetorFalhas)
+                InjetorFalhas.latencia("StockSangue:retirarInseguro", 100);
             } catch (InterruptedException e) {
                 Thread.currentThread().interrupt();
-                System.err.println("[Aviso] Latência interrompida em retirarInseguro");
+                PipelineEventos.aviso("[Aviso] Latência interrompida em retirarInseguro");
             }
-            unidades -= qtd;
-            System.out.println("-> " + Thread.currentThread().getName() + " retirou " + qtd + ". Stock: " + unidades);
+            // Leitura e escrita separadas (não atómicas), como o antigo "unidades -= qtd"
+            int restante = unidades.get() - qtd;
+            unidades.set(restante);
+            PipelineEventos.publicar("-> " + Thread.currentThread().getName() + " retirou " + qtd + ". Stock: " + restante);
+            String item = itemPrevisao;
+            if (item != null)
+                PrevisaoStock.global().registarConsumo(item, qtd, restante, System.nanoTime());
         }
         
         // [eBPF Probe] Sinaliza saída da zona de perigo
-        MonitorEBPF.getInstance().probeUnsafeExit("StockSangue:retirarInseguro");
+        MonitorEBPF.getInstance().probeUnsafeExit(probeInseguro);
     }
 
     public int getUnidades() {
-        return unidades;
+        return unidades.get();
     }
 }
\ No newline at end of file
@@ -0,0 +1,307 @@
+package org.scenarios;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.BiConsumer;
+import org.app.Config;
+import org.monitor.InjetorFalhas;
+import org.monitor.PipelineEventos;
+import org.monitor.MonitorEBPF;
+import org.resources.BaseDados;
+import org.resources.StockSangue;
+
+/**
+ * Modo caos: corre os cenários milhares de vezes em paralelo com perturbações
+ * injetadas nos pontos de probe. Cada iteração tem uma semente; as sementes das
+ * iterações em que a falha se manifestou são guardadas e podem ser repetidas.
+ */
+public class CaosScenario {
+    private static final int SEMENTES_GUARDADAS = 5;
+    private static final int REPETICOES_REPLAY = 20;
+    // Prazo de uma iteração: FATOR_PRAZO x o p99 da calibração (cenário sem deadlock, com as mesmas
+    // perturbações e o mesmo paralelismo). Acima dele a iteração está encravada.
+    private static final int ITERACOES_CALIBRACAO = 50;
+    private static final int AQUECIMENTO_CALIBRACAO = 10; // Primeiras iterações (carga de classes, JIT) ignoradas
+    private static final int FATOR_PRAZO = 5;
+    private static final long PRAZO_MINIMO_NANOS = TimeUnit.MILLISECONDS.toNanos(5);
+    private static volatile long prazoIteracaoNanos = TimeUnit.SECONDS.toNanos(1); // Até à calibração
+
+    private static final AtomicLong SEQUENCIA = new AtomicLong();
+    private static final Set<String> alertasRace = ConcurrentHashMap.newKeySet();
+
+    // falha = o defeito manifestou-se; detetado = o detetor do monitor disparou
+    private static final class Resultado {
+        final boolean falha;
+        final boolean detetado;
+
+        Resultado(boolean falha, boolean detetado) {
+            this.falha = falha;
+            this.detetado = detetado;
+        }
+    }
+
+    private interface Cenario {
+        Resultado executar() throws InterruptedException;
+    }
+
+    private static final String[] NOMES = {
+            "Race Condition (retirarInseguro)",
+            "Stock Seguro (synchronized)",
+            "Deadlock (ordem oposta)",
+            "Deadlock Evitado (ordenação)" };
+    private static final Cenario[] CENARIOS = {
+            CaosScenario::raceCondition,
+            CaosScenario::stockSeguro,
+            () -> deadlock(false),
+            () -> deadlock(true) };
+
+    public static void run() {
+        System.out.println("\n[CENÁRIO] MODO CAOS (Injeção de Falhas nos Pontos de Probe)");
+        int trabalhadores = Math.max(2, Runtime.getRuntime().availableProcessors());
+        long sementeBase = System.nanoTime();
+        System.out.println(Config.CAOS_ITERACOES + " iterações por cenário, " + trabalhadores
+                + " em paralelo | p=" + Config.CAOS_PROBABILIDADE + ", atraso máx. "
+                + Config.CAOS_ATRASO_MAX_MICROS + "µs | semente base " + sementeBase);
+        MonitorEBPF monitor = MonitorEBPF.getInstance();
+        BiConsumer<String, String> ouvinte = (tipo, recurso) -> {
+            if (MonitorEBPF.ALERTA_RACE.equals(tipo))
+                alertasRace.add(recurso);
+        };
+        monitor.adicionarOuvinteAlertas(ouvinte);
+        InjetorFalhas.reiniciarEstatisticas();
+        InjetorFalhas.ativar(Config.CAOS_PROBABILIDADE, Config.CAOS_ATRASO_MAX_MICROS);
+        try {
+            calibrar(sementeBase, trabalhadores);
+            System.out.println(String.format("Prazo por iteração: %.1fms (%dx o p99 da iteração sem deadlock)",
+                    prazoIteracaoNanos / 1e6, FATOR_PRAZO));
+            System.out.println(String.format("%-34s %8s %9s %9s %11s", "Cenário", "Iter/s", "Falha", "Detetor",
+                    "Sem alerta"));
+            List<List<Long>> sementesFalha = new ArrayList<>();
+            for (int c = 0; c < CENARIOS.length; c++)
+                sementesFalha.add(explorar(c, sementeBase, trabalhadores));
+            System.out.println(InjetorFalhas.obterRelatorio());
+
+            // Replay (aproximado): a mesma semente repete as perturbações injetadas em cada thread,
+            // mas não o escalonamento do SO nem a interferência das outras threads
+            for (int c = 0; c < CENARIOS.length; c++) {
+                List<Long> sementes = sementesFalha.get(c);
+                if (sementes.isEmpty())
+                    continue;
+                long semente = sementes.get(0);
+                System.out.println("[REPLAY] " + NOMES[c] + " | sementes com falha: " + sementes
+                        + " | semente " + semente + " reproduzida " + replay(c, semente) + "/" + REPETICOES_REPLAY);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } finally {
+            InjetorFalhas.desativar();
+            monitor.removerOuvinteAlertas(ouvinte);
+        }
+    }
+
+    /**
+     * Repete uma iteração com a semente dada; devolve quantas vezes a falha voltou a ocorrer.
+     * A reprodução não é garantida: a semente fixa as perturbações, não o escalonamento.
+     */
+    public static int replay(int cenario, long semente) throws InterruptedException {
+        int reproduzidas = 0;
+        PipelineEventos.silenciar(true);
+        try {
+            for (int i = 0; i < REPETICOES_REPLAY; i++) {
+                InjetorFalhas.definirSemente(semente);
+                if (CENARIOS[cenario].executar().falha)
+                    reproduzidas++;
+            }
+        } finally {
+            InjetorFalhas.limparSemente();
+            terminarSilencio();
+        }
+        return reproduzidas;
+    }
+
+    private static List<Long> explorar(int cenario, long sementeBase, int trabalhadores) throws InterruptedException {
+        AtomicInteger proxima = new AtomicInteger();
+        LongAdder falhas = new LongAdder();
+        LongAdder detecoes = new LongAdder();
+        LongAdder semAlerta = new LongAdder();
+        ConcurrentLinkedQueue<Long> sementes = new ConcurrentLinkedQueue<>();
+        AtomicInteger guardadas = new AtomicInteger();
+
+        // As mensagens dos recursos (e os avisos de interrupção) distorcem o tempo e inundam a consola:
+        // silenciadas nas threads deste cenário (os trabalhadores e as que eles criam herdam o estado)
+        PipelineEventos.silenciar(true);
+        long inicio = System.nanoTime();
+        Thread[] pool = new Thread[trabalhadores];
+        for (int w = 0; w < trabalhadores; w++) {
+            pool[w] = new Thread(() -> {
+                int i;
+                while ((i = proxima.getAndIncrement()) < Config.CAOS_ITERACOES) {
+                    long semente = sementeBase + cenario * 1_000_000L + i;
+                    InjetorFalhas.definirSemente(semente);
+                    try {
+                        Resultado r = CENARIOS[cenario].executar();
+                        if (r.detetado)
+                            detecoes.increment();
+                        if (r.falha) {
+                            falhas.increment();
+                            if (!r.detetado)
+                                semAlerta.increment();
+                            if (guardadas.getAndIncrement() < SEMENTES_GUARDADAS)
+                                sementes.add(semente);
+                        }
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                        return;
+                    }
+                }
+            }, "Caos-Trabalhador-" + w);
+            pool[w].start();
+        }
+        try {
+            for (Thread t : pool)
+                t.join();
+        } finally {
+            terminarSilencio();
+        }
+        double segundos = (System.nanoTime() - inicio) / 1e9;
+
+        double n = Config.CAOS_ITERACOES;
+        System.out.println(String.format("%-34s %8.0f %8.1f%% %8.1f%% %11d", NOMES[cenario], n / segundos,
+                100 * falhas.sum() / n, 100 * detecoes.sum() / n, semAlerta.sum()));
+        List<Long> resultado = new ArrayList<>(sementes);
+        resultado.sort(null);
+        return resultado;
+    }
+
+    private static void terminarSilencio() {
+        PipelineEventos.silenciar(false);
+        PipelineEventos.esvaziar();
+    }
+
+    /**
+     * Mede a duração das iterações do cenário ordenado (nunca encrava) com o injetor ativo e o
+     * paralelismo da exploração, e fixa o prazo por iteração a partir do p99.
+     */
+    private static void calibrar(long sementeBase, int trabalhadores) throws InterruptedException {
+        ConcurrentLinkedQueue<Long> duracoes = new ConcurrentLinkedQueue<>();
+        PipelineEventos.silenciar(true);
+        Thread[] pool = new Thread[trabalhadores];
+        for (int w = 0; w < trabalhadores; w++) {
+            int trabalhador = w;
+            pool[w] = new Thread(() -> {
+                for (int i = 0; i < AQUECIMENTO_CALIBRACAO + ITERACOES_CALIBRACAO; i++) {
+                    InjetorFalhas.definirSemente(sementeBase - 1_000_000L * (trabalhador + 1) - i);
+                    long inicio = System.nanoTime();
+                    try {
+                        deadlock(true);
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                        return;
+                    }
+                    if (i >= AQUECIMENTO_CALIBRACAO)
+                        duracoes.add(System.nanoTime() - inicio);
+                }
+            }, "Caos-Calibracao-" + w);
+            pool[w].start();
+        }
+        try {
+            for (Thread t : pool)
+                t.join();
+        } finally {
+            terminarSilencio();
+        }
+        List<Long> ordenadas = new ArrayList<>(duracoes);
+        if (ordenadas.isEmpty())
+            return;
+        ordenadas.sort(null);
+        long p99 = ordenadas.get((int) Math.ceil(0.99 * ordenadas.size()) - 1);
+        prazoIteracaoNanos = Math.max(PRAZO_MINIMO_NANOS, FATOR_PRAZO * p99);
+    }
+
+    // --- CENÁRIOS (versões sem Thread.sleep fixo; o interleaving vem do injetor) ---
+
+    private static Resultado raceCondition() throws InterruptedException {
+        String nome = "Caos" + SEQUENCIA.incrementAndGet();
+        StockSangue stock = new StockSangue(nome, 10);
+        correr(() -> stock.retirarInseguro(8), "Medico_A", () -> stock.retirarInseguro(8), "Medico_B");
+        boolean detetado = alertasRace.remove("StockSangue(" + nome + "):retirarInseguro");
+        return new Resultado(stock.getUnidades() < 0, detetado);
+    }
+
+    private static Resultado stockSeguro() throws InterruptedException {
+        String nome = "Caos" + SEQUENCIA.incrementAndGet();
+        StockSangue stock = new StockSangue(nome, 10);
+        correr(() -> stock.retirarSeguroManual(8), "Medico_A", () -> stock.retirarSeguroManual(8), "Medico_B");
+        boolean detetado = alertasRace.remove("StockSangue(" + nome + "):retirarInseguro");
+        return new Resultado(stock.getUnidades() < 0, detetado);
+    }
+
+    private static Resultado deadlock(boolean ordenado) throws InterruptedException {
+        long id = SEQUENCIA.incrementAndGet();
+        BaseDados pac = new BaseDados("Pacientes_" + id);
+        BaseDados hist = new BaseDados("Historico_" + id);
+        Thread t1 = new Thread(() -> transacao(pac, hist, ordenado), "Transacao_A");
+        Thread t2 = new Thread(() -> transacao(hist, pac, ordenado), "Transacao_B");
+        MonitorEBPF monitor = MonitorEBPF.getInstance();
+        t1.start();
+        t2.start();
+
+        // Em vez de esperar pelo ciclo do monitor, consulta o detetor diretamente
+        boolean detetado = false;
+        long prazo = System.nanoTime() + prazoIteracaoNanos;
+        while ((t1.isAlive() || t2.isAlive()) && System.nanoTime() < prazo) {
+            for (List<Object> ciclo : monitor.getDetector().detectarComponentes()) {
+                if (ciclo.contains(t1) || ciclo.contains(t2))
+                    detetado = true;
+            }
+            if (detetado)
+                break;
+            LockSupport.parkNanos(TimeUnit.MICROSECONDS.toNanos(100));
+        }
+        boolean encravado = t1.isAlive() || t2.isAlive();
+        if (encravado) {
+            // Recuperação (Terminação), como no DeadlockScenario
+            t1.interrupt();
+            t2.interrupt();
+        }
+        t1.join();
+        t2.join();
+        monitor.untrack(t1);
+        monitor.untrack(t2);
+        return new Resultado(encravado, detetado);
+    }
+
+    private static void transacao(BaseDados primeira, BaseDados segunda, boolean ordenado) {
+        if (ordenado) {
+            try {
+                if (BaseDados.bloqueioTodas(Arrays.asList(primeira, segunda), 1, TimeUnit.SECONDS))
+                    BaseDados.desbloquearTodas(Arrays.asList(primeira, segunda));
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            return;
+        }
+        primeira.bloqueioLeitura();
+        segunda.bloqueioLeitura();
+        segunda.desbloquear();
+        primeira.desbloquear();
+    }
+
+    private static void correr(Runnable a, String nomeA, Runnable b, String nomeB) throws InterruptedException {
+        Thread t1 = new Thread(a, nomeA);
+        Thread t2 = new Thread(b, nomeB);
+        t1.start();
+        t2.start();
+        t1.join();
+        t2.join();
+    }
+}
@@ -1,6 +1,7 @@
 package org.scenarios;
 
 import java.util.Scanner;
+import org.monitor.InjetorFalhas;
 import org.monitor.MonitorEBPF;
 import org.resources.BaseDados;
 
@@ -14,7 +15,7 @@ public class DeadlockScenario {
         Thread t1 = new Thread(() -> {
             pac.bloqueioLeitura();
             try {
-                Thread.sleep(100);
+                InjetorFalhas.latencia("DeadlockScenario", 100);
             } catch (InterruptedException e) {
                 Thread.currentThread().interrupt();
             }
@@ -26,7 +27,7 @@ public class DeadlockScenario {
         Thread t2 = new Thread(() -> {
             hist.bloqueioLeitura();
             try {
-                Thread.sleep(100);
+                InjetorFalhas.latencia("DeadlockScenario", 100);
             } catch (InterruptedException e) {
                 Thread.currentThread().interrupt();
             }
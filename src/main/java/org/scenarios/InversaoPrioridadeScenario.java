@@ -0,0 +1,93 @@
+package org.scenarios;
+
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.BiConsumer;
+import org.monitor.MonitorEBPF;
+import org.resources.BaseDados;
+import org.resources.Paciente;
+
+public class InversaoPrioridadeScenario {
+    private static final long OCUPACAO_EXAMES_MS = 3000;
+
+    public static void run() {
+        System.out.println("\n[CENÁRIO] INVERSÃO DE PRIORIDADE (Transação Urgente Atrasada)");
+        System.out.println("Objetivo: O Monitor deve detetar a urgente à espera de um detentor de baixa prioridade "
+                + "que está ele próprio bloqueado.");
+        BaseDados pacientes = new BaseDados("Pacientes");
+        BaseDados exames = new BaseDados("Exames");
+        MonitorEBPF monitor = MonitorEBPF.getInstance();
+
+        AtomicReference<String> alerta = new AtomicReference<>();
+        BiConsumer<String, String> ouvinte = (tipo, detalhe) -> {
+            if (MonitorEBPF.ALERTA_INVERSAO.equals(tipo))
+                alerta.compareAndSet(null, detalhe);
+        };
+        monitor.adicionarOuvinteAlertas(ouvinte);
+
+        // Prioridade média: ocupa a tabela de exames durante muito tempo
+        Thread media = new Thread(() -> {
+            exames.bloqueioLeitura();
+            try {
+                Thread.sleep(OCUPACAO_EXAMES_MS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            } finally {
+                exames.desbloquear();
+            }
+        }, "Relatorio_Exames");
+
+        // Baixa prioridade: detém Pacientes e fica bloqueada à espera de Exames
+        Thread baixa = new Thread(() -> {
+            pacientes.bloqueioLeitura();
+            try {
+                Thread.sleep(100);
+                exames.bloqueioLeitura();
+                exames.desbloquear();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            } finally {
+                pacientes.desbloquear();
+            }
+        }, "Estatistica_Baixa_Prio");
+
+        // Urgente: só precisa de Pacientes, mas fica atrás da baixa prioridade
+        long[] esperaUrgente = new long[1];
+        Thread urgente = new Thread(() -> {
+            long t0 = System.nanoTime();
+            pacientes.bloqueioLeitura();
+            esperaUrgente[0] = (System.nanoTime() - t0) / 1_000_000;
+            pacientes.desbloquear();
+        }, "Transacao_Urgente");
+
+        Paciente pUrgente = new Paciente("Urgencia", 1);
+        Paciente pBaixa = new Paciente("Rotina", 3);
+        media.setPriority(Thread.NORM_PRIORITY);
+        baixa.setPriority(pBaixa.getPrioridadeThread());
+        urgente.setPriority(pUrgente.getPrioridadeThread());
+        monitor.definirPrioridade(baixa, pBaixa.getPrioridadeThread());
+        monitor.definirPrioridade(urgente, pUrgente.getPrioridadeThread());
+
+        try {
+            media.start();
+            Thread.sleep(50);
+            baixa.start();
+            Thread.sleep(200);
+            urgente.start();
+
+            urgente.join(OCUPACAO_EXAMES_MS + 2000);
+            baixa.join(1000);
+            media.join(1000);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } finally {
+            monitor.removerOuvinteAlertas(ouvinte);
+        }
+
+        System.out.println("Transação urgente esperou " + esperaUrgente[0] + "ms por 'DB:Pacientes'.");
+        if (alerta.get() != null)
+            System.out.println("[SUCESSO] Inversão detetada: " + alerta.get());
+        else
+            System.out.println("[FALHA] O Monitor não detetou a inversão de prioridade.");
+        System.out.println("[INFO] Solução: LockPrioridade (herança de prioridade) - ver Benchmark no Menu Seguro.");
+    }
+}
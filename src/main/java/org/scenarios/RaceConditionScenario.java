@@ -2,6 +2,7 @@ package org.scenarios;
 
 import java.util.Scanner;
 import org.monitor.MonitorEBPF;
+import org.monitor.PipelineEventos;
 import org.resources.StockSangue;
 
 public class RaceConditionScenario {
@@ -33,6 +34,7 @@ public class RaceConditionScenario {
             Thread.currentThread().interrupt();
         }
 
+        PipelineEventos.esvaziar();
         System.out.println("Stock Final: " + stock.getUnidades());
         if (stock.getUnidades() < 0) {
             System.out.println("[RESULTADO] Falha Confirmada (Stock Negativo). Ver log.");
@@ -0,0 +1,162 @@
+package org.solutions;
+
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+import org.app.Configuracao;
+import org.app.GestorConfiguracao;
+import org.monitor.ControloAdmissao;
+import org.resources.LockComAdmissao;
+
+public class BenchmarkAdmissao {
+    private static final int GANANCIOSAS = 20;
+    private static final int VITIMAS = 4;
+    private static final long DURACAO_MS = 3000;
+    private static final long SECCAO_CRITICA_NANOS = TimeUnit.MILLISECONDS.toNanos(1);
+    // Vítimas bem comportadas: um pedido a cada 100ms (abaixo da quota)
+    private static final long PERIODO_VITIMA_MS = 100;
+    private static final long RECUO_REJEICAO_NANOS = TimeUnit.MILLISECONDS.toNanos(1);
+
+    public static void run() {
+        // Controlo próprio com a quota configurada: o global não é alterado durante a medição
+        Configuracao cfg = GestorConfiguracao.atual();
+        ControloAdmissao admissao = new ControloAdmissao(cfg.getAdmissaoTaxa(), (int) cfg.getAdmissaoRajada(),
+                ControloAdmissao.Modo.DESLIGADO);
+        System.out.println("\n[BENCHMARK] CONTROLO DE ADMISSÃO (Flood/DoS)");
+        System.out.println(GANANCIOSAS + " threads gananciosas (secção crítica de 1ms, re-adquirem logo) + " + VITIMAS
+                + " vítimas (1 pedido/" + PERIODO_VITIMA_MS + "ms) durante " + DURACAO_MS + "ms por modo.");
+        System.out.println("Quota por thread: " + admissao.getTaxaPorSegundo() + " acessos/s, rajada "
+                + admissao.getRajada() + ".");
+        System.out.println(String.format("%-10s %12s %9s %10s %10s %10s %11s %10s %10s", "Modo", "Aquisições/s",
+                "Vítimas", "p50", "p99", "Máx", "Sinalizadas", "Atrasos", "Rejeições"));
+        PrintStream consola = System.out;
+        try {
+            for (ControloAdmissao.Modo modo : ControloAdmissao.Modo.values())
+                medir(admissao, modo, consola);
+        } finally {
+            System.setOut(consola);
+        }
+    }
+
+    private static void medir(ControloAdmissao admissao, ControloAdmissao.Modo modo, PrintStream consola) {
+        admissao.configurar(admissao.getTaxaPorSegundo(), admissao.getRajada(), modo);
+        admissao.limpar();
+        long sinalizacoes = admissao.getSinalizacoes();
+        long atrasos = admissao.getAtrasos();
+        long rejeicoes = admissao.getRejeicoes();
+
+        LockComAdmissao lock = new LockComAdmissao("Benchmark_Admissao", admissao);
+        LongAdder aquisicoes = new LongAdder();
+        List<Long> latenciasVitimas = new ArrayList<>();
+        AtomicLong esperaPendenteMax = new AtomicLong();
+        CountDownLatch partida = new CountDownLatch(1);
+        List<Thread> threads = new ArrayList<>();
+
+        for (int i = 0; i < GANANCIOSAS; i++) {
+            threads.add(new Thread(() -> {
+                aguardar(partida);
+                while (!Thread.currentThread().isInterrupted()) {
+                    try {
+                        lock.lock();
+                    } catch (RejectedExecutionException e) {
+                        // Cliente rejeitado volta a tentar pouco depois
+                        LockSupport.parkNanos(RECUO_REJEICAO_NANOS);
+                        continue;
+                    }
+                    try {
+                        aquisicoes.increment();
+                        LockSupport.parkNanos(SECCAO_CRITICA_NANOS);
+                    } finally {
+                        lock.unlock();
+                    }
+                }
+            }, "Ganancioso_" + i));
+        }
+        for (int i = 0; i < VITIMAS; i++) {
+            Thread vitima = new Thread(() -> {
+                aguardar(partida);
+                while (!Thread.currentThread().isInterrupted()) {
+                    long t0 = System.nanoTime();
+                    try {
+                        lock.lockInterruptibly();
+                    } catch (InterruptedException e) {
+                        // Pedido ainda por servir no fim da medição (conta para a latência máxima)
+                        esperaPendenteMax.accumulateAndGet(System.nanoTime() - t0, Math::max);
+                        break;
+                    }
+                    try {
+                        aquisicoes.increment();
+                        synchronized (latenciasVitimas) {
+                            latenciasVitimas.add(System.nanoTime() - t0);
+                        }
+                    } finally {
+                        lock.unlock();
+                    }
+                    LockSupport.parkNanos(TimeUnit.MILLISECONDS.toNanos(PERIODO_VITIMA_MS));
+                }
+            }, "Vitima_" + i);
+            vitima.setPriority(Thread.MIN_PRIORITY);
+            threads.add(vitima);
+        }
+
+        // O registarAcesso escreve cada aquisição na consola: silenciada durante a medição
+        System.setOut(new PrintStream(OutputStream.nullOutputStream()));
+        for (Thread t : threads)
+            t.start();
+        long inicio = System.nanoTime();
+        partida.countDown();
+        try {
+            Thread.sleep(DURACAO_MS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        for (Thread t : threads)
+            t.interrupt();
+        for (Thread t : threads) {
+            try {
+                t.join();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        double segundos = (System.nanoTime() - inicio) / 1e9;
+        System.setOut(consola);
+
+        long[] lat;
+        synchronized (latenciasVitimas) {
+            lat = latenciasVitimas.stream().mapToLong(Long::longValue).toArray();
+        }
+        Arrays.sort(lat);
+        long max = Math.max(lat.length == 0 ? 0 : lat[lat.length - 1], esperaPendenteMax.get());
+        System.out.println(String.format("%-10s %12.0f %9d %10s %10s %10s %11d %10d %10d", modo,
+                aquisicoes.sum() / segundos, lat.length, ms(percentil(lat, 0.5)), ms(percentil(lat, 0.99)), ms(max),
+                admissao.getSinalizacoes() - sinalizacoes, admissao.getAtrasos() - atrasos,
+                admissao.getRejeicoes() - rejeicoes));
+    }
+
+    private static void aguardar(CountDownLatch partida) {
+        try {
+            partida.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static long percentil(long[] ordenados, double p) {
+        if (ordenados.length == 0)
+            return 0;
+        return ordenados[(int) Math.min(ordenados.length - 1, Math.floor(p * ordenados.length))];
+    }
+
+    private static String ms(long nanos) {
+        return String.format("%.1fms", nanos / 1e6);
+    }
+}
@@ -0,0 +1,100 @@
+package org.solutions;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+import org.app.Config;
+import org.monitor.CoordenadorDeadlock;
+import org.monitor.DetectorDeadlock;
+import org.monitor.PublicadorGrafo;
+
+public class BenchmarkDetecaoDistribuida {
+    private static final int[] NOS = { 2, 4, 8, 16 };
+    private static final int REPETICOES = 10;
+
+    public static void run() {
+        System.out.println("\n[BENCHMARK] DEADLOCK DISTRIBUÍDO (Coordenador em loopback)");
+        System.out.println("Ciclo global: a transação do nó i detém Tabela_i e espera Tabela_(i+1).");
+        System.out.println("Lotes de deltas a cada " + Config.PUBLICACAO_GRAFO_INTERVAL_MS + "ms.");
+        System.out.println(String.format("%5s %12s %12s %12s %10s %10s", "Nós", "Lat. Mín", "Lat. Média", "Lat. Máx", "Lotes", "Bytes"));
+        for (int n : NOS) {
+            try {
+                medir(n);
+            } catch (IOException e) {
+                System.err.println("Erro no benchmark com " + n + " nós: " + e.getMessage());
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+        }
+    }
+
+    private static void medir(int n) throws IOException, InterruptedException {
+        CoordenadorDeadlock coordenador = new CoordenadorDeadlock(0);
+        coordenador.iniciar();
+
+        // Cada "nó" tem o seu próprio grafo e só comunica com o coordenador por socket
+        DetectorDeadlock[] grafos = new DetectorDeadlock[n];
+        List<PublicadorGrafo> publicadores = new ArrayList<>();
+        for (int i = 0; i < n; i++) {
+            grafos[i] = new DetectorDeadlock();
+            PublicadorGrafo p = new PublicadorGrafo("No" + i, grafos[i], "127.0.0.1", coordenador.getPorta(),
+                    Config.PUBLICACAO_GRAFO_INTERVAL_MS);
+            publicadores.add(p);
+            p.iniciar();
+        }
+
+        double[] latenciasMs = new double[REPETICOES];
+        for (int rep = 0; rep < REPETICOES; rep++) {
+            String[] tx = new String[n];
+            for (int i = 0; i < n; i++) {
+                tx[i] = "Tx" + rep + "_" + i;
+                grafos[i].registarAlocacao(tx[i], "DB:Tabela_" + i);
+            }
+            for (int i = 0; i < n - 1; i++)
+                grafos[i].registarEspera(tx[i], "DB:Tabela_" + (i + 1));
+
+            // Garante que o estado parcial já chegou antes de fechar o ciclo; o desvio
+            // aleatório evita medir sempre na mesma fase do período de publicação
+            Thread.sleep(3 * Config.PUBLICACAO_GRAFO_INTERVAL_MS
+                    + ThreadLocalRandom.current().nextLong(Config.PUBLICACAO_GRAFO_INTERVAL_MS));
+
+            String ultimo = "No" + (n - 1) + "/" + tx[n - 1];
+            CountDownLatch detetado = new CountDownLatch(1);
+            Consumer<Set<Object>> ouvinte = participantes -> {
+                if (participantes.contains(ultimo))
+                    detetado.countDown();
+            };
+            coordenador.adicionarOuvinte(ouvinte);
+            long inicio = System.nanoTime();
+            grafos[n - 1].registarEspera(tx[n - 1], "DB:Tabela_0");
+            if (!detetado.await(5, TimeUnit.SECONDS))
+                System.err.println("Ciclo não detetado com " + n + " nós (repetição " + rep + ")");
+            latenciasMs[rep] = (System.nanoTime() - inicio) / 1_000_000.0;
+            coordenador.removerOuvinte(ouvinte);
+
+            for (int i = 0; i < n; i++)
+                grafos[i].limparThread(tx[i]);
+        }
+
+        long lotes = 0;
+        long bytes = 0;
+        for (PublicadorGrafo p : publicadores) {
+            p.terminar();
+            lotes += p.getLotesEnviados();
+            bytes += p.getBytesEnviados();
+        }
+        coordenador.terminar();
+
+        double media = Arrays.stream(latenciasMs).average().orElse(0);
+        double min = Arrays.stream(latenciasMs).min().orElse(0);
+        double max = Arrays.stream(latenciasMs).max().orElse(0);
+        System.out.println(String.format("%5d %10.1fms %10.1fms %10.1fms %10d %10d", n, min, media, max, lotes, bytes));
+    }
+}
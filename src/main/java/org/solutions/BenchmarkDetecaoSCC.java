@@ -0,0 +1,96 @@
+package org.solutions;
+
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+import org.monitor.MotorDetecaoSCC;
+
+public class BenchmarkDetecaoSCC {
+    private static final int[] TAMANHOS = { 1_000, 100_000, 1_000_000 };
+    private static final int REPETICOES = 5;
+    private static final long SEMENTE = 42;
+
+    public static void run() {
+        System.out.println("\n[BENCHMARK] DETEÇÃO DE DEADLOCKS EM GRAFOS GRANDES (CSR + Tarjan)");
+        System.out.println("Grafo sintético: grupos de 2-64 participantes (5% em ciclo, resto em árvore de espera)");
+        System.out.println("e uma cadeia de espera com 10% dos nós (rebentaria a pilha de uma DFS recursiva).");
+        System.out.println("Paralelismo do fork/join: " + ForkJoinPool.commonPool().getParallelism());
+        System.out.println(String.format("%9s %9s %10s %12s %12s %8s %6s", "Nós", "Arestas", "CSR",
+                "Sequencial", "Paralelo", "Speedup", "SCCs"));
+        for (int n : TAMANHOS)
+            medir(n);
+    }
+
+    private static void medir(int n) {
+        Random rnd = new Random(SEMENTE + n);
+        int[] origens = new int[2 * n];
+        int[] destinos = new int[2 * n];
+        int m = 0;
+        int ciclosEsperados = 0;
+
+        // Identificadores baralhados para que os grupos não sejam contíguos em memória
+        int[] id = new int[n];
+        for (int i = 0; i < n; i++)
+            id[i] = i;
+        for (int i = n - 1; i > 0; i--) {
+            int j = rnd.nextInt(i + 1);
+            int t = id[i];
+            id[i] = id[j];
+            id[j] = t;
+        }
+
+        int cadeia = n / 10;
+        for (int i = 1; i < cadeia; i++) {
+            origens[m] = id[i - 1];
+            destinos[m++] = id[i];
+        }
+        int i = cadeia;
+        while (i < n) {
+            int tamanho = Math.min(n - i, 2 + rnd.nextInt(63));
+            boolean ciclo = tamanho > 1 && rnd.nextInt(100) < 5;
+            for (int k = 1; k < tamanho; k++) {
+                // Cada participante espera por um anterior do grupo (e às vezes por dois)
+                origens[m] = id[i + k];
+                destinos[m++] = id[i + rnd.nextInt(k)];
+                if (rnd.nextInt(10) == 0) {
+                    origens[m] = id[i + k];
+                    destinos[m++] = id[i + rnd.nextInt(k)];
+                }
+            }
+            if (ciclo) {
+                // Fecha o grupo: o primeiro espera pelo último
+                origens[m] = id[i];
+                destinos[m++] = id[i + tamanho - 1];
+                ciclosEsperados++;
+            }
+            i += tamanho;
+        }
+
+        long csrNs = Long.MAX_VALUE;
+        long seqNs = Long.MAX_VALUE;
+        long parNs = Long.MAX_VALUE;
+        int encontrados = 0;
+        for (int rep = 0; rep < REPETICOES; rep++) {
+            long inicio = System.nanoTime();
+            MotorDetecaoSCC.GrafoCSR grafo = MotorDetecaoSCC.construir(n, origens, destinos, m);
+            csrNs = Math.min(csrNs, System.nanoTime() - inicio);
+
+            inicio = System.nanoTime();
+            List<int[]> sequencial = MotorDetecaoSCC.componentesEmDeadlock(grafo, null);
+            seqNs = Math.min(seqNs, System.nanoTime() - inicio);
+
+            inicio = System.nanoTime();
+            List<int[]> paralelo = MotorDetecaoSCC.componentesEmDeadlock(grafo, ForkJoinPool.commonPool());
+            parNs = Math.min(parNs, System.nanoTime() - inicio);
+
+            if (sequencial.size() != paralelo.size())
+                System.err.println("Resultados divergentes: " + sequencial.size() + " vs " + paralelo.size());
+            encontrados = paralelo.size();
+        }
+        if (encontrados != ciclosEsperados)
+            System.err.println("Esperados " + ciclosEsperados + " ciclos, encontrados " + encontrados);
+
+        System.out.println(String.format("%9d %9d %8.2fms %10.2fms %10.2fms %7.2fx %6d", n, m, csrNs / 1e6,
+                seqNs / 1e6, parNs / 1e6, (double) seqNs / parNs, encontrados));
+    }
+}
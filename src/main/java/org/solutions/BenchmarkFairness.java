@@ -0,0 +1,90 @@
+package org.solutions;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
+import org.app.GestorConfiguracao;
+import org.resources.LockAdaptativo;
+
+public class BenchmarkFairness {
+    private static final int THREADS = 300;
+    private static final long DURACAO_MS = 2000;
+
+    // Evita que o JIT elimine o trabalho da secção crítica
+    private static volatile long sumidouro;
+
+    public static void run() {
+        System.out.println("\n[BENCHMARK] FAIRNESS (Unfair vs Fair vs Adaptativo)");
+        System.out.println(THREADS + " threads em flood durante " + DURACAO_MS + "ms por lock.");
+
+        // Limite reduzido para que a adaptação ocorra dentro da janela de medição
+        long limiteMs = Math.max(1, GestorConfiguracao.atual().getStarvationLimiteMs() / 30);
+        LockAdaptativo adaptativo = new LockAdaptativo("Benchmark_Flood", limiteMs);
+
+        System.out.println(String.format("%-24s %14s %16s", "Lock", "Aquisições/s", "Espera Máx (ms)"));
+        medir("ReentrantLock(false)", new ReentrantLock(false));
+        medir("ReentrantLock(true)", new ReentrantLock(true));
+        medir("LockAdaptativo(" + limiteMs + "ms)", adaptativo);
+        System.out.println("Mudanças de modo no LockAdaptativo: " + adaptativo.getMudancasModo());
+    }
+
+    private static void medir(String nome, Lock lock) {
+        LongAdder aquisicoes = new LongAdder();
+        AtomicLong esperaMaxNanos = new AtomicLong();
+        CountDownLatch partida = new CountDownLatch(1);
+        List<Thread> threads = new ArrayList<>();
+
+        for (int i = 0; i < THREADS; i++) {
+            Thread t = new Thread(() -> {
+                try {
+                    partida.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    return;
+                }
+                long local = 0;
+                while (!Thread.currentThread().isInterrupted()) {
+                    long t0 = System.nanoTime();
+                    lock.lock();
+                    try {
+                        long espera = System.nanoTime() - t0;
+                        esperaMaxNanos.accumulateAndGet(espera, Math::max);
+                        aquisicoes.increment();
+                        // Secção crítica curta (Greedy)
+                        for (int k = 0; k < 200; k++)
+                            local += k ^ local;
+                    } finally {
+                        lock.unlock();
+                    }
+                }
+                sumidouro += local;
+            }, "Flood_" + i);
+            threads.add(t);
+            t.start();
+        }
+
+        partida.countDown();
+        try {
+            Thread.sleep(DURACAO_MS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        for (Thread t : threads)
+            t.interrupt();
+        for (Thread t : threads) {
+            try {
+                t.join();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+
+        double porSegundo = aquisicoes.sum() * 1000.0 / DURACAO_MS;
+        double esperaMaxMs = esperaMaxNanos.get() / 1_000_000.0;
+        System.out.println(String.format("%-24s %14.0f %16.1f", nome, porSegundo, esperaMaxMs));
+    }
+}
@@ -0,0 +1,189 @@
+package org.solutions;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import org.app.Config;
+import org.monitor.PrevisaoStock;
+
+public class BenchmarkPrevisaoStock {
+    private static final int ITENS = 5_000;
+    private static final long DURACAO_S = 30 * 60;
+    private static final long SEMENTE = 42;
+
+    // Fluxo sintético de consumos de um item (instantes em ns simulados, stock após cada evento)
+    private static final class Fluxo {
+        final String item;
+        final double taxaPorMinuto;
+        final long[] instantes;
+        final int[] quantidades;
+        final int[] unidades;
+        final double ruturaS; // infinito se não esgota durante a simulação
+
+        Fluxo(String item, double taxaPorMinuto, long[] instantes, int[] quantidades, int[] unidades,
+                double ruturaS) {
+            this.item = item;
+            this.taxaPorMinuto = taxaPorMinuto;
+            this.instantes = instantes;
+            this.quantidades = quantidades;
+            this.unidades = unidades;
+            this.ruturaS = ruturaS;
+        }
+    }
+
+    public static void run() {
+        System.out.println("\n[BENCHMARK] PREVISÃO DE STOCK EM STREAMING (Janela Deslizante)");
+        System.out.println(ITENS + " itens, " + DURACAO_S / 60 + " min simulados; consumo de 0.5-20 unidades/min por item.");
+        System.out.println("Janela: " + Config.PREVISAO_JANELA_S + "s em " + Config.PREVISAO_BALDES
+                + " baldes | reposição se a rutura prevista for < " + Config.STOCK_HORIZONTE_REPOSICAO_S + "s");
+
+        Fluxo[] fluxos = gerar();
+        long total = 0;
+        for (Fluxo f : fluxos)
+            total += f.instantes.length;
+        System.out.println("Eventos gerados: " + total);
+
+        int maxThreads = Math.max(2, Runtime.getRuntime().availableProcessors());
+        System.out.println(String.format("%8s %10s %10s %12s %10s", "Threads", "Eventos", "Tempo", "Eventos/s",
+                "Memória"));
+        Map<String, PrevisaoStock.Evento> reposicoes = null;
+        PrevisaoStock ultima = null;
+        for (int threads = 1; threads <= maxThreads; threads *= 2) {
+            PrevisaoStock previsao = novaPrevisao();
+            Map<String, PrevisaoStock.Evento> primeiras = new ConcurrentHashMap<>();
+            previsao.adicionarOuvinte(e -> {
+                if (e.tipo.equals(PrevisaoStock.EVENTO_REPOSICAO))
+                    primeiras.putIfAbsent(e.item, e);
+            });
+            long ns = correr(previsao, fluxos, threads);
+            System.out.println(String.format("%8d %10d %8dms %12.0f %8dKB", threads, previsao.getEventosProcessados(),
+                    TimeUnit.NANOSECONDS.toMillis(ns), previsao.getEventosProcessados() / (ns / 1e9),
+                    previsao.getMemoriaEstimada() / 1024));
+            reposicoes = primeiras;
+            ultima = previsao;
+        }
+        avaliar(fluxos, reposicoes, ultima);
+    }
+
+    private static PrevisaoStock novaPrevisao() {
+        return new PrevisaoStock(Config.PREVISAO_JANELA_S, Config.PREVISAO_BALDES, Config.PREVISAO_MAX_ITENS,
+                Config.STOCK_NIVEL_MINIMO, Config.STOCK_HORIZONTE_REPOSICAO_S);
+    }
+
+    private static Fluxo[] gerar() {
+        Random rnd = new Random(SEMENTE);
+        Fluxo[] fluxos = new Fluxo[ITENS];
+        for (int i = 0; i < ITENS; i++) {
+            double taxa = 0.5 + rnd.nextDouble() * 19.5; // unidades/min
+            int stock = (int) Math.ceil(taxa * (10 + rnd.nextDouble() * 40)); // 10-50 min de consumo
+            List<long[]> eventos = new ArrayList<>();
+            double t = 0;
+            double rutura = Double.POSITIVE_INFINITY;
+            while (stock > 0) {
+                int qtd = 1 + rnd.nextInt(3);
+                // Chegadas de Poisson com média de qtd/taxa minutos entre pedidos
+                t += -Math.log(1 - rnd.nextDouble()) * qtd / taxa * 60;
+                if (t > DURACAO_S)
+                    break;
+                qtd = Math.min(qtd, stock);
+                stock -= qtd;
+                eventos.add(new long[] { (long) (t * 1e9), qtd, stock });
+                if (stock == 0)
+                    rutura = t;
+            }
+            long[] instantes = new long[eventos.size()];
+            int[] quantidades = new int[eventos.size()];
+            int[] unidades = new int[eventos.size()];
+            for (int k = 0; k < eventos.size(); k++) {
+                instantes[k] = eventos.get(k)[0];
+                quantidades[k] = (int) eventos.get(k)[1];
+                unidades[k] = (int) eventos.get(k)[2];
+            }
+            fluxos[i] = new Fluxo(String.format("Item-%05d", i), taxa, instantes, quantidades, unidades, rutura);
+        }
+        return fluxos;
+    }
+
+    // Cada thread processa os seus itens com os eventos intercalados por ordem de tempo
+    private static long correr(PrevisaoStock previsao, Fluxo[] fluxos, int threads) {
+        Thread[] pool = new Thread[threads];
+        long[][] ordens = new long[threads][];
+        for (int w = 0; w < threads; w++) {
+            List<long[]> ordem = new ArrayList<>();
+            for (int i = w; i < fluxos.length; i += threads)
+                for (int k = 0; k < fluxos[i].instantes.length; k++)
+                    ordem.add(new long[] { fluxos[i].instantes[k], i, k });
+            ordem.sort((a, b) -> Long.compare(a[0], b[0]));
+            long[] plano = new long[ordem.size() * 2];
+            for (int k = 0; k < ordem.size(); k++) {
+                plano[2 * k] = ordem.get(k)[1];
+                plano[2 * k + 1] = ordem.get(k)[2];
+            }
+            ordens[w] = plano;
+        }
+        long inicio = System.nanoTime();
+        for (int w = 0; w < threads; w++) {
+            long[] plano = ordens[w];
+            pool[w] = new Thread(() -> {
+                for (int k = 0; k < plano.length; k += 2) {
+                    Fluxo f = fluxos[(int) plano[k]];
+                    int e = (int) plano[k + 1];
+                    previsao.registarConsumo(f.item, f.quantidades[e], f.unidades[e], f.instantes[e]);
+                }
+            }, "Previsao-" + w);
+            pool[w].start();
+        }
+        for (Thread t : pool) {
+            try {
+                t.join();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        return System.nanoTime() - inicio;
+    }
+
+    private static void avaliar(Fluxo[] fluxos, Map<String, PrevisaoStock.Evento> reposicoes, PrevisaoStock previsao) {
+        // Erro da taxa estimada no fim da simulação (itens ainda com stock)
+        List<Double> errosTaxa = new ArrayList<>();
+        List<Double> errosRutura = new ArrayList<>();
+        int esgotados = 0;
+        int avisadosAntes = 0;
+        long fim = TimeUnit.SECONDS.toNanos(DURACAO_S);
+        for (Fluxo f : fluxos) {
+            if (Double.isInfinite(f.ruturaS)) {
+                PrevisaoStock.Previsao p = previsao.previsao(f.item, fim);
+                if (p != null)
+                    errosTaxa.add(Math.abs(p.consumoPorMinuto - f.taxaPorMinuto) / f.taxaPorMinuto);
+                continue;
+            }
+            esgotados++;
+            PrevisaoStock.Evento e = reposicoes.get(f.item);
+            if (e == null)
+                continue;
+            double avisoS = e.instanteNanos / 1e9;
+            if (avisoS < f.ruturaS)
+                avisadosAntes++;
+            errosRutura.add(Math.abs(avisoS + e.segundosAteRutura - f.ruturaS));
+        }
+        System.out.println(String.format("Taxa de consumo: erro relativo mediano %.1f%% (p90 %.1f%%) em %d itens",
+                100 * percentil(errosTaxa, 0.5), 100 * percentil(errosTaxa, 0.9), errosTaxa.size()));
+        System.out.println(String.format("Rutura: %d itens esgotaram; %d avisados antes (reposição), "
+                + "erro mediano da previsão %.0fs (p90 %.0fs)", esgotados, avisadosAntes,
+                percentil(errosRutura, 0.5), percentil(errosRutura, 0.9)));
+        System.out.println("Itens seguidos: " + previsao.getNumeroItens() + " (máx " + Config.PREVISAO_MAX_ITENS
+                + ", recusados " + previsao.getItensRecusados() + ")");
+    }
+
+    private static double percentil(List<Double> valores, double p) {
+        if (valores.isEmpty())
+            return 0;
+        double[] v = valores.stream().mapToDouble(Double::doubleValue).toArray();
+        Arrays.sort(v);
+        return v[(int) Math.min(v.length - 1, Math.floor(p * v.length))];
+    }
+}
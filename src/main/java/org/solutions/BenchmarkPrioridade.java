@@ -0,0 +1,306 @@
+package org.solutions;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.LockSupport;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Function;
+import org.app.Config;
+import org.monitor.DetectorDeadlock;
+import org.monitor.MonitorEBPF;
+import org.resources.LockPrioridade;
+import org.resources.Paciente;
+
+public class BenchmarkPrioridade {
+    private static final int BAIXAS = 2;
+    private static final int MEDIAS = 8;
+    private static final int URGENTES = 2;
+    private static final long DURACAO_MS = 3000;
+    private static final long AQUECIMENTO_MS = 500;
+    private static final long PERIODO_URGENTE_MS = 10;
+
+    public static void run() {
+        System.out.println("\n[BENCHMARK] INVERSÃO DE PRIORIDADE (Latência de Cauda do Trabalho Urgente)");
+        System.out.println(BAIXAS + " baixas (detêm DB:Pacientes e depois pedem DB:Exames), " + MEDIAS
+                + " médias em flood sobre DB:Exames, " + URGENTES + " urgentes (DB:Pacientes a cada "
+                + PERIODO_URGENTE_MS + "ms); " + DURACAO_MS + "ms por lock, após " + AQUECIMENTO_MS
+                + "ms de aquecimento.");
+        System.out.println("Todos os locks registam as mesmas arestas no Wait-for Graph do DetectorDeadlock.");
+        System.out.println(String.format("%-26s %10s %10s %10s %10s %10s %14s", "Lock", "Ops/s", "Urgentes",
+                "p50", "p99", "Máx", "Baixa Máx"));
+        medir("ReentrantLock(false)", nome -> new LockMonitorizado(nome, false));
+        medir("ReentrantLock(true)", nome -> new LockMonitorizado(nome, true));
+        long herancas = 0;
+        long envelhecimentos = 0;
+        for (Lock l : medir("LockPrioridade(" + Config.PRIORIDADE_ENVELHECIMENTO_MS + "ms)", LockPrioridade::new)) {
+            herancas += ((LockPrioridade) l).getConcessoesHeranca();
+            envelhecimentos += ((LockPrioridade) l).getConcessoesEnvelhecimento();
+        }
+        System.out.println("LockPrioridade: " + herancas + " concessões por herança, " + envelhecimentos
+                + " por envelhecimento.");
+    }
+
+    // Resultado de uma ronda com um par de locks novos
+    private static final class Ronda {
+        final Lock[] locks;
+        final double operacoesPorSegundo;
+        final long[] latenciasUrgentes;
+        final long esperaBaixaMax;
+
+        Ronda(Lock[] locks, double operacoesPorSegundo, long[] latenciasUrgentes, long esperaBaixaMax) {
+            this.locks = locks;
+            this.operacoesPorSegundo = operacoesPorSegundo;
+            this.latenciasUrgentes = latenciasUrgentes;
+            this.esperaBaixaMax = esperaBaixaMax;
+        }
+    }
+
+    /**
+     * Ronda de aquecimento (descartada) e ronda medida; devolve os locks da ronda medida.
+     * Sem aquecimento, a paragem do primeiro uso (JIT, carregamento de classes, estruturas
+     * do monitor) cai no Máx do primeiro lock medido.
+     */
+    private static List<Lock> medir(String descricao, Function<String, Lock> fabrica) {
+        ronda(fabrica, AQUECIMENTO_MS);
+        Ronda r = ronda(fabrica, DURACAO_MS);
+        long[] lat = r.latenciasUrgentes;
+        System.out.println(String.format("%-26s %10.0f %10d %10s %10s %10s %14s", descricao, r.operacoesPorSegundo,
+                lat.length, ms(percentil(lat, 0.5)), ms(percentil(lat, 0.99)),
+                ms(lat.length == 0 ? 0 : lat[lat.length - 1]), ms(r.esperaBaixaMax)));
+        return Arrays.asList(r.locks);
+    }
+
+    private static Ronda ronda(Function<String, Lock> fabrica, long duracaoMs) {
+        Lock pacientes = fabrica.apply("DB:Pacientes");
+        Lock exames = fabrica.apply("DB:Exames");
+        MonitorEBPF monitor = MonitorEBPF.getInstance();
+        LongAdder operacoes = new LongAdder();
+        List<Long> latenciasUrgentes = new ArrayList<>();
+        AtomicLong esperaBaixaMax = new AtomicLong();
+        CountDownLatch partida = new CountDownLatch(1);
+        List<Thread> threads = new ArrayList<>();
+
+        for (int i = 0; i < BAIXAS; i++) {
+            threads.add(new Thread(() -> {
+                aguardar(partida);
+                while (!Thread.currentThread().isInterrupted()) {
+                    long t0 = System.nanoTime();
+                    pacientes.lock();
+                    try {
+                        esperaBaixaMax.accumulateAndGet(System.nanoTime() - t0, Math::max);
+                        trabalhar(500);
+                        exames.lock();
+                        try {
+                            trabalhar(1000);
+                        } finally {
+                            exames.unlock();
+                        }
+                    } finally {
+                        pacientes.unlock();
+                    }
+                    operacoes.increment();
+                    trabalhar(2000);
+                }
+            }, "Estatistica_Baixa_" + i));
+        }
+        for (int i = 0; i < MEDIAS; i++) {
+            threads.add(new Thread(() -> {
+                aguardar(partida);
+                while (!Thread.currentThread().isInterrupted()) {
+                    exames.lock();
+                    try {
+                        trabalhar(1000);
+                    } finally {
+                        exames.unlock();
+                    }
+                    operacoes.increment();
+                }
+            }, "Relatorio_Medio_" + i));
+        }
+        for (int i = 0; i < URGENTES; i++) {
+            threads.add(new Thread(() -> {
+                aguardar(partida);
+                while (!Thread.currentThread().isInterrupted()) {
+                    long t0 = System.nanoTime();
+                    pacientes.lock();
+                    try {
+                        synchronized (latenciasUrgentes) {
+                            latenciasUrgentes.add(System.nanoTime() - t0);
+                        }
+                        trabalhar(200);
+                    } finally {
+                        pacientes.unlock();
+                    }
+                    operacoes.increment();
+                    trabalhar(TimeUnit.MILLISECONDS.toMicros(PERIODO_URGENTE_MS));
+                }
+            }, "Transacao_Urgente_" + i));
+        }
+
+        Paciente urgente = new Paciente("Urgencia", 1);
+        Paciente baixa = new Paciente("Rotina", 3);
+        for (Thread t : threads) {
+            int prioridade = t.getName().startsWith("Transacao_Urgente") ? urgente.getPrioridadeThread()
+                    : t.getName().startsWith("Estatistica_Baixa") ? baixa.getPrioridadeThread() : Thread.NORM_PRIORITY;
+            t.setPriority(prioridade);
+            monitor.definirPrioridade(t, prioridade);
+            t.start();
+        }
+        long inicio = System.nanoTime();
+        partida.countDown();
+        try {
+            Thread.sleep(duracaoMs);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        for (Thread t : threads)
+            t.interrupt();
+        for (Thread t : threads) {
+            try {
+                t.join();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        double segundos = (System.nanoTime() - inicio) / 1e9;
+
+        long[] lat;
+        synchronized (latenciasUrgentes) {
+            lat = latenciasUrgentes.stream().mapToLong(Long::longValue).toArray();
+        }
+        Arrays.sort(lat);
+        return new Ronda(new Lock[] { pacientes, exames }, operacoes.sum() / segundos, lat, esperaBaixaMax.get());
+    }
+
+    /**
+     * ReentrantLock com as arestas do Wait-for Graph que o LockPrioridade regista (Request,
+     * Allocation e libertação): as linhas do benchmark pagam o mesmo custo do DetectorDeadlock.
+     */
+    private static final class LockMonitorizado implements Lock {
+        private final String nome;
+        private final ReentrantLock lock;
+
+        LockMonitorizado(String nome, boolean justo) {
+            this.nome = nome;
+            this.lock = new ReentrantLock(justo);
+        }
+
+        private static DetectorDeadlock detector() {
+            return MonitorEBPF.getInstance().getDetector();
+        }
+
+        @Override
+        public void lock() {
+            if (lock.tryLock()) {
+                alocado();
+                return;
+            }
+            detector().registarEspera(Thread.currentThread(), this);
+            lock.lock();
+            alocado();
+        }
+
+        @Override
+        public void lockInterruptibly() throws InterruptedException {
+            if (Thread.interrupted())
+                throw new InterruptedException();
+            if (lock.tryLock()) {
+                alocado();
+                return;
+            }
+            Thread atual = Thread.currentThread();
+            detector().registarEspera(atual, this);
+            boolean obtido = false;
+            try {
+                lock.lockInterruptibly();
+                obtido = true;
+            } finally {
+                if (obtido)
+                    alocado();
+                else
+                    detector().cancelarEspera(atual, this);
+            }
+        }
+
+        @Override
+        public boolean tryLock() {
+            if (!lock.tryLock())
+                return false;
+            alocado();
+            return true;
+        }
+
+        @Override
+        public boolean tryLock(long time, TimeUnit unit) throws InterruptedException {
+            if (lock.tryLock()) {
+                alocado();
+                return true;
+            }
+            Thread atual = Thread.currentThread();
+            detector().registarEspera(atual, this);
+            boolean obtido = false;
+            try {
+                obtido = lock.tryLock(time, unit);
+            } finally {
+                if (obtido)
+                    alocado();
+                else
+                    detector().cancelarEspera(atual, this);
+            }
+            return obtido;
+        }
+
+        // Só a primeira posse é uma Allocation edge (a reentrância não muda o grafo)
+        private void alocado() {
+            if (lock.getHoldCount() == 1)
+                detector().registarAlocacao(Thread.currentThread(), this);
+        }
+
+        @Override
+        public void unlock() {
+            if (lock.getHoldCount() == 1)
+                detector().registarLibertacao(Thread.currentThread(), this);
+            lock.unlock();
+        }
+
+        @Override
+        public Condition newCondition() {
+            return lock.newCondition();
+        }
+
+        @Override
+        public String toString() {
+            return "Lock(" + nome + ")";
+        }
+    }
+
+    // Trabalho na secção crítica sem ocupar o CPU (I/O simulado), interrompível
+    private static void trabalhar(long micros) {
+        LockSupport.parkNanos(TimeUnit.MICROSECONDS.toNanos(micros));
+    }
+
+    private static void aguardar(CountDownLatch partida) {
+        try {
+            partida.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static long percentil(long[] ordenados, double p) {
+        if (ordenados.length == 0)
+            return 0;
+        return ordenados[(int) Math.min(ordenados.length - 1, Math.floor(p * ordenados.length))];
+    }
+
+    private static String ms(long nanos) {
+        return String.format("%.1fms", nanos / 1e6);
+    }
+}
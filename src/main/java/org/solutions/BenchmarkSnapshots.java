@@ -0,0 +1,240 @@
+package org.solutions;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import org.monitor.CelulaVersionada;
+import org.monitor.GestorSnapshots;
+
+public class BenchmarkSnapshots {
+    private static final int STOCKS = 256;
+    private static final int UNIDADES_INICIAIS = 1000;
+    private static final int THREADS = 4;
+    private static final long DURACAO_MS = 2000;
+    private static final int MAX_AMOSTRAS = 1 << 20;
+
+    private enum Modo {
+        SEM_SNAPSHOTS("Sem snapshots"),
+        EPOCAS("Snapshots por épocas"),
+        BLOQUEANTE("Snapshots bloqueantes");
+
+        final String descricao;
+
+        Modo(String descricao) {
+            this.descricao = descricao;
+        }
+    }
+
+    // Stock de teste: um lock por stock, como o StockSangue, mas sem hooks nem consola
+    private static final class Stock {
+        final CelulaVersionada unidades;
+
+        Stock(GestorSnapshots gestor) {
+            unidades = new CelulaVersionada(UNIDADES_INICIAIS, gestor);
+        }
+    }
+
+    public static void run() {
+        System.out.println("\n[BENCHMARK] SNAPSHOTS DO ESTADO SEM PAUSAR AS OPERAÇÕES");
+        System.out.println(STOCKS + " stocks, " + THREADS + " threads a transferir unidades entre stocks durante "
+                + DURACAO_MS + "ms por modo.");
+        System.out.println("Invariante: a soma das unidades é sempre " + (long) STOCKS * UNIDADES_INICIAIS
+                + " (um snapshot inconsistente apanha uma transferência a meio).");
+        System.out.println(String.format("%-24s %12s %10s %10s %10s %10s %12s", "Modo", "Ops/s", "p99", "p99.9",
+                "Máx", "Snapshots", "Inconsist."));
+        for (Modo modo : Modo.values())
+            medir(modo);
+        tamanhoERestauro();
+    }
+
+    // Gestor próprio de cada medição: os stocks de teste não entram nos snapshots periódicos
+    // do simulador nem atrasam o seu corte
+    private static GestorSnapshots criarGestor(Stock[] stocks) {
+        GestorSnapshots gestor = new GestorSnapshots();
+        for (int i = 0; i < STOCKS; i++) {
+            stocks[i] = new Stock(gestor);
+            gestor.registarStock(nome(i), stocks[i].unidades);
+        }
+        return gestor;
+    }
+
+    private static void medir(Modo modo) {
+        Stock[] stocks = new Stock[STOCKS];
+        GestorSnapshots gestor = criarGestor(stocks);
+        AtomicBoolean ativo = new AtomicBoolean(true);
+        AtomicLong snapshots = new AtomicLong();
+        AtomicLong inconsistentes = new AtomicLong();
+        long[][] latencias = new long[THREADS][MAX_AMOSTRAS];
+        int[] amostras = new int[THREADS];
+        long[] operacoes = new long[THREADS];
+
+        Thread[] pool = new Thread[THREADS];
+        for (int w = 0; w < THREADS; w++) {
+            int id = w;
+            pool[w] = new Thread(() -> {
+                ThreadLocalRandom rnd = ThreadLocalRandom.current();
+                while (ativo.get()) {
+                    int a = rnd.nextInt(STOCKS);
+                    int b = rnd.nextInt(STOCKS - 1);
+                    if (b >= a)
+                        b++;
+                    long inicio = System.nanoTime();
+                    transferir(gestor, stocks, a, b, 1 + rnd.nextInt(5));
+                    long fim = System.nanoTime();
+                    if (amostras[id] < MAX_AMOSTRAS)
+                        latencias[id][amostras[id]++] = fim - inicio;
+                    operacoes[id]++;
+                }
+            }, "Snapshot-Bench-" + w);
+        }
+        Path ficheiro;
+        try {
+            ficheiro = Files.createTempFile("simulador", ".snap");
+        } catch (IOException e) {
+            System.err.println("Erro no snapshot: " + e.getMessage());
+            return;
+        }
+        Thread capturador = new Thread(() -> {
+            while (ativo.get()) {
+                try {
+                    GestorSnapshots.Snapshot s = modo == Modo.EPOCAS ? gravar(gestor, ficheiro)
+                            : gravarBloqueante(gestor, stocks, 0, ficheiro);
+                    long soma = 0;
+                    for (long v : s.secoes.get("stock").values())
+                        soma += v;
+                    if (soma != (long) STOCKS * UNIDADES_INICIAIS)
+                        inconsistentes.incrementAndGet();
+                    snapshots.incrementAndGet();
+                    TimeUnit.MILLISECONDS.sleep(5);
+                } catch (IOException e) {
+                    System.err.println("Erro no snapshot: " + e.getMessage());
+                    break;
+                } catch (InterruptedException e) {
+                    break;
+                }
+            }
+        }, "Snapshot-Bench-Capturador");
+
+        long inicio = System.nanoTime();
+        for (Thread t : pool)
+            t.start();
+        if (modo != Modo.SEM_SNAPSHOTS)
+            capturador.start();
+        try {
+            TimeUnit.MILLISECONDS.sleep(DURACAO_MS);
+            ativo.set(false);
+            for (Thread t : pool)
+                t.join();
+            if (modo != Modo.SEM_SNAPSHOTS)
+                capturador.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        double segundos = (System.nanoTime() - inicio) / 1e9;
+
+        long total = 0;
+        int n = 0;
+        for (int w = 0; w < THREADS; w++) {
+            total += operacoes[w];
+            n += amostras[w];
+        }
+        long[] todas = new long[n];
+        int k = 0;
+        for (int w = 0; w < THREADS; w++) {
+            System.arraycopy(latencias[w], 0, todas, k, amostras[w]);
+            k += amostras[w];
+        }
+        Arrays.sort(todas);
+        System.out.println(String.format("%-24s %12.0f %10s %10s %10s %10d %12d", modo.descricao, total / segundos,
+                micros(percentil(todas, 0.99)), micros(percentil(todas, 0.999)), micros(todas[n - 1]),
+                snapshots.get(), inconsistentes.get()));
+        apagar(ficheiro);
+    }
+
+    // Locks por ordem de índice (evita deadlock entre transferências cruzadas)
+    private static void transferir(GestorSnapshots gestor, Stock[] stocks, int a, int b, int qtd) {
+        Stock origem = stocks[a];
+        Stock destino = stocks[b];
+        synchronized (stocks[Math.min(a, b)]) {
+            synchronized (stocks[Math.max(a, b)]) {
+                if (origem.unidades.get() < qtd)
+                    return;
+                // As duas escritas ficam na mesma época: nenhum snapshot vê só metade
+                long epoca = gestor.iniciarEscrita();
+                try {
+                    origem.unidades.set(origem.unidades.get() - qtd, epoca);
+                    destino.unidades.set(destino.unidades.get() + qtd, epoca);
+                } finally {
+                    gestor.terminarEscrita(epoca);
+                }
+            }
+        }
+    }
+
+    private static GestorSnapshots.Snapshot gravar(GestorSnapshots gestor, Path ficheiro) throws IOException {
+        GestorSnapshots.Snapshot s = gestor.capturar();
+        gestor.gravar(ficheiro.toString(), s);
+        return s;
+    }
+
+    // Alternativa ingénua: trava todos os stocks enquanto captura e grava (as transferências param)
+    private static GestorSnapshots.Snapshot gravarBloqueante(GestorSnapshots gestor, Stock[] stocks, int i,
+            Path ficheiro) throws IOException {
+        if (i == stocks.length)
+            return gravar(gestor, ficheiro);
+        synchronized (stocks[i]) {
+            return gravarBloqueante(gestor, stocks, i + 1, ficheiro);
+        }
+    }
+
+    private static void apagar(Path ficheiro) {
+        try {
+            Files.deleteIfExists(ficheiro);
+            Files.deleteIfExists(Path.of(ficheiro + ".anterior"));
+        } catch (IOException e) {
+            System.err.println("Erro ao apagar snapshot: " + e.getMessage());
+        }
+    }
+
+    private static void tamanhoERestauro() {
+        Stock[] stocks = new Stock[STOCKS];
+        GestorSnapshots gestor = criarGestor(stocks);
+        try {
+            Path ficheiro = Files.createTempFile("simulador", ".snap");
+            long inicio = System.nanoTime();
+            int bytes = gestor.gravar(ficheiro.toString());
+            double gravarMs = (System.nanoTime() - inicio) / 1e6;
+            for (Stock s : stocks)
+                s.unidades.set(0);
+            inicio = System.nanoTime();
+            GestorSnapshots.Snapshot s = gestor.restaurar(ficheiro.toString());
+            double restaurarMs = (System.nanoTime() - inicio) / 1e6;
+            boolean ok = s != null;
+            for (Stock st : stocks)
+                ok &= st.unidades.get() == UNIDADES_INICIAIS;
+            System.out.println(String.format("Snapshot: %d bytes (%d stocks), gravado em %.2fms, "
+                    + "restaurado em %.2fms (%s)", bytes, STOCKS, gravarMs, restaurarMs,
+                    ok ? "níveis corretos" : "FALHOU"));
+            apagar(ficheiro);
+        } catch (IOException e) {
+            System.err.println("Erro no snapshot: " + e.getMessage());
+        }
+    }
+
+    private static String nome(int i) {
+        return String.format("Bench-%03d", i);
+    }
+
+    private static long percentil(long[] ordenados, double p) {
+        return ordenados[(int) Math.min(ordenados.length - 1, Math.floor(p * ordenados.length))];
+    }
+
+    private static String micros(long nanos) {
+        return String.format("%.1fµs", nanos / 1e3);
+    }
+}
@@ -1,5 +1,7 @@
 package org.solutions;
 
+import java.util.List;
+import java.util.concurrent.TimeUnit;
 import org.resources.BaseDados;
 
 public class DeadlockSolution {
@@ -8,23 +10,10 @@ public class DeadlockSolution {
         BaseDados p = new BaseDados("Pacientes");
         BaseDados h = new BaseDados("Historico");
 
-        Runnable r = () -> {
-            // ORDEM FIXA: Sempre P depois H
-            p.bloqueioLeitura();
-            try {
-                Thread.sleep(10);
-            } catch (InterruptedException e) {
-                e.printStackTrace();
-                Thread.currentThread().interrupt();
-            }
-            h.bloqueioLeitura();
-            System.out.println("Transação OK: " + Thread.currentThread().getName());
-            h.desbloquear();
-            p.desbloquear();
-        };
-
-        Thread t1 = new Thread(r, "Solucao_A");
-        Thread t2 = new Thread(r, "Solucao_B");
+        // Cada transação pede as tabelas pela ordem que quiser:
+        // bloqueioTodas() ordena canonicamente e usa tryLock com backoff (sem Hold-and-Wait)
+        Thread t1 = new Thread(() -> transacao(List.of(p, h)), "Solucao_A");
+        Thread t2 = new Thread(() -> transacao(List.of(h, p)), "Solucao_B");
         t1.start();
         t2.start();
         try {
@@ -34,4 +23,22 @@ public class DeadlockSolution {
             e.printStackTrace();
         }
     }
-}
\ No newline at end of file
+
+    private static void transacao(List<BaseDados> tabelas) {
+        try {
+            if (!BaseDados.bloqueioTodas(tabelas, 2, TimeUnit.SECONDS)) {
+                System.out.println("Transação ABORTADA (timeout): " + Thread.currentThread().getName());
+                return;
+            }
+            try {
+                Thread.sleep(10);
+                System.out.println("Transação OK: " + Thread.currentThread().getName());
+            } finally {
+                BaseDados.desbloquearTodas(tabelas);
+            }
+        } catch (InterruptedException e) {
+            e.printStackTrace();
+            Thread.currentThread().interrupt();
+        }
+    }
+}
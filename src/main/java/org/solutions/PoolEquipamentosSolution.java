@@ -0,0 +1,61 @@
+package org.solutions;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import org.monitor.MonitorEBPF;
+import org.monitor.PipelineEventos;
+import org.resources.EquipamentoMedico;
+import org.resources.EquipamentoPool;
+
+public class PoolEquipamentosSolution {
+    public static void run() {
+        System.out.println("\n[SOLUÇÃO] POOL DE EQUIPAMENTOS (Alocação Atómica k-de-n)");
+        EquipamentoPool pool = new EquipamentoPool("Bloco_Operatorio");
+        pool.adicionarTipo("Ventilador", 4);
+        pool.adicionarTipo("Monitor", 3);
+        MonitorEBPF monitor = MonitorEBPF.getInstance();
+
+        // Cada cirurgia precisa de 2 ventiladores e 1 monitor em simultâneo
+        Map<String, Integer> pedido = Map.of("Ventilador", 2, "Monitor", 1);
+        List<Thread> cirurgias = new ArrayList<>();
+
+        for (int i = 1; i <= 6; i++) {
+            Thread t = new Thread(() -> {
+                try {
+                    EquipamentoPool.Alocacao alocacao = pool.adquirir(pedido, 2, TimeUnit.SECONDS);
+                    if (alocacao == null) {
+                        System.out.println("-> " + Thread.currentThread().getName() + ": Timeout (sem equipamento livre).");
+                        return;
+                    }
+                    try {
+                        StringBuilder sb = new StringBuilder();
+                        for (EquipamentoMedico eq : alocacao.getEquipamentos())
+                            sb.append(eq.getNome()).append(" ");
+                        System.out.println("-> " + Thread.currentThread().getName() + " obteve: " + sb);
+                        Thread.sleep(300);
+                    } finally {
+                        pool.libertar(alocacao);
+                    }
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }, "Cirurgia_" + i);
+            monitor.track(t);
+            cirurgias.add(t);
+            t.start();
+        }
+
+        for (Thread t : cirurgias) {
+            try {
+                t.join();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            monitor.untrack(t);
+        }
+        PipelineEventos.esvaziar();
+        System.out.println(pool.obterRelatorioUtilizacao());
+    }
+}
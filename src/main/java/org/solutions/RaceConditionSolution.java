@@ -2,6 +2,7 @@ package org.solutions;
 
 import java.util.Scanner;
 
+import org.monitor.PipelineEventos;
 import org.resources.StockSangue;
 
 public class RaceConditionSolution {
@@ -26,6 +27,7 @@ public class RaceConditionSolution {
         } catch (InterruptedException e) {
             e.printStackTrace();
         }
+        PipelineEventos.esvaziar();
         System.out.println("Stock Final: " + stock.getUnidades() + " (Consistente)");
     }
 }
\ No newline at end of file
@@ -1,43 +1,169 @@
 package org.solutions;
 import org.app.Config;
+import org.app.GestorConfiguracao;
+import org.monitor.ControloAdmissao;
+import org.resources.LockAdaptativo;
+import org.resources.LockComAdmissao;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.Lock;
 import java.util.concurrent.locks.ReentrantLock;
 
 public class StarvationSolution {
+    private static final int SPAM = 300;
+    private static final long SECCAO_CRITICA_MS = 10;
+    // Quota abaixo da parte justa de cada thread de spam (1000/10ms/300 = 0.33 aquisições/s)
+    private static final double QUOTA_POR_S = 0.1;
+
     public static void run() {
-        System.out.println("\n[SOLUÇÃO] STARVATION (Fair Lock)");
-        // TRUE = Garante justiça (FIFO)
-        ReentrantLock fairLock = new ReentrantLock(true);
+        // Recurso disputado: lock adaptativo ou Fair Lock (Config.STARVATION_LOCK_ADAPTATIVO)
+        Lock lock;
+        if (Config.STARVATION_LOCK_ADAPTATIVO) {
+            System.out.println("\n[SOLUÇÃO] STARVATION (Lock Adaptativo: barging, FIFO acima do limite)");
+            lock = new LockAdaptativo("Recurso_Critico");
+        } else {
+            System.out.println("\n[SOLUÇÃO] STARVATION (Fair Lock)");
+            // TRUE = Garante justiça (FIFO)
+            lock = new ReentrantLock(true);
+        }
 
+        // Lida depois de um join com tempo limite (a vítima pode ainda estar viva)
+        AtomicLong esperaVitima = new AtomicLong(-1);
         Thread vitima = new Thread(() -> {
             System.out.println("Vítima na fila...");
-            fairLock.lock();
+            long t0 = System.nanoTime();
+            lock.lock();
             try {
+                esperaVitima.set((System.nanoTime() - t0) / 1_000_000);
                 System.out.println(">>> Vítima atendida!");
             } finally {
-                fairLock.unlock();
+                lock.unlock();
             }
-        });
+        }, "Vitima_Baixa_Prio");
         vitima.setPriority(Thread.MIN_PRIORITY);
 
-        // Encher fila
-        for (int i = 0; i < 300; i++) {
-            new Thread(() -> {
-                fairLock.lock();
-                try {
-                    Thread.sleep(5);
-                } catch (InterruptedException e) {
-                    Thread.currentThread().interrupt();
-                } finally {
-                    fairLock.unlock();
-                }
-            }).start();
+        // O flood do cenário: spam que re-adquire logo o recurso
+        List<Thread> spamThreads = new ArrayList<>();
+        try {
+            for (int i = 0; i < SPAM; i++) {
+                Thread spam = new Thread(() -> {
+                    try {
+                        while (!Thread.currentThread().isInterrupted()) {
+                            lock.lockInterruptibly();
+                            try {
+                                Thread.sleep(SECCAO_CRITICA_MS);
+                            } finally {
+                                lock.unlock();
+                            }
+                        }
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                    }
+                }, "Spam_" + i);
+                spam.setPriority(Thread.MAX_PRIORITY);
+                spam.start();
+                spamThreads.add(spam);
+            }
+            Thread.sleep(100);
+            vitima.start();
+            vitima.join(GestorConfiguracao.atual().getStarvationLimiteMs() * 2);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } finally {
+            pararSpam(spamThreads);
+        }
+        long espera = esperaVitima.get();
+        if (espera >= 0)
+            System.out.println(">>> Vítima atendida ao fim de " + espera + "ms, com o flood ativo.");
+        else
+            System.out.println("[FALHA] A vítima continuou bloqueada.");
+        if (lock instanceof LockAdaptativo)
+            System.out.println("Mudanças de modo do lock: " + ((LockAdaptativo) lock).getMudancasModo());
+        try {
+            vitima.join(2000);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+
+        controloAdmissao();
+    }
+
+    private static void pararSpam(List<Thread> spamThreads) {
+        for (Thread t : spamThreads)
+            t.interrupt();
+        for (Thread t : spamThreads) {
+            try {
+                t.join(1000);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    // O mesmo flood do cenário (spam que re-adquire sem parar um lock injusto), mitigado
+    // pelo controlo de admissão em vez de um lock justo. O controlo é próprio da demonstração:
+    // o global (monitor.admissao.*) e o hot reload não são alterados nem interferem
+    private static void controloAdmissao() {
+        System.out.println("\n[SOLUÇÃO] STARVATION (Controlo de Admissão contra o Flood)");
+        ControloAdmissao admissao = new ControloAdmissao(QUOTA_POR_S, 1, ControloAdmissao.Modo.ATRASAR);
+        System.out.println(SPAM + " threads de spam (" + SECCAO_CRITICA_MS + "ms no lock, re-adquirem logo); quota de "
+                + QUOTA_POR_S + " aquisições/s por thread, modo ATRASAR.");
+
+        LockComAdmissao lock = new LockComAdmissao("Recurso_Critico", admissao);
+        List<Thread> spamThreads = new ArrayList<>();
+        AtomicLong esperaVitima = new AtomicLong(-1);
+        Thread vitima = new Thread(() -> {
+            long t0 = System.nanoTime();
+            lock.lock();
+            try {
+                esperaVitima.set((System.nanoTime() - t0) / 1_000_000);
+            } finally {
+                lock.unlock();
+            }
+        }, "Vitima_Baixa_Prio");
+        vitima.setPriority(Thread.MIN_PRIORITY);
+
+        try {
+            for (int i = 0; i < SPAM; i++) {
+                Thread spam = new Thread(() -> {
+                    try {
+                        while (!Thread.currentThread().isInterrupted()) {
+                            // Interruptível: uma thread atrasada fora da fila termina logo no fim
+                            lock.lockInterruptibly();
+                            try {
+                                Thread.sleep(SECCAO_CRITICA_MS);
+                            } finally {
+                                lock.unlock();
+                            }
+                        }
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                    }
+                }, "Spam_" + i);
+                spam.setPriority(Thread.MAX_PRIORITY);
+                spam.start();
+                spamThreads.add(spam);
+            }
+            Thread.sleep(100);
+            vitima.start();
+            vitima.join(GestorConfiguracao.atual().getStarvationLimiteMs() * 3);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } finally {
+            pararSpam(spamThreads);
         }
 
-        vitima.start();
+        System.out.println("Threads de spam sinalizadas (FLOOD): " + admissao.getSinalizacoes());
+        long espera = esperaVitima.get();
+        if (espera >= 0)
+            System.out.println(">>> Vítima atendida ao fim de " + espera + "ms, com o flood ativo.");
+        else
+            System.out.println("[FALHA] A vítima continuou bloqueada com o controlo de admissão.");
         try {
-            vitima.join(Config.STARVATION_THRESHOLD_MS);
+            vitima.join(2000);
         } catch (InterruptedException e) {
-            e.printStackTrace();
+            Thread.currentThread().interrupt();
         }
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,65 @@
+package org.solutions;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.monitor.PipelineEventos;
+import org.resources.BaseDados;
+
+public class TransacoesAssincronasSolution {
+    private static final int TRANSACOES = 2000;
+    private static final int THREADS_EVENT_LOOP = 2;
+
+    // Participante no Wait-for Graph (não é uma thread)
+    private static final class Transacao {
+        private final int id;
+
+        Transacao(int id) {
+            this.id = id;
+        }
+
+        @Override
+        public String toString() {
+            return "Tx_" + id;
+        }
+    }
+
+    public static void run() {
+        System.out.println("\n[SOLUÇÃO] TRANSAÇÕES ASSÍNCRONAS (CompletableFuture)");
+        System.out.println(TRANSACOES + " transações pendentes servidas por " + THREADS_EVENT_LOOP + " threads.");
+        BaseDados pac = new BaseDados("Pacientes");
+        BaseDados hist = new BaseDados("Historico");
+        List<BaseDados> tabelas = List.of(hist, pac); // Ordem indiferente: a composição ordena
+
+        ExecutorService eventLoop = Executors.newFixedThreadPool(THREADS_EVENT_LOOP);
+        AtomicInteger concluidas = new AtomicInteger();
+        AtomicInteger falhadas = new AtomicInteger();
+        CompletableFuture<?>[] futuros = new CompletableFuture<?>[TRANSACOES];
+
+        long inicio = System.nanoTime();
+        for (int i = 0; i < TRANSACOES; i++) {
+            Transacao tx = new Transacao(i);
+            futuros[i] = BaseDados.bloqueioTodasAsync(tx, tabelas, 5, TimeUnit.SECONDS)
+                    .thenRunAsync(() -> {
+                        try {
+                            concluidas.incrementAndGet(); // Trabalho da transação
+                        } finally {
+                            BaseDados.desbloquearTodas(tx, tabelas);
+                        }
+                    }, eventLoop)
+                    .exceptionally(e -> {
+                        falhadas.incrementAndGet();
+                        return null;
+                    });
+        }
+        CompletableFuture.allOf(futuros).join();
+        long ms = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - inicio);
+        eventLoop.shutdown();
+
+        PipelineEventos.esvaziar();
+        System.out.println("Concluídas: " + concluidas.get() + " | Timeout: " + falhadas.get() + " | Tempo: " + ms + "ms");
+    }
+}
@@ -0,0 +1,234 @@
+package org.solutions;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+import org.monitor.EscalonadorControlado;
+import org.monitor.ExploradorEscalonamentos;
+import org.monitor.ExploradorEscalonamentos.Cenario;
+import org.monitor.ExploradorEscalonamentos.Execucao;
+import org.monitor.ExploradorEscalonamentos.Relatorio;
+import org.monitor.PipelineEventos;
+import org.resources.BaseDados;
+import org.resources.StockSangue;
+
+/**
+ * Verificação sistemática (em vez de uma execução com sorte): explora os
+ * interleavings nos pontos de probe e verifica linearizabilidade do stock
+ * contra um modelo sequencial e ausência de deadlock da ordenação de recursos.
+ */
+public class VerificacaoEscalonamentos {
+    private static final int MAX_EXECUCOES = 20_000;
+    private static final int REPETICOES_REPLAY = 10;
+
+    public static void run() {
+        System.out.println("\n[SOLUÇÃO] VERIFICAÇÃO SISTEMÁTICA DE ESCALONAMENTOS (Model Checking)");
+        int trabalhadores = Math.max(2, Runtime.getRuntime().availableProcessors());
+        System.out.println("Trabalhadores: " + trabalhadores + " | limite: " + MAX_EXECUCOES + " execuções por cenário");
+        try {
+            verificar("Stock retirarSeguroManual + adicionar", VerificacaoEscalonamentos::stockSeguro, trabalhadores);
+            verificar("Stock retirarInseguro", VerificacaoEscalonamentos::stockInseguro, trabalhadores);
+            verificar("BD ordem oposta (DeadlockScenario)", e -> basesDados(e, false), trabalhadores);
+            verificar("BD bloqueioTodas (DeadlockSolution)", e -> basesDados(e, true), trabalhadores);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static void verificar(String nome, Cenario cenario, int trabalhadores) throws InterruptedException {
+        System.out.println("\n>> " + nome);
+        // Mensagens dos recursos: silenciadas só nas threads desta verificação (herdam o estado)
+        PipelineEventos.silenciar(true);
+        Relatorio semPor;
+        Relatorio comPor;
+        try {
+            semPor = new ExploradorEscalonamentos(trabalhadores, MAX_EXECUCOES, false).explorar(cenario);
+            comPor = new ExploradorEscalonamentos(trabalhadores, MAX_EXECUCOES, true).explorar(cenario);
+        } finally {
+            terminarSilencio();
+        }
+        imprimir("Sem POR", semPor);
+        imprimir("Com POR", comPor);
+
+        Execucao contraExemplo = comPor.contraExemplo != null ? comPor.contraExemplo : semPor.contraExemplo;
+        if (contraExemplo == null) {
+            // Só a exploração sem POR cobre todos os escalonamentos; a com POR depende da hipótese
+            // de cada passo só tocar o recurso do seu ponto de probe
+            System.out.println("   Nenhuma violação" + (semPor.exaustiva ? " em todos os escalonamentos."
+                    : comPor.completa ? " nos escalonamentos representativos (POR; um recurso por passo)."
+                            : " (exploração limitada)."));
+            return;
+        }
+        System.out.println("   " + contraExemplo.desfecho + ": " + contraExemplo.detalhe);
+        System.out.println("   Escalonamento: " + contraExemplo.traco);
+
+        // O contra-exemplo é determinístico: repetir o escalonamento repete o desfecho
+        int reproduzidas = 0;
+        PipelineEventos.silenciar(true);
+        try {
+            for (int i = 0; i < REPETICOES_REPLAY; i++)
+                if (ExploradorEscalonamentos.reproduzir(cenario, contraExemplo.escolhas).desfecho == contraExemplo.desfecho)
+                    reproduzidas++;
+        } finally {
+            terminarSilencio();
+        }
+        System.out.println("   Replay: " + reproduzidas + "/" + REPETICOES_REPLAY);
+    }
+
+    private static void terminarSilencio() {
+        PipelineEventos.silenciar(false);
+        PipelineEventos.esvaziar();
+    }
+
+    private static void imprimir(String modo, Relatorio r) {
+        System.out.println(String.format("   %s: %d execuções (%d podadas) em %.2fs (%.0f/s) | violações=%d deadlocks=%d divergências=%d%s",
+                modo, r.execucoes, r.podadas, r.segundos, r.execucoes / r.segundos, r.violacoes, r.deadlocks,
+                r.divergencias, r.completa ? "" : " [limite atingido]"));
+    }
+
+    // --- CENÁRIOS ---
+
+    private static Supplier<String> stockSeguro(EscalonadorControlado e) {
+        StockSangue stock = new StockSangue("Verificacao", 10);
+        Historico h = new Historico(10);
+        e.criarThread("Medico_A", () -> h.retirar(e, 8, () -> stock.retirarSeguroManual(8)));
+        e.criarThread("Medico_B", () -> h.retirar(e, 8, () -> stock.retirarSeguroManual(8)));
+        e.criarThread("Fornecedor", () -> h.adicionar(e, 5, () -> stock.adicionar(5)));
+        return () -> h.verificar(stock.getUnidades());
+    }
+
+    private static Supplier<String> stockInseguro(EscalonadorControlado e) {
+        StockSangue stock = new StockSangue("Verificacao", 10);
+        Historico h = new Historico(10);
+        // retirarInseguro não devolve resultado: só o estado final é comparado
+        e.criarThread("Medico_A", () -> h.retirar(e, 8, () -> {
+            stock.retirarInseguro(8);
+            return null;
+        }));
+        e.criarThread("Medico_B", () -> h.retirar(e, 8, () -> {
+            stock.retirarInseguro(8);
+            return null;
+        }));
+        return () -> h.verificar(stock.getUnidades());
+    }
+
+    private static Supplier<String> basesDados(EscalonadorControlado e, boolean ordenado) {
+        BaseDados pac = new BaseDados("Pacientes");
+        BaseDados hist = new BaseDados("Historico");
+        BaseDados farm = new BaseDados("Farmacia");
+        e.criarThread("Transacao_A", () -> transacao(List.of(pac, hist), ordenado));
+        e.criarThread("Transacao_B", () -> transacao(List.of(hist, pac), ordenado));
+        // Independente das outras: com POR não multiplica os escalonamentos
+        e.criarThread("Transacao_C", () -> transacao(List.of(farm), ordenado));
+        return () -> null;
+    }
+
+    private static void transacao(List<BaseDados> tabelas, boolean ordenado) {
+        if (ordenado) {
+            try {
+                if (BaseDados.bloqueioTodas(tabelas, 1, TimeUnit.SECONDS))
+                    BaseDados.desbloquearTodas(tabelas);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            return;
+        }
+        for (BaseDados t : tabelas)
+            t.bloqueioLeitura();
+        for (int i = tabelas.size() - 1; i >= 0; i--)
+            tabelas.get(i).desbloquear();
+    }
+
+    /**
+     * História das operações sobre o stock e verificação de linearizabilidade
+     * (Wing & Gong): procura uma ordem sequencial que respeite a ordem real das
+     * operações não sobrepostas e reproduza os resultados e o estado final.
+     */
+    private static final class Historico {
+        private static final class Operacao {
+            final boolean retirar;
+            final int qtd;
+            int invocacao;
+            int resposta;
+            Boolean resultado; // null = não observável
+
+            Operacao(boolean retirar, int qtd) {
+                this.retirar = retirar;
+                this.qtd = qtd;
+            }
+
+            @Override
+            public String toString() {
+                return (retirar ? "retirar(" : "adicionar(") + qtd + ")" + (resultado == null ? "" : "=" + resultado);
+            }
+        }
+
+        private final int inicial;
+        private final List<Operacao> operacoes = Collections.synchronizedList(new ArrayList<>());
+
+        Historico(int inicial) {
+            this.inicial = inicial;
+        }
+
+        void retirar(EscalonadorControlado e, int qtd, Supplier<Boolean> op) {
+            Operacao o = new Operacao(true, qtd);
+            o.invocacao = e.getPasso();
+            o.resultado = op.get();
+            o.resposta = e.getPasso();
+            operacoes.add(o);
+        }
+
+        void adicionar(EscalonadorControlado e, int qtd, Runnable op) {
+            Operacao o = new Operacao(false, qtd);
+            o.invocacao = e.getPasso();
+            op.run();
+            o.resposta = e.getPasso();
+            operacoes.add(o);
+        }
+
+        String verificar(int finalObservado) {
+            List<Operacao> ops = new ArrayList<>(operacoes);
+            if (linearizavel(ops, new boolean[ops.size()], 0, inicial, finalObservado))
+                return null;
+            return "não linearizável: " + ops + " a partir de " + inicial + " terminou em " + finalObservado;
+        }
+
+        // Backtracking sobre as ordens sequenciais compatíveis com a ordem real
+        private boolean linearizavel(List<Operacao> ops, boolean[] usadas, int n, int unidades, int finalObservado) {
+            if (n == ops.size())
+                return unidades == finalObservado;
+            for (int i = 0; i < ops.size(); i++) {
+                if (usadas[i] || !minima(ops, usadas, i))
+                    continue;
+                Operacao o = ops.get(i);
+                // Modelo sequencial do StockSangue
+                int seguinte = unidades;
+                boolean resultado = true;
+                if (o.retirar) {
+                    resultado = unidades >= o.qtd;
+                    if (resultado)
+                        seguinte = unidades - o.qtd;
+                } else {
+                    seguinte = unidades + o.qtd;
+                }
+                if (o.resultado != null && o.resultado != resultado)
+                    continue;
+                usadas[i] = true;
+                if (linearizavel(ops, usadas, n + 1, seguinte, finalObservado))
+                    return true;
+                usadas[i] = false;
+            }
+            return false;
+        }
+
+        // A operação i pode ser a próxima se nenhuma outra por usar terminou antes de i começar
+        private boolean minima(List<Operacao> ops, boolean[] usadas, int i) {
+            for (int j = 0; j < ops.size(); j++)
+                if (j != i && !usadas[j] && ops.get(j).resposta < ops.get(i).invocacao)
+                    return false;
+            return true;
+        }
+    }
+}